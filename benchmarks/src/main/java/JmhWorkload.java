@@ -0,0 +1,236 @@
+import airplane.bench.Workload;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Workload over the real DatabaseManager, SeatInventory, PnrAllocator and FareRules (see Workload for why this
+// class sits in the default package). Seeded bookings fill each flight's seats from the front, so createBooking
+// takes seats from a per-flight cursor behind them; deleteCreatedBookings frees them again, and createBooking
+// calls it itself when a flight runs out.
+public class JmhWorkload implements Workload {
+
+    private static final AtomicLong DATABASES = new AtomicLong();
+    private static final String PAYMENT_METHOD = "JMH"; // marks the bookings createBooking made
+
+    // The application schema (airplane_reservations.sql) in SQL that H2's MySQL mode accepts
+    private static final String[] SCHEMA = {
+            "CREATE TABLE users (user_id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50) NOT NULL UNIQUE, " +
+                    "password VARCHAR(255) NOT NULL, role ENUM('ADMIN','CUSTOMER') NOT NULL, loyalty_points INT DEFAULT 0, " +
+                    "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE flights (flight_id INT AUTO_INCREMENT PRIMARY KEY, route VARCHAR(100) NOT NULL UNIQUE, " +
+                    "base_fare DECIMAL(10,2) NOT NULL, total_seats INT NOT NULL, flight_type ENUM('LOCAL','INTERNATIONAL') NOT NULL, " +
+                    "current_status ENUM('ON_TIME','DELAYED','CANCELED') DEFAULT 'ON_TIME', " +
+                    "departure_time TIMESTAMP NULL DEFAULT NULL, arrival_time TIMESTAMP NULL DEFAULT NULL)",
+            "CREATE TABLE bookings (booking_id INT AUTO_INCREMENT PRIMARY KEY, pnr VARCHAR(10) NOT NULL UNIQUE, " +
+                    "user_id INT NOT NULL REFERENCES users (user_id), flight_id INT NOT NULL REFERENCES flights (flight_id), " +
+                    "fare_class VARCHAR(50) NOT NULL, fare_multiplier DECIMAL(3,1) NOT NULL, total_price DECIMAL(10,2) NOT NULL, " +
+                    "num_persons INT NOT NULL, booking_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "is_checked_in TINYINT(1) DEFAULT 0, payment_method VARCHAR(50) DEFAULT NULL)",
+            "CREATE INDEX bookings_user_id ON bookings (user_id)",
+            "CREATE INDEX bookings_flight_id ON bookings (flight_id)",
+            "CREATE TABLE reserved_seats (reserved_seat_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "booking_id INT NOT NULL REFERENCES bookings (booking_id) ON DELETE CASCADE, " +
+                    "flight_id INT NOT NULL REFERENCES flights (flight_id), seat_id_str VARCHAR(5) NOT NULL, " +
+                    "CONSTRAINT unique_flight_seat UNIQUE (flight_id, seat_id_str))",
+            "CREATE INDEX reserved_seats_booking_id ON reserved_seats (booking_id)",
+            "CREATE TABLE audit_log (log_id INT AUTO_INCREMENT PRIMARY KEY, log_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "message TEXT NOT NULL, username VARCHAR(50) DEFAULT NULL)",
+            "CREATE TABLE pnr_sequence (seq_id INT PRIMARY KEY, next_value BIGINT NOT NULL DEFAULT 0, pnr_key BIGINT DEFAULT NULL)",
+            "INSERT INTO pnr_sequence (seq_id, next_value, pnr_key) VALUES (1, 0, NULL)",
+    };
+
+    private String url;
+    private AirplaneReservationSystem.User[] users;
+    private AirplaneReservationSystem.Flight[] flights;
+    private AtomicInteger[] nextFreeSeat; // per flight; seats below it are taken
+    private int[] seededSeats;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Override
+    public void open(int flightCount, int seatsPerFlight, int userCount, int bookingsPerUser) throws Exception {
+        long bookingCount = (long) userCount * bookingsPerUser;
+        if (bookingCount > (long) flightCount * seatsPerFlight) {
+            throw new IllegalArgumentException(bookingCount + " seeded bookings do not fit on " + flightCount + " flights of " + seatsPerFlight + " seats");
+        }
+        url = "jdbc:h2:mem:airplane" + DATABASES.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        long start = System.nanoTime();
+        seededSeats = new int[flightCount];
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SCHEMA) stmt.executeUpdate(sql);
+            }
+            conn.setAutoCommit(false);
+            seed(conn, flightCount, seatsPerFlight, userCount, bookingsPerUser);
+            conn.commit();
+        }
+        DatabaseManager.configure(url, "sa", "");
+        DatabaseManager.ensureDashboardStats();
+
+        users = new AirplaneReservationSystem.User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new AirplaneReservationSystem.User(i + 1, "user" + (i + 1), null, AirplaneReservationSystem.Role.CUSTOMER);
+        }
+        flights = new AirplaneReservationSystem.Flight[flightCount];
+        nextFreeSeat = new AtomicInteger[flightCount];
+        for (int i = 0; i < flightCount; i++) {
+            flights[i] = DatabaseManager.getFlightById(i + 1);
+            nextFreeSeat[i] = new AtomicInteger(seededSeats[i]);
+        }
+        System.out.printf("Seeded %d flights x %d seats, %d users x %d bookings in %d ms%n",
+                flightCount, seatsPerFlight, userCount, bookingsPerUser, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Booking k goes to flight k % flightCount, on that flight's next seat, so flights fill evenly from the front
+    private void seed(Connection conn, int flightCount, int seatsPerFlight, int userCount, int bookingsPerUser) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO flights (flight_id, route, base_fare, total_seats, flight_type) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= flightCount; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "City" + i + " to Hub (C" + i + "-HUB)");
+                ps.setDouble(3, 2500 + (i % 20) * 150);
+                ps.setInt(4, seatsPerFlight);
+                ps.setString(5, i % 4 == 0 ? "INTERNATIONAL" : "LOCAL");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO users (user_id, username, password, role) VALUES (?, ?, ?, 'CUSTOMER')")) {
+            for (int i = 1; i <= userCount; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "user" + i);
+                ps.setString(3, "pass" + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement booking = conn.prepareStatement("INSERT INTO bookings (booking_id, pnr, user_id, flight_id, fare_class, " +
+                "fare_multiplier, total_price, num_persons, payment_method) VALUES (?, ?, ?, ?, 'Economy', 1.0, ?, 1, 'Seed')");
+             PreparedStatement seat = conn.prepareStatement("INSERT INTO reserved_seats (booking_id, flight_id, seat_id_str) VALUES (?, ?, ?)")) {
+            int k = 0;
+            for (int u = 1; u <= userCount; u++) {
+                for (int b = 0; b < bookingsPerUser; b++, k++) {
+                    int flight = k % flightCount;
+                    booking.setInt(1, k + 1);
+                    booking.setString(2, "S" + Integer.toString(k, 36).toUpperCase());
+                    booking.setInt(3, u);
+                    booking.setInt(4, flight + 1);
+                    booking.setDouble(5, 3000);
+                    booking.addBatch();
+                    seat.setInt(1, k + 1);
+                    seat.setInt(2, flight + 1);
+                    seat.setString(3, SeatInventory.decode(seededSeats[flight]++));
+                    seat.addBatch();
+                    if (k % 1000 == 999) {
+                        booking.executeBatch();
+                        seat.executeBatch();
+                    }
+                }
+            }
+            booking.executeBatch();
+            seat.executeBatch();
+        }
+        try (Statement stmt = conn.createStatement()) { // generated ids must continue after the explicit ones
+            stmt.executeUpdate("ALTER TABLE bookings ALTER COLUMN booking_id RESTART WITH " + ((long) userCount * bookingsPerUser + 1));
+        }
+    }
+
+    @Override
+    public void close() {
+        DatabaseManager.shutdownAuditLog(1000);
+        DatabaseManager.closeConnection();
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            System.err.println("Could not shut down " + url + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String createBooking(int user, int flight) {
+        AirplaneReservationSystem.Flight f = flights[flight];
+        int seat = nextFreeSeat[flight].getAndIncrement();
+        if (seat >= f.getTotalSeats()) {
+            // Out of seats: free everything booked so far, a cost spread over all the flight's free seats
+            synchronized (this) {
+                if (nextFreeSeat[flight].get() > f.getTotalSeats()) deleteCreatedBookings();
+            }
+            seat = nextFreeSeat[flight].getAndIncrement();
+        }
+        BookingService.Quote quote = FareRules.get().quote(f, "Economy", 1, 0);
+        String pnr = PnrAllocator.nextPnr();
+        if (DatabaseManager.createBooking(users[user], f, quote.fare, quote.totalPrice,
+                Collections.singleton(SeatInventory.decode(seat)), 1, PAYMENT_METHOD, pnr) == null) {
+            throw new IllegalStateException("createBooking failed for seat " + SeatInventory.decode(seat) + " on flight " + f.getId());
+        }
+        created.incrementAndGet();
+        return pnr;
+    }
+
+    @Override
+    public void deleteCreatedBookings() {
+        if (created.getAndSet(0) == 0) return;
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM bookings WHERE payment_method = '" + PAYMENT_METHOD + "'"); // seats cascade
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not delete benchmark bookings", e);
+        }
+        for (int i = 0; i < flights.length; i++) {
+            nextFreeSeat[i].set(seededSeats[i]);
+            SeatInventory.invalidate(flights[i].getId());
+        }
+    }
+
+    @Override
+    public int getUserBookings(int user) {
+        return DatabaseManager.getUserBookings(users[user].getUserId()).size();
+    }
+
+    @Override
+    public int getReservedSeatsForFlight(int flight, boolean cold) {
+        int flightId = flights[flight].getId();
+        if (cold) SeatInventory.invalidate(flightId);
+        return DatabaseManager.getReservedSeatsForFlight(flightId).size();
+    }
+
+    @Override
+    public boolean areSeatsAvailable(int flight, Set<String> seats) {
+        return flights[flight].areSeatsAvailable(seats);
+    }
+
+    @Override
+    public Set<String> seatIds(int first, int count) {
+        Set<String> seats = new LinkedHashSet<>();
+        for (int i = first; i < first + count; i++) seats.add(SeatInventory.decode(i));
+        return seats;
+    }
+
+    @Override
+    public int totalSeats(int flight) {
+        return flights[flight].getTotalSeats();
+    }
+
+    @Override
+    public String nextPnr() {
+        return PnrAllocator.nextPnr();
+    }
+
+    @Override
+    public boolean pnrExists(String pnr) {
+        return DatabaseManager.checkPnrExists(pnr);
+    }
+
+    @Override
+    public double quote(int flight, String fareClass, int persons, int children) {
+        return FareRules.get().quote(flights[flight], fareClass, persons, children).totalPrice;
+    }
+}
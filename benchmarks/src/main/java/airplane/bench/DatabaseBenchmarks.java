@@ -0,0 +1,59 @@
+package airplane.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// DatabaseManager paths against the seeded embedded database: throughput, plus the latency distribution
+// (SampleTime reports p50..p99.99).
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmarks {
+
+    @Benchmark
+    public String createBooking(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.createBooking(cursor.next(db.users), cursor.next(db.flights));
+    }
+
+    // Keeps every createBooking iteration on the seeded data size instead of a growing bookings table
+    @TearDown(Level.Iteration)
+    public void deleteCreatedBookings(SeededDatabase db) {
+        db.workload.deleteCreatedBookings();
+    }
+
+    @Benchmark
+    public int getUserBookings(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.getUserBookings(cursor.next(db.users));
+    }
+
+    // Served from SeatInventory, as every read after a flight's first is
+    @Benchmark
+    public int getReservedSeatsForFlight(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.getReservedSeatsForFlight(cursor.next(db.flights), false);
+    }
+
+    // A SeatInventory miss: the query and bitmap build
+    @Benchmark
+    public int getReservedSeatsForFlightUncached(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.getReservedSeatsForFlight(cursor.next(db.flights), true);
+    }
+
+    @Benchmark
+    public boolean checkPnrExists(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.pnrExists(cursor.next(2) == 0 ? "S1" : "ZZZZZZ"); // a seeded PNR, then a free one
+    }
+}
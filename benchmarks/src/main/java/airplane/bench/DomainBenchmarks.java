@@ -0,0 +1,58 @@
+package airplane.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// In-memory paths a booking takes: seat availability, PNR allocation and pricing. The database only seeds the
+// flights (and backs the PNR block lease once every 1000 codes).
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainBenchmarks {
+
+    // Seats per areSeatsAvailable call and passengers per quote
+    @Param({"1", "4"})
+    public int persons;
+
+    private final List<Set<String>> seatSets = new ArrayList<>();
+
+    @Setup
+    public void seatSets(SeededDatabase db) {
+        // Spread over the whole cabin: the ones at the front overlap the seeded (taken) seats, the rest are free
+        for (int first = 0; first + persons <= db.workload.totalSeats(0); first += persons * 7) {
+            seatSets.add(db.workload.seatIds(first, persons));
+        }
+    }
+
+    @Benchmark
+    public boolean areSeatsAvailable(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.areSeatsAvailable(cursor.next(db.flights), seatSets.get(cursor.next(seatSets.size())));
+    }
+
+    @Benchmark
+    public String nextPnr(SeededDatabase db) {
+        return db.workload.nextPnr();
+    }
+
+    @Benchmark
+    public double quote(SeededDatabase db, SeededDatabase.Cursor cursor) {
+        return db.workload.quote(cursor.next(db.flights), "Economy", persons, persons / 2);
+    }
+}
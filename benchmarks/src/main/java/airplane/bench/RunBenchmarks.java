@@ -0,0 +1,36 @@
+package airplane.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+// Entry point of benchmarks.jar. Takes the usual JMH command line and adds what every run here should record:
+// the gc profiler (allocation rate per op) and a JSON result file, named by start time so runs can be compared.
+//
+//   java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+//   e.g. java -jar benchmarks/target/benchmarks.jar DatabaseBenchmarks.getUserBookings -p bookingsPerUser=1,100,500
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args); // listing and help need no defaults
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().stream().noneMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) {
+            options.result("jmh-result-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        }
+        new Runner(options.build()).run();
+    }
+}
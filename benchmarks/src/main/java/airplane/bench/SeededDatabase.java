@@ -0,0 +1,51 @@
+package airplane.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// One seeded embedded database per fork. Sizes are JMH parameters, e.g. -p users=1000 -p bookingsPerUser=50
+// (comma-separated values run every combination).
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param("20")
+    public int flights;
+
+    @Param("300")
+    public int seatsPerFlight;
+
+    @Param("100")
+    public int users;
+
+    @Param("10")
+    public int bookingsPerUser;
+
+    public Workload workload;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        workload = Workload.load();
+        workload.open(flights, seatsPerFlight, users, bookingsPerUser);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        workload.close();
+    }
+
+    // Walks users and flights round-robin, one cursor per benchmark thread
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        public int next(int bound) {
+            int i = next++ % bound;
+            if (next == Integer.MAX_VALUE) next = 0;
+            return i;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package airplane.bench;
+
+import java.util.Set;
+
+// The application paths under benchmark. The application lives in the default package, which named packages
+// (and so JMH benchmark classes) cannot import; the default-package JmhWorkload implements this interface and
+// the benchmarks reach it through load(). Flights, users and bookings are addressed by 0-based index into the
+// seeded data.
+public interface Workload {
+
+    static Workload load() {
+        try {
+            return (Workload) Class.forName("JmhWorkload").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("JmhWorkload is missing from the benchmark jar", e);
+        }
+    }
+
+    // Creates a fresh embedded database (H2 in MySQL mode) with the application schema and seeds it with
+    // `flights` flights of `seatsPerFlight` seats and `users` users holding `bookingsPerUser` one-seat bookings
+    // each. Points DatabaseManager at it.
+    void open(int flights, int seatsPerFlight, int users, int bookingsPerUser) throws Exception;
+
+    void close();
+
+    // DatabaseManager.createBooking of one free seat for the user, priced by FareRules, with a PNR from
+    // PnrAllocator. Returns the PNR.
+    String createBooking(int user, int flight);
+
+    // Deletes every booking made by createBooking, so the seeded data is back to its original size
+    void deleteCreatedBookings();
+
+    int getUserBookings(int user);
+
+    // DatabaseManager.getReservedSeatsForFlight; cold drops the flight from SeatInventory first, so the
+    // call goes to the database instead of the in-memory bitmap.
+    int getReservedSeatsForFlight(int flight, boolean cold);
+
+    // Flight.areSeatsAvailable on the flight as loaded by open()
+    boolean areSeatsAvailable(int flight, Set<String> seats);
+
+    // Seat ids for areSeatsAvailable: `count` consecutive seats from `first` (SeatInventory numbering)
+    Set<String> seatIds(int first, int count);
+
+    int totalSeats(int flight);
+
+    // PnrAllocator.nextPnr: in memory, leasing a block from pnr_sequence once every 1000 codes
+    String nextPnr();
+
+    // DatabaseManager.checkPnrExists, the lookup a booking makes after a failed insert
+    boolean pnrExists(String pnr);
+
+    // FareRules quote for one flight; returns the total price
+    double quote(int flight, String fareClass, int persons, int children);
+}
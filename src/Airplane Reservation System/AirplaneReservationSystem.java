@@ -5,6 +5,7 @@ import java.awt.event.*;
 import java.util.*;
 import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.text.SimpleDateFormat;
 import java.sql.SQLException; // Added for SQLException
 
@@ -18,19 +19,27 @@ public class AirplaneReservationSystem {
     private User loggedInUser = null;
 
     private Set<String> selectedSeats = new HashSet<>();
-    private Map<String, JButton> seatButtons = new HashMap<>();
 
     // Temp booking info
     private Flight tempFlight = null; // This will hold a Flight object fetched from DB
     private Fare tempFare = null;
     private int tempPersons = 1;
+    private int tempChildren = 0;
     private double tempTotalPrice = 0.0;
 
     // Components for UI references to update
     private JComboBox<String> flightSearchCombo;
+    private JTextField routeFilterField;
+    // Flights of the selected type as last loaded; the combo shows those matching routeFilterField
+    private List<Flight> listedFlights = Collections.emptyList();
+    private Set<Integer> listedFlightIds = Collections.emptySet(); // ids of listedFlights, for the typeahead filter
+    private boolean flightsLoading = false;
     private JComboBox<String> classComboBox;
     private JLabel priceLabel;
     private JSpinner personSpinner;
+    private JSpinner childSpinner;
+    // "From" price per route for the current flight list, priced in one bulkQuote() call
+    private Map<String, Double> routeQuotes = Collections.emptyMap();
     private JLabel flightStatusLabel;
     private JLabel weatherLabel;
     private JTextArea chatbotArea;
@@ -38,11 +47,11 @@ public class AirplaneReservationSystem {
     private JRadioButton radioLocal;
     private JRadioButton radioInternational;
 
-    private JPanel seatPanel;
+    private SeatMapPanel seatMap;
 
     private JLabel loyaltyPointsLabel;
-    private DefaultListModel<String> bookingListModel;
-    private JList<String> bookingList;
+    private DefaultListModel<BookingRow> bookingListModel;
+    private JList<BookingRow> bookingList;
 
     private boolean isDarkMode = false;
 
@@ -52,11 +61,56 @@ public class AirplaneReservationSystem {
     private JLabel revenueLabel;
     private JLabel occupancyLabel;
     private JLabel checkInCountLabel;
+    private JLabel poolStatsLabel;
+    private JLabel flightCacheLabel;
+    private PerformanceTableModel performanceModel;
+    private JTable performanceTable;
+    private SqlStatsTableModel sqlStatsModel;
+    private JTable sqlStatsTable;
+    private DefaultListModel<String> edtStallModel;
+    private JList<String> edtStallList;
     private DefaultListModel<String> auditLogModel;
     private JList<String> auditLogList;
+    // Keyset cursors into audit_log for the admin list: newest shown id (tail) and oldest shown id (paging)
+    private long newestAuditId = -1;
+    private long oldestAuditId = Long.MAX_VALUE;
+    private boolean auditHistoryExhausted = false;
+    private static final int AUDIT_PAGE_SIZE = 200;
+    private static final int ROUTE_SUGGESTIONS = 200; // typeahead matches shown in the flight combo
+    private static final String MORE_ROUTES_ITEM = "more… (keep typing to narrow the list)";
+    // Concurrent writers can commit rows out of log_id order, so an id skipped below the newest shown one is kept
+    // as a gap for AUDIT_GAP_TIMEOUT_MS (a rolled-back insert never fills it). Each tail re-reads from the oldest
+    // open gap, or only above the newest id when there is none, and shows just the ids that are new or fill a gap.
+    private static final long AUDIT_GAP_TIMEOUT_MS = 30000;
+    private static final int AUDIT_MAX_GAPS = 500; // a bigger jump is the id sequence skipping, not late commits
+    private final TreeMap<Long, Long> auditGaps = new TreeMap<>(); // missing id -> when it was noticed
+    // At most one query of each kind in flight; a tail requested meanwhile runs when the current one is done
+    private boolean auditTailRunning = false;
+    private boolean auditTailAgain = false;
+    private boolean auditOlderRunning = false;
 
     private Random rand = new Random();
 
+    // Booking logic shared with the HTTP API; stateless, so all session state below is passed into each call
+    private final BookingService bookingService = new DefaultBookingService();
+
+    // Identifies this window's seat holds in SeatHoldService
+    private final String holdOwnerId = UUID.randomUUID().toString();
+
+    // FlightEventBus subscriptions: the flight being quoted/booked, and the flights in "My Bookings"
+    private FlightEventBus.Subscription watchedFlightSubscription;
+    private int watchedFlightId = -1;
+    private final List<FlightEventBus.Subscription> bookingSubscriptions = new ArrayList<>();
+
+    // User-facing latency of the main actions, next to the db.* timers in the Performance tab.
+    // An error is an outcome the user sees as a failure (database error, failed booking), not e.g. a wrong password.
+    private static final Metrics.Timer UI_LOGIN = Metrics.timer("ui.login");
+    private static final Metrics.Timer UI_QUOTE = Metrics.timer("ui.quote");
+    private static final Metrics.Timer UI_BOOK = Metrics.timer("ui.book");
+    private static final Metrics.Timer UI_CANCEL = Metrics.timer("ui.cancel");
+    private static final Metrics.Timer UI_CHECK_IN = Metrics.timer("ui.checkIn");
+    private static final Metrics.Timer UI_DASHBOARD_REFRESH = Metrics.timer("ui.dashboardRefresh");
+
     // FlightStatus enum remains the same
     public enum FlightStatus { ON_TIME, DELAYED, CANCELED }
     public enum Role { ADMIN, CUSTOMER }
@@ -68,8 +122,10 @@ public class AirplaneReservationSystem {
         SwingUtilities.invokeLater(() -> {
             // Test DB Connection on startup
             try {
-                DatabaseManager.getConnection(); // Establish initial connection
+                DatabaseManager.getConnection().close(); // Warm up the connection pool
                 System.out.println("Database connection successful.");
+                DatabaseManager.ensureDashboardStats();
+                DatabaseManager.ensurePnrSequence();
                 DatabaseManager.addAuditLogEntry("System Initialized: DB Connection OK.", "System");
             } catch (SQLException e) {
                 System.err.println("FATAL: Could not connect to the database. Application will exit.");
@@ -80,6 +136,14 @@ public class AirplaneReservationSystem {
                 System.exit(1); // Exit if DB connection fails
             }
             new AirplaneReservationSystem().initUI();
+            Integer apiPort = Integer.getInteger("airplane.http.port");
+            if (apiPort != null) {
+                try {
+                    new BookingHttpServer(new DefaultBookingService(), apiPort).start();
+                } catch (java.io.IOException e) {
+                    System.err.println("Could not start booking API on port " + apiPort + ": " + e.getMessage());
+                }
+            }
         });
     }
 
@@ -90,8 +154,14 @@ public class AirplaneReservationSystem {
             @Override
             public void windowClosing(WindowEvent e) {
                 DatabaseManager.addAuditLogEntry("System Shutdown Initiated.", loggedInUser != null ? loggedInUser.getUsername() : "System");
+                FlightStatusEngine.stop();
+                EdtWatchdog.stop();
+                DynamicPricing.stop();
+                ConnectionSearch.stop();
+                FlightEventBus.setTransport(null);
+                DatabaseManager.shutdownAuditLog(5000); // Drain queued audit entries before the pool goes away
                 DatabaseManager.closeConnection();
-                System.out.println("Database connection closed. Exiting.");
+                System.out.println("Database connection pool closed. Exiting.");
                 frame.dispose();
                 System.exit(0);
             }
@@ -102,6 +172,12 @@ public class AirplaneReservationSystem {
 
         mainPanel = new JPanel(cardLayout);
         auditLogModel = new DefaultListModel<>();
+        // Refresh the admin log view once queued entries have actually been written
+        DatabaseManager.getAuditWriter().addFlushListener(() -> SwingUtilities.invokeLater(() -> {
+            if (auditLogList != null && auditLogList.isShowing()) {
+                loadAuditLogs();
+            }
+        }));
 
         addAuditLog("System UI Initialized.");
 
@@ -120,6 +196,20 @@ public class AirplaneReservationSystem {
 
         cardLayout.show(mainPanel, "Login");
         startUITimer();
+        // Share booking/status events with other instances on this machine when a broker port is configured
+        Integer eventPort = Integer.getInteger("airplane.events.port");
+        if (eventPort != null) {
+            FlightEventBus.setTransport(new LocalBrokerTransport(eventPort));
+        }
+        // Status simulation runs on its own scheduler thread; open screens hear about changes via FlightEventBus
+        FlightStatusEngine.start();
+        EdtWatchdog.start();
+        DynamicPricing.start();
+        // Index the flight lists, load the fare tables and precompute connections in the background so typeahead,
+        // quotes and chatbot lookups never wait for the database; connections are rebuilt periodically after that
+        AsyncDatabase.supply(() -> { RouteIndex.ensureLoaded(); return null; });
+        AsyncDatabase.supply(() -> { FareRules.get(); return null; });
+        ConnectionSearch.start();
     }
 
     private void startUITimer() {
@@ -127,12 +217,22 @@ public class AirplaneReservationSystem {
         uiTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                SwingUtilities.invokeLater(() -> {
-                    updateFlightStatusesInDb();
-                    updateAdminDashboard();
-                });
+                SwingUtilities.invokeLater(() -> updateAdminDashboard());
             }
         }, 0, 15000);
+        uiTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(() -> updatePerformanceTable());
+            }
+        }, 2000, 2000);
+        // Safety net for the materialized dashboard counters; runs on the timer thread, not the EDT
+        uiTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                DatabaseManager.reconcileDashboardStats();
+            }
+        }, 60000, 10 * 60000);
     }
 
 
@@ -194,6 +294,7 @@ public class AirplaneReservationSystem {
         panel.add(btnPanel, gbc);
 
         ActionListener loginAction = e -> {
+            if (!loginBtn.isEnabled()) return; // a login is already in flight
             String username = userField.getText().trim();
             String password = new String(passField.getPassword());
 
@@ -202,24 +303,45 @@ public class AirplaneReservationSystem {
                 return;
             }
 
-            loggedInUser = DatabaseManager.validateUser(username, password);
-
-            if (loggedInUser != null) {
-                addAuditLog("User logged in: " + loggedInUser.getUsername());
-                userField.setText("");
-                passField.setText("");
-                if (loggedInUser.getRole() == Role.ADMIN) {
-                    updateAdminDashboard();
-                    cardLayout.show(mainPanel, "AdminPanel");
+            // Disabled fields also stop Enter from firing a second login while this one is in flight
+            loginBtn.setEnabled(false);
+            userField.setEnabled(false);
+            passField.setEnabled(false);
+            loginBtn.setText("Signing in...");
+            Runnable endLogin = () -> {
+                loginBtn.setEnabled(true);
+                userField.setEnabled(true);
+                passField.setEnabled(true);
+                loginBtn.setText("Login");
+            };
+            long loginStart = System.nanoTime();
+            AsyncDatabase.onEdt(AsyncDatabase.validateUser(username, password), user -> {
+                UI_LOGIN.record(loginStart);
+                endLogin.run();
+                loggedInUser = user;
+
+                if (loggedInUser != null) {
+                    addAuditLog("User logged in: " + loggedInUser.getUsername());
+                    userField.setText("");
+                    passField.setText("");
+                    if (loggedInUser.getRole() == Role.ADMIN) {
+                        updateAdminDashboard();
+                        cardLayout.show(mainPanel, "AdminPanel");
+                    } else {
+                        updateCustomerPanelWelcome();
+                        updateLoyaltyPoints();
+                        cardLayout.show(mainPanel, "CustomerPanel");
+                    }
                 } else {
-                    updateCustomerPanelWelcome();
-                    updateLoyaltyPoints();
-                    cardLayout.show(mainPanel, "CustomerPanel");
+                    addAuditLog("Failed login attempt for username: " + username);
+                    JOptionPane.showMessageDialog(frame, "Invalid username or password.", "Authentication Failed", JOptionPane.ERROR_MESSAGE);
                 }
-            } else {
-                addAuditLog("Failed login attempt for username: " + username);
-                JOptionPane.showMessageDialog(frame, "Invalid username or password.", "Authentication Failed", JOptionPane.ERROR_MESSAGE);
-            }
+            }, error -> {
+                UI_LOGIN.error();
+                UI_LOGIN.record(loginStart);
+                endLogin.run();
+                JOptionPane.showMessageDialog(frame, "Login failed: " + error.getMessage(), "Authentication Failed", JOptionPane.ERROR_MESSAGE);
+            });
         };
 
         loginBtn.addActionListener(loginAction);
@@ -327,18 +449,23 @@ public class AirplaneReservationSystem {
                 return;
             }
 
-            boolean success = DatabaseManager.registerUser(username, pass, Role.CUSTOMER);
-
-            if (success) {
-                addAuditLog("New user registered: " + username);
-                JOptionPane.showMessageDialog(frame, "Registered successfully! Please login.", "Registration Complete", JOptionPane.INFORMATION_MESSAGE);
-                userField.setText("");
-                passField.setText("");
-                passConfirmField.setText("");
-                cardLayout.show(mainPanel, "Login");
-            } else {
-                JOptionPane.showMessageDialog(frame, "Username already exists or database error occurred.", "Registration Error", JOptionPane.ERROR_MESSAGE);
-            }
+            registerBtn.setEnabled(false);
+            AsyncDatabase.onEdt(AsyncDatabase.supply(() -> DatabaseManager.registerUser(username, pass, Role.CUSTOMER)), success -> {
+                registerBtn.setEnabled(true);
+                if (success) {
+                    addAuditLog("New user registered: " + username);
+                    JOptionPane.showMessageDialog(frame, "Registered successfully! Please login.", "Registration Complete", JOptionPane.INFORMATION_MESSAGE);
+                    userField.setText("");
+                    passField.setText("");
+                    passConfirmField.setText("");
+                    cardLayout.show(mainPanel, "Login");
+                } else {
+                    JOptionPane.showMessageDialog(frame, "Username already exists or database error occurred.", "Registration Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> {
+                registerBtn.setEnabled(true);
+                JOptionPane.showMessageDialog(frame, "Registration failed: " + error.getMessage(), "Registration Error", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         backBtn.addActionListener(e -> {
@@ -428,17 +555,45 @@ public class AirplaneReservationSystem {
 
         flightSearchCombo = new JComboBox<>();
         flightSearchCombo.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        flightSearchCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                Double from = value == null ? null : routeQuotes.get(value);
+                String text = from == null ? String.valueOf(value) : String.format("%s  (from ₱%,.2f)", value, from);
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        // Typeahead: narrows the combo to routes whose city or airport code starts with the typed text
+        routeFilterField = new JTextField(10);
+        routeFilterField.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        routeFilterField.setToolTipText("Filter by city or airport code, e.g. 'ceb' or 'tokyo'");
+        routeFilterField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { applyRouteFilter(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { applyRouteFilter(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { applyRouteFilter(); }
+        });
+        JPanel flightPickPanel = new JPanel(new BorderLayout(8, 0));
+        flightPickPanel.setOpaque(false);
+        flightPickPanel.add(routeFilterField, BorderLayout.WEST);
+        flightPickPanel.add(flightSearchCombo, BorderLayout.CENTER);
         gbc.gridx = 1; gbc.gridy = 1; gbc.gridwidth = 2;
-        centerPanel.add(flightSearchCombo, gbc);
+        centerPanel.add(flightPickPanel, gbc);
 
         JLabel classLbl = new JLabel("Class:");
         classLbl.setFont(new Font("Segoe UI", Font.BOLD, 16));
         gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 1; gbc.anchor = GridBagConstraints.WEST;
         centerPanel.add(classLbl, gbc);
 
-        String[] classes = { "Economy (x1.0)", "Economy Plus (x1.5)", "Business Class (x2.0)", "First Class (x3.0)" };
-        classComboBox = new JComboBox<>(classes);
+        // Items are the fare class names themselves; the multiplier is only rendered
+        classComboBox = new JComboBox<>(BookingService.FARE_CLASSES.keySet().toArray(new String[0]));
         classComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        classComboBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                String text = value == null ? "" : String.format("%s (x%.1f)", value, BookingService.FARE_CLASSES.get(value));
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
         gbc.gridx = 1; gbc.gridy = 2; gbc.gridwidth = 2;
         centerPanel.add(classComboBox, gbc);
 
@@ -457,6 +612,21 @@ public class AirplaneReservationSystem {
         gbc.anchor = GridBagConstraints.WEST;
         centerPanel.add(personSpinner, gbc);
 
+        // Children are part of the persons count and pay the child fare
+        childSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1, 1));
+        childSpinner.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        JFormattedTextField childText = ((JSpinner.DefaultEditor) childSpinner.getEditor()).getTextField();
+        childText.setEditable(false);
+        childText.setBackground(Color.WHITE);
+        JPanel childPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        childPanel.setOpaque(false);
+        JLabel childLbl = new JLabel("of which children:");
+        childLbl.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        childPanel.add(childLbl);
+        childPanel.add(childSpinner);
+        gbc.gridx = 2; gbc.gridy = 3; gbc.gridwidth = 1;
+        centerPanel.add(childPanel, gbc);
+
         priceLabel = new JLabel("Total Price: ₱0.00");
         priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
         priceLabel.setForeground(new Color(10, 130, 30));
@@ -502,7 +672,14 @@ public class AirplaneReservationSystem {
         ItemListener updateListener = e -> { if (e.getStateChange() == ItemEvent.SELECTED) calculatePrice(); };
         flightSearchCombo.addItemListener(updateListener);
         classComboBox.addItemListener(updateListener);
-        personSpinner.addChangeListener(e -> calculatePrice());
+        personSpinner.addChangeListener(e -> {
+            int persons = (int) personSpinner.getValue();
+            SpinnerNumberModel childModel = (SpinnerNumberModel) childSpinner.getModel();
+            childModel.setMaximum(persons);
+            if ((int) childModel.getValue() > persons) childModel.setValue(persons);
+            calculatePrice();
+        });
+        childSpinner.addChangeListener(e -> calculatePrice());
 
         calcPriceBtn.addActionListener(e -> calculatePrice());
         bookBtn.addActionListener(e -> proceedToSeatSelection());
@@ -526,17 +703,82 @@ public class AirplaneReservationSystem {
         return panel;
     }
 
+    // A loaded flight list with the economy price for one adult on each route, built off the EDT
+    static final class PricedFlights {
+        final List<Flight> flights;
+        final Map<String, Double> fromPrices; // route -> total price
+
+        PricedFlights(List<Flight> flights, Map<String, Double> fromPrices) {
+            this.flights = flights;
+            this.fromPrices = fromPrices;
+        }
+    }
+
+    private final AsyncDatabase.LatestRequest<PricedFlights> flightListRequest = new AsyncDatabase.LatestRequest<>();
+    private final AsyncDatabase.LatestRequest<BookingService.Quote> quoteRequest = new AsyncDatabase.LatestRequest<>();
+
     private void populateFlights(boolean local) {
         flightSearchCombo.removeAllItems();
-        List<Flight> flightsFromDb = DatabaseManager.getFlights(local);
+        flightSearchCombo.addItem("Loading flights...");
+        flightSearchCombo.setEnabled(false);
+        flightsLoading = true;
+        flightListRequest.submit(() -> priceFlights(DatabaseManager.getFlights(local)), this::showFlights,
+                error -> System.err.println("Error loading flights: " + error.getMessage()));
+    }
+
+    // Runs on the database executor: quoting may load or reload FareRules when a flight is new to it
+    private PricedFlights priceFlights(List<Flight> flightsFromDb) {
+        Map<String, Double> fromPrices = new HashMap<>();
+        try {
+            for (BookingService.Quote quote : bookingService.bulkQuote(flightsFromDb, "Economy", 1, 0)) {
+                fromPrices.put(quote.flight.getRoute(), quote.totalPrice);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not price flight list: " + e.getMessage());
+        }
+        return new PricedFlights(flightsFromDb, fromPrices);
+    }
+
+    private void showFlights(PricedFlights priced) {
+        List<Flight> flightsFromDb = priced.flights;
+        routeQuotes = priced.fromPrices;
+        listedFlights = flightsFromDb;
+        Set<Integer> ids = new HashSet<>();
+        for (Flight flight : flightsFromDb) ids.add(flight.getId());
+        listedFlightIds = ids;
+        flightsLoading = false;
+        applyRouteFilter();
+    }
+
+    // Fills the combo with the listed flights matching the filter text, looked up in RouteIndex (in memory)
+    private void applyRouteFilter() {
+        if (flightsLoading) return; // showFlights() applies the filter once the list is in
+        String filter = routeFilterField.getText().trim();
+        List<String> routes = new ArrayList<>();
+        boolean more = false;
+        if (filter.isEmpty()) {
+            for (Flight flight : listedFlights) routes.add(flight.getRoute());
+        } else {
+            // One extra match tells whether the list was cut off
+            List<RouteIndex.RouteEntry> matches = RouteIndex.suggest(filter, radioLocal.isSelected(), ROUTE_SUGGESTIONS + 1);
+            for (RouteIndex.RouteEntry entry : matches) {
+                if (routes.size() == ROUTE_SUGGESTIONS) break;
+                if (listedFlightIds.contains(entry.flightId)) routes.add(entry.route);
+            }
+            more = matches.size() > ROUTE_SUGGESTIONS;
+        }
+        flightSearchCombo.removeAllItems();
 
-        if (flightsFromDb.isEmpty()) {
-            flightSearchCombo.addItem("No flights available for this type.");
+        if (routes.isEmpty()) {
+            flightSearchCombo.addItem(filter.isEmpty() || listedFlights.isEmpty()
+                    ? "No flights available for this type."
+                    : "No flights available matching '" + filter + "'.");
             flightSearchCombo.setEnabled(false);
         } else {
-            for (Flight flight : flightsFromDb) {
-                flightSearchCombo.addItem(flight.getRoute());
+            for (String route : routes) {
+                flightSearchCombo.addItem(route);
             }
+            if (more) flightSearchCombo.addItem(MORE_ROUTES_ITEM);
             flightSearchCombo.setEnabled(true);
         }
 
@@ -554,37 +796,61 @@ public class AirplaneReservationSystem {
 
     private void calculatePrice() {
         String selectedFlightRoute = (String) flightSearchCombo.getSelectedItem();
-        String selectedClassStr = (String) classComboBox.getSelectedItem();
+        String fareClass = (String) classComboBox.getSelectedItem();
         int persons = (int) personSpinner.getValue();
+        int children = Math.min((int) childSpinner.getValue(), persons);
 
-        if (selectedFlightRoute == null || selectedFlightRoute.startsWith("No flights available") || selectedClassStr == null) {
+        if (selectedFlightRoute == null || selectedFlightRoute.startsWith("No flights available")
+                || selectedFlightRoute.startsWith("Loading flights") || selectedFlightRoute.equals(MORE_ROUTES_ITEM) || fareClass == null) {
+            quoteRequest.cancel();
             priceLabel.setText("Total Price: ₱0.00");
             flightStatusLabel.setText("Flight Status: Please select a flight.");
             weatherLabel.setText("Weather: -");
             tempFlight = null;
+            watchFlight(-1);
             return;
         }
 
-        Flight flight = DatabaseManager.getFlightByRoute(selectedFlightRoute);
+        // Block "Proceed" until the quote for the current selection is in
+        tempTotalPrice = 0.0;
+        priceLabel.setText("Total Price: calculating...");
+        // A newer selection cancels this quote; its result is then dropped
+        long quoteStart = System.nanoTime();
+        quoteRequest.submit(() -> {
+                    Flight flight = bookingService.getFlightByRoute(selectedFlightRoute);
+                    return flight != null ? bookingService.quote(flight, fareClass, persons, children) : null;
+                },
+                quote -> {
+                    UI_QUOTE.record(quoteStart);
+                    applyQuote(quote);
+                },
+                error -> {
+                    UI_QUOTE.error();
+                    UI_QUOTE.record(quoteStart);
+                    priceLabel.setText("Error: " + error.getMessage());
+                });
+    }
 
-        if (flight == null) {
+    private void applyQuote(BookingService.Quote quote) {
+        if (quote == null) {
             priceLabel.setText("Error: Flight data not found in DB.");
             tempFlight = null;
+            watchFlight(-1);
             return;
         }
 
-        double multiplier = 1.0;
-        if (selectedClassStr.contains("Economy Plus (x1.5)")) multiplier = 1.5;
-        else if (selectedClassStr.contains("Business Class (x2.0)")) multiplier = 2.0;
-        else if (selectedClassStr.contains("First Class (x3.0)")) multiplier = 3.0;
-
-        double totalPrice = flight.getBaseFare() * multiplier * persons;
-        priceLabel.setText(String.format("Total Price: ₱%,.2f", totalPrice));
+        Flight flight = quote.flight;
+        priceLabel.setText(quote.discount > 0
+                ? String.format("Total Price: ₱%,.2f (incl. ₱%,.2f taxes & fees, ₱%,.2f discount)", quote.totalPrice, quote.taxes, quote.discount)
+                : String.format("Total Price: ₱%,.2f (incl. ₱%,.2f taxes & fees)", quote.totalPrice, quote.taxes));
 
+        if (tempFlight != null && tempFlight.getId() != flight.getId()) releaseSeatHolds();
         tempFlight = flight;
-        tempFare = new Fare(selectedClassStr.substring(0, selectedClassStr.indexOf(" (x")), multiplier);
-        tempPersons = persons;
-        tempTotalPrice = totalPrice;
+        tempFare = quote.fare;
+        tempPersons = quote.persons;
+        tempChildren = quote.children;
+        tempTotalPrice = quote.totalPrice;
+        watchFlight(flight.getId());
 
         updateFlightStatusDisplay(flight);
         updateWeatherInfo(flight.getRoute());
@@ -615,29 +881,44 @@ public class AirplaneReservationSystem {
         flightStatusLabel.setForeground(statusColor);
     }
 
-    private void updateFlightStatusesInDb() {
-        List<Flight> allFlights = DatabaseManager.getAllFlightsForStatusUpdate();
-        if (allFlights.isEmpty()) return;
-
-        int changes = rand.nextInt(3) + 1;
-        for (int i = 0; i < changes; i++) {
-            Flight randomFlight = allFlights.get(rand.nextInt(allFlights.size()));
-            int r = rand.nextInt(100);
-            FlightStatus newStatus = FlightStatus.ON_TIME;
-            if (r < 5) newStatus = FlightStatus.CANCELED;
-            else if (r < 20) newStatus = FlightStatus.DELAYED;
-
-            if (randomFlight.getCurrentStatus() != newStatus) {
-                DatabaseManager.updateFlightStatus(randomFlight.getId(), newStatus);
-            }
+    // Subscribes to changes of the flight held in tempFlight (flightId < 0 stops watching).
+    private void watchFlight(int flightId) {
+        if (flightId == watchedFlightId) return;
+        if (watchedFlightSubscription != null) {
+            watchedFlightSubscription.cancel();
+            watchedFlightSubscription = null;
         }
+        watchedFlightId = flightId;
+        if (flightId >= 0) {
+            watchedFlightSubscription = FlightEventBus.subscribe(flightId,
+                    event -> SwingUtilities.invokeLater(() -> onWatchedFlightEvent(event)));
+        }
+    }
 
-        if (tempFlight != null && flightStatusLabel != null && flightStatusLabel.isVisible()) {
-            Flight updatedTempFlight = DatabaseManager.getFlightById(tempFlight.getId());
-            if(updatedTempFlight != null) {
-                tempFlight = updatedTempFlight;
+    private void onWatchedFlightEvent(FlightEventBus.FlightEvent event) {
+        if (tempFlight == null || tempFlight.getId() != event.getFlightId()) return;
+        if (event instanceof FlightStatusEngine.FlightStatusChanged) {
+            tempFlight.setCurrentStatus(((FlightStatusEngine.FlightStatusChanged) event).newStatus);
+            if (flightStatusLabel != null && flightStatusLabel.isVisible()) {
                 updateFlightStatusDisplay(tempFlight);
             }
+        } else if (event instanceof FlightEventBus.SeatsChanged) {
+            applySeatDiff((FlightEventBus.SeatsChanged) event);
+        }
+    }
+
+    // Repaints only the seats named in the event instead of rebuilding the seat map.
+    private void applySeatDiff(FlightEventBus.SeatsChanged event) {
+        BitSet reserved = tempFlight.getReservedSeatBits();
+        reserved.or(event.reserved);
+        reserved.andNot(event.released);
+        tempFlight.setReservedSeatBits(reserved);
+
+        if (seatMap == null || !seatMap.isShowing()) return;
+        Set<String> lost = seatMap.updateOccupancy(reserved, SeatHoldService.getHeldByOthers(tempFlight.getId(), holdOwnerId));
+        if (!lost.isEmpty() && seatInfoLabel != null) {
+            seatInfoLabel.setText("Seat(s) " + String.join(", ", lost) + " were just booked by another customer. Please select "
+                    + (tempPersons - selectedSeats.size()) + " more.");
         }
     }
 
@@ -659,27 +940,38 @@ public class AirplaneReservationSystem {
             JOptionPane.showMessageDialog(frame, "Please select a flight and calculate the price before proceeding.", "Booking Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        Flight currentDbFlight = DatabaseManager.getFlightById(tempFlight.getId());
-        if (currentDbFlight == null) {
-            JOptionPane.showMessageDialog(frame, "Error fetching flight details. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        tempFlight = currentDbFlight;
-
+        if (seatSelectionLoading) return;
+        seatSelectionLoading = true;
+        int flightId = tempFlight.getId();
+        AsyncDatabase.onEdt(AsyncDatabase.supply(() -> DatabaseManager.getFlightById(flightId)), currentDbFlight -> {
+            seatSelectionLoading = false;
+            if (tempFlight == null || tempFlight.getId() != flightId) return; // selection changed meanwhile
+            if (currentDbFlight == null) {
+                JOptionPane.showMessageDialog(frame, "Error fetching flight details. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            tempFlight = currentDbFlight;
 
-        if (tempFlight.getCurrentStatus() == FlightStatus.CANCELED) {
-            JOptionPane.showMessageDialog(frame, "This flight (" + tempFlight.getRoute() + ") is currently CANCELED and cannot be booked.", "Flight Canceled", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+            if (tempFlight.getCurrentStatus() == FlightStatus.CANCELED) {
+                JOptionPane.showMessageDialog(frame, "This flight (" + tempFlight.getRoute() + ") is currently CANCELED and cannot be booked.", "Flight Canceled", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
 
-        selectedSeats.clear();
-        buildSeatMap(tempFlight);
-        if (seatInfoLabel != null) {
-            seatInfoLabel.setText("Select exactly " + tempPersons + " seat(s). Green: Available, Orange: Selected, Red: Occupied.");
-        }
-        cardLayout.show(mainPanel, "SeatSelection");
+            releaseSeatHolds();
+            selectedSeats.clear();
+            buildSeatMap(tempFlight);
+            if (seatInfoLabel != null) {
+                seatInfoLabel.setText("Select exactly " + tempPersons + " seat(s). Green: Available, Orange: Selected, Red: Occupied.");
+            }
+            cardLayout.show(mainPanel, "SeatSelection");
+        }, error -> {
+            seatSelectionLoading = false;
+            JOptionPane.showMessageDialog(frame, "Error fetching flight details: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
+    private boolean seatSelectionLoading = false;
+
     private JLabel seatInfoLabel;
 
     private JPanel createSeatSelectionPanel() {
@@ -692,11 +984,22 @@ public class AirplaneReservationSystem {
         title.setForeground(new Color(10, 70, 140));
         panel.add(title, BorderLayout.NORTH);
 
-        seatPanel = new JPanel();
-        seatPanel.setLayout(new BoxLayout(seatPanel, BoxLayout.Y_AXIS));
-        seatPanel.setBackground(new Color(220, 230, 240));
+        seatMap = new SeatMapPanel();
+        seatMap.setListener(new SeatMapPanel.Listener() {
+            @Override
+            public void selectionChanged(Set<String> selectedSeatIds) {
+                selectedSeats = new HashSet<>(selectedSeatIds);
+            }
+
+            @Override
+            public void selectionLimitReached(int limit) {
+                JOptionPane.showMessageDialog(frame,
+                        "You can select only " + limit + " seat(s). Deselect a seat first.",
+                        "Seat Selection Limit", JOptionPane.WARNING_MESSAGE);
+            }
+        });
 
-        JScrollPane scrollPane = new JScrollPane(seatPanel);
+        JScrollPane scrollPane = new JScrollPane(seatMap);
         scrollPane.setBorder(BorderFactory.createEtchedBorder());
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -728,22 +1031,39 @@ public class AirplaneReservationSystem {
                 JOptionPane.showMessageDialog(frame, "You must select exactly " + tempPersons + " seat(s). You have selected " + selectedSeats.size() + ".", "Seat Selection Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            Flight currentFlightState = DatabaseManager.getFlightById(tempFlight.getId());
-            if (currentFlightState == null) {
-                JOptionPane.showMessageDialog(frame, "Error verifying seat availability. Please try again.", "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            if (!currentFlightState.areSeatsAvailable(selectedSeats)) {
-                JOptionPane.showMessageDialog(frame, "Some selected seats are no longer available. Please re-select.", "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
-                tempFlight = currentFlightState;
-                buildSeatMap(tempFlight);
-                return;
-            }
-            updatePaymentPanelInfo();
-            cardLayout.show(mainPanel, "Payment");
+            int flightId = tempFlight.getId();
+            Set<String> seats = new HashSet<>(selectedSeats);
+            confirmBtn.setEnabled(false);
+            AsyncDatabase.onEdt(AsyncDatabase.supply(() -> bookingService.holdSeats(flightId, seats, holdOwnerId)), held -> {
+                if (held) {
+                    confirmBtn.setEnabled(true);
+                    updatePaymentPanelInfo();
+                    cardLayout.show(mainPanel, "Payment");
+                    return;
+                }
+                // Lost the race for a seat: reload the flight and let the user pick again
+                AsyncDatabase.onEdt(AsyncDatabase.supply(() -> DatabaseManager.getFlightById(flightId)), currentFlightState -> {
+                    confirmBtn.setEnabled(true);
+                    if (currentFlightState == null) {
+                        JOptionPane.showMessageDialog(frame, "Error verifying seat availability. Please try again.", "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(frame, "Some selected seats are no longer available. Please re-select.", "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
+                    tempFlight = currentFlightState;
+                    selectedSeats.clear();
+                    buildSeatMap(tempFlight);
+                }, error -> {
+                    confirmBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(frame, "Error verifying seat availability: " + error.getMessage(), "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
+                });
+            }, error -> {
+                confirmBtn.setEnabled(true);
+                JOptionPane.showMessageDialog(frame, "Could not hold the seats: " + error.getMessage(), "Seat Availability Error", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         cancelBtn.addActionListener(e -> {
+            releaseSeatHolds();
             selectedSeats.clear();
             cardLayout.show(mainPanel, "CustomerPanel");
         });
@@ -761,78 +1081,11 @@ public class AirplaneReservationSystem {
 
 
     private void buildSeatMap(Flight flight) {
-        seatPanel.removeAll();
-        seatButtons.clear();
-
-        int totalSeats = flight.getTotalSeats();
-        Set<String> flightReservedSeats = flight.getReservedSeats();
-
-        int seatsPerRow = 6;
-        int aisleAfter = 3;
-        int numRows = (int) Math.ceil((double) totalSeats / seatsPerRow);
-
-        int seatWidth = 55; int seatHeight = 40;
-        int hGap = 8; int vGap = 8; int aisleGap = 20;
-        Font seatFont = new Font("Arial", Font.BOLD, 12);
-
-        for (int r = 0; r < numRows; r++) {
-            JPanel rowPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, hGap, 0));
-            rowPanel.setOpaque(false);
-            for (int s = 0; s < seatsPerRow; s++) {
-                int currentSeatNumberInFlight = r * seatsPerRow + s + 1;
-                if (currentSeatNumberInFlight > totalSeats) break;
-
-                char seatLetter = (char) ('A' + s);
-                String seatId = String.valueOf(r + 1) + seatLetter;
-
-                JButton seatBtn = new JButton(seatId);
-                seatBtn.setFont(seatFont);
-                seatBtn.setPreferredSize(new Dimension(seatWidth, seatHeight));
-                seatBtn.setFocusPainted(false);
-                seatBtn.setMargin(new Insets(2,2,2,2));
-
-                if (flightReservedSeats.contains(seatId)) {
-                    seatBtn.setBackground(new Color(220, 20, 20));
-                    seatBtn.setForeground(Color.WHITE);
-                    seatBtn.setToolTipText("Occupied");
-                    seatBtn.setEnabled(false);
-                } else {
-                    seatBtn.setBackground(new Color(144, 238, 144));
-                    seatBtn.setForeground(Color.BLACK);
-                    seatBtn.setToolTipText("Available");
-                    seatBtn.setEnabled(true);
-                }
-
-                seatBtn.addActionListener(evt -> {
-                    JButton clickedButton = (JButton) evt.getSource();
-                    String currentSeatId = clickedButton.getText();
-
-                    if (selectedSeats.contains(currentSeatId)) {
-                        selectedSeats.remove(currentSeatId);
-                        clickedButton.setBackground(new Color(144, 238, 144));
-                    } else {
-                        if (selectedSeats.size() >= tempPersons) {
-                            JOptionPane.showMessageDialog(frame,
-                                    "You can select only " + tempPersons + " seat(s). Deselect a seat first.",
-                                    "Seat Selection Limit", JOptionPane.WARNING_MESSAGE);
-                            return;
-                        }
-                        selectedSeats.add(currentSeatId);
-                        clickedButton.setBackground(Color.ORANGE);
-                    }
-                });
-                rowPanel.add(seatBtn);
-                seatButtons.put(seatId, seatBtn);
-
-                if (s == aisleAfter - 1) {
-                    rowPanel.add(Box.createHorizontalStrut(aisleGap));
-                }
-            }
-            seatPanel.add(rowPanel);
-            if (r < numRows -1) seatPanel.add(Box.createVerticalStrut(vGap));
-        }
-        seatPanel.revalidate();
-        seatPanel.repaint();
+        watchFlight(flight.getId()); // Later bookings/cancellations repaint single seats via applySeatDiff
+        selectedSeats.clear();
+        seatMap.setSeats(flight.getTotalSeats(), flight.getReservedSeatBits(),
+                SeatHoldService.getHeldByOthers(flight.getId(), holdOwnerId), tempPersons);
+        seatMap.requestFocusInWindow();
     }
 
     private JLabel paymentAmountLabel;
@@ -896,13 +1149,7 @@ public class AirplaneReservationSystem {
             processingDialog.setSize(350, 100);
             processingDialog.setLocationRelativeTo(frame);
 
-            new Thread(() -> {
-                try { Thread.sleep(1500); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
-                SwingUtilities.invokeLater(() -> {
-                    processingDialog.dispose();
-                    completeBooking(paymentMethod);
-                });
-            }).start();
+            completeBooking(paymentMethod, processingDialog);
             processingDialog.setVisible(true);
         });
 
@@ -917,63 +1164,100 @@ public class AirplaneReservationSystem {
         return panel;
     }
 
-    private void completeBooking(String paymentMethod) {
-        Flight finalCheckFlight = DatabaseManager.getFlightById(tempFlight.getId());
-        if (finalCheckFlight == null || !finalCheckFlight.areSeatsAvailable(selectedSeats)) {
-            JOptionPane.showMessageDialog(frame, "Unfortunately, some selected seats became unavailable during payment. Please try selecting seats again.", "Seats Unavailable", JOptionPane.ERROR_MESSAGE);
-            if(finalCheckFlight != null) tempFlight = finalCheckFlight;
-            buildSeatMap(tempFlight);
-            cardLayout.show(mainPanel, "SeatSelection");
-            return;
-        }
+    // Simulated payment plus the seat re-check and booking insert run off the EDT; the processing dialog
+    // stays up until the outcome is handed back.
+    private void completeBooking(String paymentMethod, JDialog processingDialog) {
+        User user = loggedInUser;
+        Flight flight = tempFlight;
+        String fareClass = tempFare.getClassType();
+        int persons = tempPersons;
+        int children = tempChildren;
+        double quotedTotal = tempTotalPrice; // what the payment screen showed; a different fare is not charged
+        Set<String> seats = new HashSet<>(selectedSeats);
+
+        CompletableFuture<BookingService.BookingResult> outcome = AsyncDatabase.supply(() -> {
+            try { Thread.sleep(1500); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+            long bookStart = System.nanoTime();
+            boolean failed = true;
+            try {
+                BookingService.BookingResult result = bookingService.book(user, flight.getId(), fareClass, persons, children, seats, paymentMethod, holdOwnerId, quotedTotal);
+                failed = result.status == BookingService.BookingResult.Status.FAILED;
+                return result;
+            } finally {
+                if (failed) UI_BOOK.error();
+                UI_BOOK.record(bookStart);
+            }
+        });
 
-        String pnr = generatePNR();
-        Booking newBooking = DatabaseManager.createBooking(loggedInUser, tempFlight, tempFare, tempTotalPrice, // Corrected: loggedInUser
-                selectedSeats, tempPersons, paymentMethod, pnr);
+        AsyncDatabase.onEdt(outcome, result -> {
+            processingDialog.dispose();
+            showBookingOutcome(result, user, flight, paymentMethod);
+        }, error -> {
+            processingDialog.dispose();
+            JOptionPane.showMessageDialog(frame, "Booking failed: " + error.getMessage(), "Booking Failed", JOptionPane.ERROR_MESSAGE);
+        });
+    }
 
-        if (newBooking != null) {
-            loggedInUser.addBookingPNR(pnr);
-            addAuditLog("Booking completed. PNR: " + pnr + ", User: " + loggedInUser.getUsername() +
-                    ", Flight: " + tempFlight.getRoute() + ", Amount: " + tempTotalPrice + ", Payment: " + paymentMethod);
+    private void showBookingOutcome(BookingService.BookingResult result, User user, Flight flight, String paymentMethod) {
+        switch (result.status) {
+            case SEATS_UNAVAILABLE:
+                JOptionPane.showMessageDialog(frame, "Unfortunately, some selected seats became unavailable during payment. Please try selecting seats again.", "Seats Unavailable", JOptionPane.ERROR_MESSAGE);
+                tempFlight = result.latestFlight;
+                selectedSeats.clear();
+                buildSeatMap(tempFlight);
+                cardLayout.show(mainPanel, "SeatSelection");
+                return;
+            case FLIGHT_CANCELED:
+                JOptionPane.showMessageDialog(frame, "This flight (" + flight.getRoute() + ") was CANCELED during payment and cannot be booked.", "Flight Canceled", JOptionPane.ERROR_MESSAGE);
+                cardLayout.show(mainPanel, "CustomerPanel");
+                return;
+            case PRICE_CHANGED:
+                // Nothing was charged and the seats stay held; show the new amount so the customer can confirm it
+                JOptionPane.showMessageDialog(frame, String.format("The fare changed from ₱%,.2f to ₱%,.2f during payment. Nothing was charged.%n" +
+                        "Please review the new amount and confirm again.", tempTotalPrice, result.quote.totalPrice), "Price Changed", JOptionPane.WARNING_MESSAGE);
+                tempFare = result.quote.fare;
+                tempTotalPrice = result.quote.totalPrice;
+                updatePaymentPanelInfo();
+                return;
+            case FAILED:
+                JOptionPane.showMessageDialog(frame, "Booking failed due to a database error. Please try again.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+                return;
+            default:
+                break;
+        }
 
-            JOptionPane.showMessageDialog(frame,
-                    "Payment successful via " + paymentMethod + "!\nYour booking reference (PNR) is: " + pnr + "\n" +
-                            "You earned " + (int)(tempTotalPrice/100) + " loyalty points. Total points: " + loggedInUser.getLoyaltyPoints(),
-                    "Booking Confirmed!", JOptionPane.INFORMATION_MESSAGE);
+        Booking booking = result.booking;
+        double totalPrice = booking.getTotalPrice();
+        JOptionPane.showMessageDialog(frame,
+                String.format("Payment successful via %s!%nAmount charged: ₱%,.2f%n", paymentMethod, totalPrice) +
+                        "Your booking reference (PNR) is: " + booking.getPnr() + "\n" +
+                        "You earned " + (int)(totalPrice/100) + " loyalty points. Total points: " + user.getLoyaltyPoints(),
+                "Booking Confirmed!", JOptionPane.INFORMATION_MESSAGE);
+
+        tempFlight = null;
+        tempFare = null;
+        tempPersons = 1;
+        tempChildren = 0;
+        tempTotalPrice = 0.0;
+        selectedSeats.clear();
 
-            tempFlight = null;
-            tempFare = null;
-            tempPersons = 1;
-            tempTotalPrice = 0.0;
-            selectedSeats.clear();
+        updateLoyaltyPoints();
+        cardLayout.show(mainPanel, "CustomerPanel");
+    }
 
-            updateLoyaltyPoints();
-            cardLayout.show(mainPanel, "CustomerPanel");
-        } else {
-            addAuditLog("Booking failed for User: " + loggedInUser.getUsername() + ", Flight: " + tempFlight.getRoute());
-            JOptionPane.showMessageDialog(frame, "Booking failed due to a database error. Please try again.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+
+    private void releaseSeatHolds() {
+        if (tempFlight != null) {
+            bookingService.releaseHold(tempFlight.getId(), holdOwnerId);
         }
     }
 
-
     private void updateLoyaltyPoints() {
         if (loggedInUser != null && loyaltyPointsLabel != null) {
             loyaltyPointsLabel.setText("Loyalty Points: " + loggedInUser.getLoyaltyPoints() + " ✨");
         }
     }
 
-    private String generatePNR() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder pnr;
-        do {
-            pnr = new StringBuilder();
-            for (int i = 0; i < 6; i++) {
-                pnr.append(chars.charAt(rand.nextInt(chars.length())));
-            }
-        } while (DatabaseManager.checkPnrExists(pnr.toString()));
-        return pnr.toString();
-    }
-
     private JPanel createBookingListPanel() {
         JPanel panel = new JPanel(new BorderLayout(15, 15));
         panel.setBorder(new EmptyBorder(20, 25, 25, 25));
@@ -1012,36 +1296,39 @@ public class AirplaneReservationSystem {
                 JOptionPane.showMessageDialog(frame, "Please select a booking to cancel.", "Selection Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            String selectedValue = bookingList.getSelectedValue();
-            String pnr = extractPNRFromBookingString(selectedValue);
+            BookingRow selectedRow = bookingList.getSelectedValue();
+            String pnr = selectedRow != null ? selectedRow.pnr : null;
             if (pnr == null) {
                 JOptionPane.showMessageDialog(frame, "Could not identify PNR for selected booking.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
-            Booking bookingToCancel = DatabaseManager.getBookingByPnr(pnr);
-            if (bookingToCancel == null) {
-                JOptionPane.showMessageDialog(frame, "Booking details not found for PNR: " + pnr, "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
             int confirm = JOptionPane.showConfirmDialog(frame,
-                    "Are you sure you want to cancel booking PNR: " + pnr + " for flight " + bookingToCancel.getFlight().getRoute() + "?",
+                    "Are you sure you want to cancel booking PNR: " + pnr + " for flight " + selectedRow.route + "?",
                     "Confirm Cancellation", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
             if (confirm != JOptionPane.YES_OPTION) return;
 
-            boolean success = DatabaseManager.cancelBooking(pnr, loggedInUser.getUserId());
-            if (success) {
-                loggedInUser.removeBookingPNR(pnr);
-                addAuditLog("Booking canceled. PNR: " + pnr + ", User: " + loggedInUser.getUsername());
-
-                JOptionPane.showMessageDialog(frame, "Booking PNR: " + pnr + " canceled successfully.", "Cancellation Confirmed", JOptionPane.INFORMATION_MESSAGE);
-                loadUserBookings();
-                updateLoyaltyPoints();
-            } else {
-                JOptionPane.showMessageDialog(frame, "Failed to cancel booking PNR: " + pnr + ". It might not belong to you or a database error occurred.", "Cancellation Failed", JOptionPane.ERROR_MESSAGE);
-            }
+            long cancelStart = System.nanoTime();
+            User user = loggedInUser;
+            cancelBookingBtn.setEnabled(false);
+            AsyncDatabase.onEdt(AsyncDatabase.supply(() -> bookingService.cancel(pnr, user)), success -> {
+                cancelBookingBtn.setEnabled(true);
+                if (!success) UI_CANCEL.error();
+                UI_CANCEL.record(cancelStart);
+                if (success) {
+                    JOptionPane.showMessageDialog(frame, "Booking PNR: " + pnr + " canceled successfully.", "Cancellation Confirmed", JOptionPane.INFORMATION_MESSAGE);
+                    loadUserBookings();
+                    updateLoyaltyPoints();
+                } else {
+                    JOptionPane.showMessageDialog(frame, "Failed to cancel booking PNR: " + pnr + ". It might not belong to you or a database error occurred.", "Cancellation Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> {
+                cancelBookingBtn.setEnabled(true);
+                UI_CANCEL.error();
+                UI_CANCEL.record(cancelStart);
+                JOptionPane.showMessageDialog(frame, "Failed to cancel booking PNR: " + pnr + ": " + error.getMessage(), "Cancellation Failed", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         checkInBtn.addActionListener(e -> {
@@ -1050,38 +1337,43 @@ public class AirplaneReservationSystem {
                 JOptionPane.showMessageDialog(frame, "Please select a booking to check in.", "Selection Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            String selectedValue = bookingList.getSelectedValue();
-            String pnr = extractPNRFromBookingString(selectedValue);
+            BookingRow selectedRow = bookingList.getSelectedValue();
+            String pnr = selectedRow != null ? selectedRow.pnr : null;
             if (pnr == null) return;
 
-            Booking booking = DatabaseManager.getBookingByPnr(pnr);
-            if (booking == null) {
-                JOptionPane.showMessageDialog(frame, "Booking PNR " + pnr + " not found.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            if (booking.isCheckedIn()) {
-                JOptionPane.showMessageDialog(frame, "You have already checked in for booking PNR: " + pnr + ".", "Already Checked In", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-
-            Flight bookedFlight = DatabaseManager.getFlightById(booking.getFlight().getId());
-            if (bookedFlight.getCurrentStatus() == FlightStatus.CANCELED) {
-                JOptionPane.showMessageDialog(frame, "Cannot check in. Flight " + bookedFlight.getRoute() + " is CANCELED.", "Check-in Failed", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            boolean success = DatabaseManager.updateCheckInStatus(pnr, true);
-            if (success) {
-                addAuditLog("Checked in for PNR: " + pnr + ", User: " + loggedInUser.getUsername());
-                JOptionPane.showMessageDialog(frame,
-                        "Check-in successful for PNR: " + pnr + "!\n" +
-                                "Selected seats: " + String.join(", ", booking.getSelectedSeats()),
-                        "Check-in Complete", JOptionPane.INFORMATION_MESSAGE);
-                loadUserBookings();
-            } else {
-                JOptionPane.showMessageDialog(frame, "Check-in failed for PNR: " + pnr + ". Database error.", "Check-in Failed", JOptionPane.ERROR_MESSAGE);
-            }
+            long checkInStart = System.nanoTime();
+            User user = loggedInUser;
+            checkInBtn.setEnabled(false);
+            AsyncDatabase.onEdt(AsyncDatabase.supply(() -> bookingService.checkIn(pnr, user)), result -> {
+                checkInBtn.setEnabled(true);
+                if (result.status == BookingService.CheckInResult.Status.FAILED) UI_CHECK_IN.error();
+                UI_CHECK_IN.record(checkInStart);
+                switch (result.status) {
+                    case NOT_FOUND:
+                        JOptionPane.showMessageDialog(frame, "Booking PNR " + pnr + " not found.", "Error", JOptionPane.ERROR_MESSAGE);
+                        break;
+                    case ALREADY_CHECKED_IN:
+                        JOptionPane.showMessageDialog(frame, "You have already checked in for booking PNR: " + pnr + ".", "Already Checked In", JOptionPane.INFORMATION_MESSAGE);
+                        break;
+                    case FLIGHT_CANCELED:
+                        JOptionPane.showMessageDialog(frame, "Cannot check in. Flight " + result.booking.getFlight().getRoute() + " is CANCELED.", "Check-in Failed", JOptionPane.ERROR_MESSAGE);
+                        break;
+                    case CHECKED_IN:
+                        JOptionPane.showMessageDialog(frame,
+                                "Check-in successful for PNR: " + pnr + "!\n" +
+                                        "Selected seats: " + String.join(", ", result.booking.getSelectedSeats()),
+                                "Check-in Complete", JOptionPane.INFORMATION_MESSAGE);
+                        loadUserBookings();
+                        break;
+                    default:
+                        JOptionPane.showMessageDialog(frame, "Check-in failed for PNR: " + pnr + ". Database error.", "Check-in Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> {
+                checkInBtn.setEnabled(true);
+                UI_CHECK_IN.error();
+                UI_CHECK_IN.record(checkInStart);
+                JOptionPane.showMessageDialog(frame, "Check-in failed for PNR: " + pnr + ": " + error.getMessage(), "Check-in Failed", JOptionPane.ERROR_MESSAGE);
+            });
         });
 
         backBtn.addActionListener(e -> cardLayout.show(mainPanel, "CustomerPanel"));
@@ -1096,107 +1388,179 @@ public class AirplaneReservationSystem {
     }
 
 
-    class BookingListRenderer extends DefaultListCellRenderer {
+    // Renders precomputed BookingRow HTML; never touches the database.
+    static class BookingListRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+        private final EmptyBorder cellBorder = new EmptyBorder(5, 10, 5, 10);
+
         @Override
         public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
             JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            String bookingStrFromModel = (String) value;
-
-
-            String pnr = extractPNRFromBookingString(bookingStrFromModel);
-            if (pnr != null) {
-                Booking booking = DatabaseManager.getBookingByPnr(pnr);
-                if (booking != null) {
-                    SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
-                    String formattedDate = sdf.format(booking.getBookingDate());
-                    String checkInIcon = booking.isCheckedIn() ? "✅" : "⏳";
-                    Flight flightForBooking = DatabaseManager.getFlightById(booking.getFlight().getId());
-
-                    label.setText(String.format("<html><b>PNR: %s</b> %s<br/>Flight: %s (%s)<br/>Seats: %s | Fare: %s<br/>Total: ₱%,.2f | Booked: %s</html>",
-                            pnr, checkInIcon,
-                            booking.getFlight().getRoute(),
-                            flightForBooking != null ? flightForBooking.getCurrentStatus().toString().replace("_", " ") : "N/A",
-                            String.join(", ", booking.getSelectedSeats()),
-                            booking.getFare().getClassType(),
-                            booking.getTotalPrice(),
-                            formattedDate
-                    ));
-                    label.setBorder(new EmptyBorder(5, 10, 5, 10));
-                    if (flightForBooking != null && flightForBooking.getCurrentStatus() == FlightStatus.CANCELED) {
-                        label.setForeground(Color.RED);
-                    } else if (booking.isCheckedIn()) {
-                        label.setForeground(new Color(0,100,0));
-                    } else {
-                        label.setForeground(Color.BLACK);
-                    }
-                } else {
-                    label.setText("Error loading details for PNR: " + pnr);
-                }
-            } else {
-                label.setText("Invalid booking data in list.");
+            BookingRow row = (BookingRow) value;
+            label.setText(row.html);
+            if (row.pnr != null) {
+                label.setBorder(cellBorder);
+                if (!isSelected) label.setForeground(row.foreground);
             }
             return label;
         }
     }
 
+    // Immutable row for the "My Bookings" list, formatted once when the list is loaded.
+    // Status and check-in updates from FlightEventBus produce a new row via withFlightStatus/withCheckedIn.
+    static final class BookingRow {
+        final String pnr; // null for placeholder rows such as "No bookings found"
+        final int flightId;
+        final String route;
+        final boolean checkedIn;
+        final FlightStatus flightStatus;
+        final String html;
+        final Color foreground;
+        private final Booking booking;
+        private final String bookedAt;
+
+        private BookingRow(String pnr, int flightId, String route, boolean checkedIn, FlightStatus flightStatus, String html,
+                           Color foreground, Booking booking, String bookedAt) {
+            this.pnr = pnr;
+            this.flightId = flightId;
+            this.route = route;
+            this.checkedIn = checkedIn;
+            this.flightStatus = flightStatus;
+            this.html = html;
+            this.foreground = foreground;
+            this.booking = booking;
+            this.bookedAt = bookedAt;
+        }
+
+        static BookingRow message(String text) {
+            return new BookingRow(null, -1, null, false, null, text, Color.BLACK, null, null);
+        }
 
-    private String extractPNRFromBookingString(String bookingStr) {
-        if (bookingStr == null) return null;
-        String pnrPrefix = "PNR: ";
-        int pnrStartIndex = bookingStr.indexOf(pnrPrefix);
-        if (pnrStartIndex == -1 && bookingStr.contains("<b>PNR: ")) {
-            pnrStartIndex = bookingStr.indexOf("<b>PNR: ") + "<b>PNR: ".length();
-            int pnrEndIndex = bookingStr.indexOf("</b>", pnrStartIndex);
-            if (pnrEndIndex != -1) return bookingStr.substring(pnrStartIndex, pnrEndIndex).trim();
-        } else if (pnrStartIndex != -1) {
-            pnrStartIndex += pnrPrefix.length();
-            int pnrEndIndex = bookingStr.indexOf(" ", pnrStartIndex);
-            if (pnrEndIndex == -1) pnrEndIndex = bookingStr.indexOf("|", pnrStartIndex);
-            if (pnrEndIndex == -1) pnrEndIndex = bookingStr.length();
-            return bookingStr.substring(pnrStartIndex, pnrEndIndex).trim();
+        static BookingRow of(Booking booking, SimpleDateFormat sdf) {
+            // Flight is loaded with current status by getUserBookings
+            return of(booking, booking.getFlight().getCurrentStatus(), booking.isCheckedIn(), sdf.format(booking.getBookingDate()));
         }
-        return null;
+
+        private static BookingRow of(Booking booking, FlightStatus status, boolean checkedIn, String bookedAt) {
+            Flight flight = booking.getFlight();
+            String html = String.format("<html><b>PNR: %s</b> %s<br/>Flight: %s (%s)<br/>Seats: %s | Fare: %s<br/>Total: ₱%,.2f | Booked: %s</html>",
+                    booking.getPnr(), checkedIn ? "✅" : "⏳",
+                    flight.getRoute(),
+                    status != null ? status.toString().replace("_", " ") : "N/A",
+                    String.join(", ", booking.getSelectedSeats()),
+                    booking.getFare().getClassType(),
+                    booking.getTotalPrice(),
+                    bookedAt);
+            Color fg;
+            if (status == FlightStatus.CANCELED) {
+                fg = Color.RED;
+            } else if (checkedIn) {
+                fg = new Color(0,100,0);
+            } else {
+                fg = Color.BLACK;
+            }
+            return new BookingRow(booking.getPnr(), flight.getId(), flight.getRoute(), checkedIn, status, html, fg, booking, bookedAt);
+        }
+
+        BookingRow withFlightStatus(FlightStatus status) {
+            return of(booking, status, checkedIn, bookedAt);
+        }
+
+        BookingRow withCheckedIn(boolean isCheckedIn) {
+            return of(booking, flightStatus, isCheckedIn, bookedAt);
+        }
+
+        @Override
+        public String toString() { return html; }
     }
 
+    private final AsyncDatabase.LatestRequest<List<BookingRow>> bookingRowsRequest = new AsyncDatabase.LatestRequest<>();
+
+    // Loads and formats all rows once per refresh, off the EDT; the list then renders without any I/O.
     private void loadUserBookings() {
-        bookingListModel.clear();
         if (loggedInUser == null) {
-            bookingListModel.addElement("Error: Not logged in.");
+            showBookingRows(Collections.singletonList(BookingRow.message("Error: Not logged in.")), false);
             return;
         }
+        int userId = loggedInUser.getUserId();
+        bookingRowsRequest.submit(() -> {
+            List<Booking> userBookingsFromDb = DatabaseManager.getUserBookings(userId);
+            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
+            List<BookingRow> rows = new ArrayList<>(userBookingsFromDb.size());
+            for (Booking booking : userBookingsFromDb) {
+                rows.add(BookingRow.of(booking, sdf));
+            }
+            return rows;
+        }, rows -> {
+            if (rows.isEmpty()) {
+                showBookingRows(Collections.singletonList(BookingRow.message("No bookings found. Time to plan a trip!")), false);
+            } else {
+                showBookingRows(rows, true);
+            }
+        }, error -> showBookingRows(Collections.singletonList(BookingRow.message("Error loading bookings: " + error.getMessage())), false));
+    }
 
-        List<Booking> userBookingsFromDb = DatabaseManager.getUserBookings(loggedInUser.getUserId());
+    private Dimension cellSize(BookingRow row) {
+        return bookingList.getCellRenderer().getListCellRendererComponent(bookingList, row, 0, false, false).getPreferredSize();
+    }
 
-        if (userBookingsFromDb.isEmpty()) {
-            bookingListModel.addElement("No bookings found. Time to plan a trip!");
-            bookingList.setEnabled(false);
-            return;
+    private void showBookingRows(List<BookingRow> rows, boolean enabled) {
+        // Fill a detached model and swap it in, so the list gets one change instead of one per row
+        DefaultListModel<BookingRow> model = new DefaultListModel<>();
+        model.addAll(rows);
+        bookingListModel = model;
+        // Rows share one layout, so every cell gets the first row's height instead of laying out all of them.
+        // Widths differ with the route and dates; the row with the most text stands in for the widest.
+        if (enabled) {
+            BookingRow longest = rows.get(0);
+            for (BookingRow row : rows) {
+                if (row.html.length() > longest.html.length()) longest = row;
+            }
+            bookingList.setFixedCellHeight(cellSize(rows.get(0)).height);
+            bookingList.setFixedCellWidth(cellSize(longest).width);
+        } else {
+            bookingList.setFixedCellWidth(-1);
+            bookingList.setFixedCellHeight(-1);
         }
+        bookingList.setModel(model);
+        bookingList.setEnabled(enabled);
+
+        cancelBookingSubscriptions();
+        if (enabled) {
+            Set<Integer> flightIds = new HashSet<>();
+            for (BookingRow row : rows) flightIds.add(row.flightId);
+            for (int flightId : flightIds) {
+                bookingSubscriptions.add(FlightEventBus.subscribe(flightId,
+                        event -> SwingUtilities.invokeLater(() -> onBookedFlightEvent(event))));
+            }
+        }
+    }
 
-        bookingList.setEnabled(true);
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
-
-        for (Booking booking : userBookingsFromDb) {
-            String seatsStr = String.join(", ", booking.getSelectedSeats());
-            String checkInStatus = booking.isCheckedIn() ? "Checked In ✅" : "Pending Check-In ⏳";
-            Flight flightForBooking = DatabaseManager.getFlightById(booking.getFlight().getId());
-            String flightStatusStr = (flightForBooking != null) ? flightForBooking.getCurrentStatus().toString().replace("_", " ") : "N/A";
-            if (flightForBooking != null && flightForBooking.getCurrentStatus() == FlightStatus.CANCELED) flightStatusStr = "🔴 CANCELED";
+    private void cancelBookingSubscriptions() {
+        for (FlightEventBus.Subscription sub : bookingSubscriptions) sub.cancel();
+        bookingSubscriptions.clear();
+    }
 
-            String listEntry = String.format("PNR: %s | Flight: %s | Status: %s | Seats: %s | Price: %,.2f | Date: %s | Check-in: %s",
-                    booking.getPnr(),
-                    booking.getFlight().getRoute(),
-                    flightStatusStr,
-                    seatsStr,
-                    booking.getTotalPrice(),
-                    sdf.format(booking.getBookingDate()),
-                    checkInStatus
-            );
-            bookingListModel.addElement(listEntry);
+    // Patches just the affected rows: a new flight status, a check-in flip, or a booking cancelled elsewhere.
+    private void onBookedFlightEvent(FlightEventBus.FlightEvent event) {
+        DefaultListModel<BookingRow> model = bookingListModel;
+        for (int i = model.getSize() - 1; i >= 0; i--) {
+            BookingRow row = model.get(i);
+            if (row.pnr == null || row.flightId != event.getFlightId()) continue;
+            if (event instanceof FlightStatusEngine.FlightStatusChanged) {
+                model.set(i, row.withFlightStatus(((FlightStatusEngine.FlightStatusChanged) event).newStatus));
+            } else if (event instanceof FlightEventBus.CheckInChanged) {
+                FlightEventBus.CheckInChanged checkIn = (FlightEventBus.CheckInChanged) event;
+                if (row.pnr.equals(checkIn.pnr) && row.checkedIn != checkIn.checkedIn) {
+                    model.set(i, row.withCheckedIn(checkIn.checkedIn));
+                }
+            } else if (event instanceof FlightEventBus.SeatsChanged) {
+                FlightEventBus.SeatsChanged seats = (FlightEventBus.SeatsChanged) event;
+                if (row.pnr.equals(seats.pnr) && !seats.released.isEmpty()) model.remove(i);
+            }
         }
-        if (bookingListModel.isEmpty()) {
-            bookingListModel.addElement("No bookings found.");
-            bookingList.setEnabled(false);
+        if (model.isEmpty() && bookingList.isEnabled()) {
+            showBookingRows(Collections.singletonList(BookingRow.message("No bookings found. Time to plan a trip!")), false);
         }
     }
 
@@ -1204,14 +1568,19 @@ public class AirplaneReservationSystem {
         int confirm = JOptionPane.showConfirmDialog(frame, "Are you sure you want to logout?", "Logout Confirmation", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             addAuditLog("User logged out: " + (loggedInUser != null ? loggedInUser.getUsername() : "Unknown"));
+            releaseSeatHolds();
             loggedInUser = null;
             tempFlight = null;
+            watchFlight(-1);
+            cancelBookingSubscriptions();
             tempFare = null;
             tempPersons = 1;
+            tempChildren = 0;
             tempTotalPrice = 0.0;
             selectedSeats.clear();
             if(chatbotArea != null) chatbotArea.setText("Chatbot: Hello! How can I help you today?\n");
             if(chatbotInput != null) chatbotInput.setText("");
+            ChatbotEngine.clearCache();
             cardLayout.show(mainPanel, "Login");
         }
     }
@@ -1240,7 +1609,7 @@ public class AirplaneReservationSystem {
         splitPane.setOpaque(false);
         splitPane.setBorder(null);
 
-        JPanel dashboardPanel = new JPanel(new GridLayout(2, 2, 20, 20));
+        JPanel dashboardPanel = new JPanel(new GridLayout(3, 2, 20, 20));
         dashboardPanel.setOpaque(false);
         dashboardPanel.setBorder(BorderFactory.createTitledBorder(
                 BorderFactory.createEtchedBorder(), "System Statistics",
@@ -1251,23 +1620,44 @@ public class AirplaneReservationSystem {
         revenueLabel = createAdminStatLabel("Total Revenue: ₱0.00");
         occupancyLabel = createAdminStatLabel("Overall Occupancy: 0.00%");
         checkInCountLabel = createAdminStatLabel("Passengers Checked In: 0");
+        poolStatsLabel = createAdminStatLabel("DB Pool: -");
+        poolStatsLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        flightCacheLabel = createAdminStatLabel("Flight Cache: -");
+        flightCacheLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
 
         dashboardPanel.add(totalBookingsLabel);
         dashboardPanel.add(revenueLabel);
         dashboardPanel.add(occupancyLabel);
         dashboardPanel.add(checkInCountLabel);
-        splitPane.setTopComponent(dashboardPanel);
+        dashboardPanel.add(poolStatsLabel);
+        dashboardPanel.add(flightCacheLabel);
+
+        JTabbedPane statsTabs = new JTabbedPane();
+        statsTabs.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        statsTabs.addTab("System Statistics", dashboardPanel);
+        statsTabs.addTab("Performance", createPerformancePanel());
+        statsTabs.addTab("SQL", createSqlStatsPanel());
+        statsTabs.addTab("EDT Stalls", createEdtStallPanel());
+        statsTabs.addChangeListener(e -> SwingUtilities.invokeLater(this::updatePerformanceTable));
+        splitPane.setTopComponent(statsTabs);
 
         JPanel auditLogPanel = new JPanel(new BorderLayout(5,5));
         auditLogPanel.setOpaque(false);
         auditLogPanel.setBorder(BorderFactory.createTitledBorder(
-                BorderFactory.createEtchedBorder(), "System Audit Log (Last 200)",
+                BorderFactory.createEtchedBorder(), "System Audit Log",
                 TitledBorder.LEFT, TitledBorder.TOP,
                 new Font("Segoe UI", Font.BOLD, 18), new Color(10, 70, 140)));
 
         auditLogList = new JList<>(auditLogModel);
         auditLogList.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane logScrollPane = new JScrollPane(auditLogList);
+        // Page in older entries when the user scrolls near the bottom
+        logScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (!e.getValueIsAdjusting() && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bar.getVisibleAmount()) {
+                loadOlderAuditLogs();
+            }
+        });
         auditLogPanel.add(logScrollPane, BorderLayout.CENTER);
         splitPane.setBottomComponent(auditLogPanel);
 
@@ -1285,6 +1675,226 @@ public class AirplaneReservationSystem {
         return panel;
     }
 
+    private JPanel createPerformancePanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setOpaque(false);
+        panel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createEtchedBorder(), "Operation Latency (live, also published over JMX)",
+                TitledBorder.LEFT, TitledBorder.TOP,
+                new Font("Segoe UI", Font.BOLD, 18), new Color(10, 70, 140)));
+
+        performanceModel = new PerformanceTableModel();
+        performanceTable = new JTable(performanceModel);
+        performanceTable.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        performanceTable.setAutoCreateRowSorter(true);
+        performanceTable.getColumnModel().getColumn(0).setPreferredWidth(220);
+        useLatencyRenderer(performanceTable, 4);
+        panel.add(new JScrollPane(performanceTable), BorderLayout.CENTER);
+
+        JButton resetBtn = createStyledButton("Reset Metrics", new Color(70, 130, 180), Color.WHITE);
+        resetBtn.addActionListener(e -> {
+            Metrics.resetAll();
+            performanceModel.refresh();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.setOpaque(false);
+        buttons.add(resetBtn);
+        panel.add(buttons, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    // Latencies are kept as microseconds so the columns sort numerically; this renders them as "1.2ms"
+    private static void useLatencyRenderer(JTable table, int firstColumn) {
+        javax.swing.table.DefaultTableCellRenderer latencyRenderer = new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : LatencyHistogram.format((Long) value));
+            }
+        };
+        latencyRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        for (int col = firstColumn; col < table.getColumnCount(); col++) {
+            table.getColumnModel().getColumn(col).setCellRenderer(latencyRenderer);
+        }
+    }
+
+    private JPanel createEdtStallPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setOpaque(false);
+        panel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createEtchedBorder(), "Recent Event-Thread Stalls",
+                TitledBorder.LEFT, TitledBorder.TOP,
+                new Font("Segoe UI", Font.BOLD, 18), new Color(10, 70, 140)));
+
+        edtStallModel = new DefaultListModel<>();
+        edtStallList = new JList<>(edtStallModel);
+        edtStallList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        panel.add(new JScrollPane(edtStallList), BorderLayout.CENTER);
+
+        JButton exportBtn = createStyledButton("Export...", new Color(70, 130, 180), Color.WHITE);
+        exportBtn.addActionListener(e -> exportEdtStalls());
+        JButton clearBtn = createStyledButton("Clear", new Color(70, 130, 180), Color.WHITE);
+        clearBtn.addActionListener(e -> {
+            EdtWatchdog.clear();
+            refreshEdtStalls();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.setOpaque(false);
+        buttons.add(exportBtn);
+        buttons.add(clearBtn);
+        panel.add(buttons, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    // Saves the stall report, including each captured EDT stack, to a text file of the admin's choice
+    private void exportEdtStalls() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("edt-stalls.txt"));
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+        java.io.File file = chooser.getSelectedFile();
+        try {
+            java.nio.file.Files.write(file.toPath(), EdtWatchdog.report().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            addAuditLog("Exported EDT stall report to " + file.getName());
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(frame, "Could not write " + file + ": " + ex.getMessage(), "Export Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private JPanel createSqlStatsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setOpaque(false);
+        panel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createEtchedBorder(), "SQL Statements by Template (most total time first)",
+                TitledBorder.LEFT, TitledBorder.TOP,
+                new Font("Segoe UI", Font.BOLD, 18), new Color(10, 70, 140)));
+
+        sqlStatsModel = new SqlStatsTableModel();
+        sqlStatsTable = new JTable(sqlStatsModel) {
+            @Override
+            public String getToolTipText(MouseEvent e) {
+                int row = rowAtPoint(e.getPoint());
+                return row < 0 ? null : sqlStatsModel.getTooltip(convertRowIndexToModel(row));
+            }
+        };
+        sqlStatsTable.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        sqlStatsTable.setAutoCreateRowSorter(true);
+        sqlStatsTable.getColumnModel().getColumn(0).setPreferredWidth(420);
+        useLatencyRenderer(sqlStatsTable, 5);
+        panel.add(new JScrollPane(sqlStatsTable), BorderLayout.CENTER);
+
+        JButton resetBtn = createStyledButton("Reset SQL Stats", new Color(70, 130, 180), Color.WHITE);
+        resetBtn.addActionListener(e -> {
+            StatementTracer.reset();
+            sqlStatsModel.refresh();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.setOpaque(false);
+        buttons.add(new JLabel(StatementTracer.ENABLED ? "" : "Tracing is off (-Dairplane.sql.trace=false)"));
+        buttons.add(resetBtn);
+        panel.add(buttons, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private static class SqlStatsTableModel extends javax.swing.table.AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private static final String[] COLUMNS = {"Template", "Calls", "Errors", "Slow", "Avg Rows", "Exec p50", "Exec p99", "Fetch p99", "Total"};
+        private List<StatementTracer.TemplateStats> stats = new ArrayList<>();
+
+        void refresh() {
+            stats = StatementTracer.getTemplateStats();
+            fireTableDataChanged();
+        }
+
+        String getTooltip(int row) {
+            StatementTracer.TemplateStats s = stats.get(row);
+            return "<html>" + s.template.replace("&", "&amp;").replace("<", "&lt;") + "<br>Binds: "
+                    + String.join(" | ", s.getBindShapes()) + "</html>";
+        }
+
+        @Override
+        public int getRowCount() {
+            return stats.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == 0) return String.class;
+            return column == 4 ? Double.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            StatementTracer.TemplateStats s = stats.get(row);
+            switch (column) {
+                case 0: return s.template;
+                case 1: return s.getCalls();
+                case 2: return s.getErrors();
+                case 3: return s.getSlowCount();
+                case 4: return s.getCalls() == 0 ? 0.0 : Math.round(s.getRows() * 10.0 / s.getCalls()) / 10.0;
+                case 5: return s.getExecution().percentileMicros(50);
+                case 6: return s.getExecution().percentileMicros(99);
+                case 7: return s.getFetch().percentileMicros(99);
+                default: return s.getTotalMicros();
+            }
+        }
+    }
+
+    // One row per Metrics timer; values are copied on refresh() so sorting and painting see a stable snapshot
+    private static class PerformanceTableModel extends javax.swing.table.AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private static final String[] COLUMNS = {"Operation", "Calls", "Errors", "Error %", "Mean", "p50", "p99", "Max"};
+        private List<Object[]> rows = new ArrayList<>();
+
+        void refresh() {
+            List<Object[]> snapshot = new ArrayList<>();
+            for (Metrics.Timer t : Metrics.getTimers()) {
+                if (t.getCount() == 0) continue;
+                snapshot.add(new Object[]{t.getName(), t.getCount(), t.getErrorCount(),
+                        Math.round(t.getErrorRatePercent() * 10) / 10.0,
+                        (long) t.getMeanMicros(), t.getP50Micros(), t.getP99Micros(), t.getMaxMicros()});
+            }
+            rows = snapshot;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == 0) return String.class;
+            return column == 3 ? Double.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return rows.get(row)[column];
+        }
+    }
+
     private JLabel createAdminStatLabel(String initialText) {
         JLabel label = new JLabel(initialText);
         label.setFont(new Font("Segoe UI", Font.BOLD, 20));
@@ -1301,28 +1911,138 @@ public class AirplaneReservationSystem {
     private void updateAdminDashboard() {
         if (totalBookingsLabel == null) return;
 
-        totalBookingsLabel.setText("Total Bookings: " + DatabaseManager.getTotalBookingsCount());
-        revenueLabel.setText(String.format("Total Revenue: ₱%,.2f", DatabaseManager.getTotalRevenue()));
-        occupancyLabel.setText(String.format("Overall Occupancy: %.2f%%", DatabaseManager.getOverallOccupancy()));
-        checkInCountLabel.setText("Passengers Checked In: " + DatabaseManager.getTotalCheckedInCount());
+        long refreshStart = System.nanoTime();
+        dashboardRequest.submit(DatabaseManager::getDashboardStats, stats -> {
+            totalBookingsLabel.setText("Total Bookings: " + stats.totalBookings);
+            revenueLabel.setText(String.format("Total Revenue: ₱%,.2f", stats.totalRevenue));
+            occupancyLabel.setText(String.format("Overall Occupancy: %.2f%%", stats.getOccupancyPercent()));
+            checkInCountLabel.setText("Passengers Checked In: " + stats.checkedInCount);
+            UI_DASHBOARD_REFRESH.record(refreshStart);
+        }, error -> {
+            UI_DASHBOARD_REFRESH.error();
+            UI_DASHBOARD_REFRESH.record(refreshStart);
+            System.err.println("Error loading dashboard stats: " + error.getMessage());
+        });
+
+        // In-memory counters, no query
+        ConnectionPool.Stats pool = DatabaseManager.getPoolStats();
+        poolStatsLabel.setText(String.format("DB Pool: %d active / %d idle (max %d) | Avg wait: %.1f ms, Max wait: %.1f ms | Timeouts: %d",
+                pool.active, pool.idle, pool.maxSize, pool.avgWaitMillis, pool.maxWaitMillis, pool.timeouts));
+        flightCacheLabel.setText(String.format("Flight Cache: %d hits / %d misses (%.1f%%) | %d cached, %d invalidations",
+                FlightCatalogCache.getHits(), FlightCatalogCache.getMisses(), FlightCatalogCache.getHitRate(),
+                FlightCatalogCache.size(), FlightCatalogCache.getInvalidations()));
+    }
+
+    private final AsyncDatabase.LatestRequest<DatabaseManager.DashboardStats> dashboardRequest = new AsyncDatabase.LatestRequest<>();
+
+    // Re-reads all timers, SQL template stats and EDT stalls; only for the tab that is on screen
+    private void updatePerformanceTable() {
+        if (performanceTable != null && performanceTable.isShowing()) performanceModel.refresh();
+        if (sqlStatsTable != null && sqlStatsTable.isShowing()) sqlStatsModel.refresh();
+        if (edtStallList != null && edtStallList.isShowing()) refreshEdtStalls();
+    }
+
+    private void refreshEdtStalls() {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        edtStallModel.clear();
+        for (EdtWatchdog.Stall stall : EdtWatchdog.getRecentStalls()) {
+            edtStallModel.addElement(String.format("%s  %9s  %s", timeFormat.format(stall.detectedAt),
+                    stall.describeDuration(), stall.getAttribution()));
+        }
+        if (edtStallModel.isEmpty()) edtStallModel.addElement("No event-thread stalls recorded.");
     }
 
     private void addAuditLog(String message) {
+        // Written asynchronously; the flush listener registered in initUI refreshes the admin view
         DatabaseManager.addAuditLogEntry(message, loggedInUser != null ? loggedInUser.getUsername() : "System");
-        if (auditLogModel != null && auditLogList != null && auditLogList.isVisible()) {
-            loadAuditLogs();
-        }
     }
+    // Tails the audit log off the EDT: entries not shown yet near or above the newest one are prepended.
     private void loadAuditLogs() {
         if (auditLogModel == null) return;
-        auditLogModel.clear();
-        List<String> logs = DatabaseManager.getAuditLogs();
-        for (String log : logs) {
-            auditLogModel.addElement(log);
+        if (auditTailRunning) {
+            auditTailAgain = true;
+            return;
         }
-        if (auditLogList != null && auditLogModel.getSize() > 0) {
-            auditLogList.ensureIndexIsVisible(0);
+        auditTailRunning = true;
+        long newest = newestAuditId;
+        long now = System.currentTimeMillis();
+        auditGaps.values().removeIf(noticedAt -> now - noticedAt > AUDIT_GAP_TIMEOUT_MS);
+        long floor = auditGaps.isEmpty() ? newest : auditGaps.firstKey() - 1;
+        AsyncDatabase.onEdt(AsyncDatabase.supply(() -> fetchAuditTail(newest, floor)), entries -> {
+            showAuditTail(newest, entries);
+            finishAuditTail();
+        }, error -> {
+            System.err.println("Error loading audit logs: " + error.getMessage());
+            finishAuditTail();
+        });
+    }
+
+    private void finishAuditTail() {
+        auditTailRunning = false;
+        if (auditTailAgain) {
+            auditTailAgain = false;
+            loadAuditLogs();
+        }
+    }
+
+    // First load (newest < 0): the newest page, newest first. Afterwards: every entry above floor, oldest first.
+    private static List<DatabaseManager.AuditLogEntry> fetchAuditTail(long newest, long floor) {
+        if (newest < 0) return DatabaseManager.getAuditLogsBefore(Long.MAX_VALUE, AUDIT_PAGE_SIZE);
+        List<DatabaseManager.AuditLogEntry> entries = new ArrayList<>();
+        List<DatabaseManager.AuditLogEntry> page;
+        long cursor = floor;
+        do {
+            page = DatabaseManager.getAuditLogsAfter(cursor, AUDIT_PAGE_SIZE);
+            entries.addAll(page);
+            if (!page.isEmpty()) cursor = page.get(page.size() - 1).id;
+        } while (page.size() == AUDIT_PAGE_SIZE);
+        return entries;
+    }
+
+    private void showAuditTail(long newest, List<DatabaseManager.AuditLogEntry> entries) {
+        if (newest < 0) {
+            appendOlderAuditLogs(entries);
+            if (!entries.isEmpty()) newestAuditId = entries.get(0).id;
+            for (int i = 1; i < entries.size(); i++) noteAuditGaps(entries.get(i).id, entries.get(i - 1).id);
+        } else {
+            for (DatabaseManager.AuditLogEntry entry : entries) {
+                if (entry.id <= newestAuditId) {
+                    if (auditGaps.remove(entry.id) == null) continue; // already shown
+                } else {
+                    noteAuditGaps(newestAuditId, entry.id);
+                    newestAuditId = entry.id;
+                }
+                auditLogModel.add(0, entry.text);
+            }
+        }
+    }
+
+    // Remembers the ids strictly between two shown ones as not committed yet
+    private void noteAuditGaps(long below, long above) {
+        long now = System.currentTimeMillis();
+        for (long id = Math.max(below + 1, above - AUDIT_MAX_GAPS); id < above; id++) auditGaps.put(id, now);
+        while (auditGaps.size() > AUDIT_MAX_GAPS) auditGaps.pollFirstEntry();
+    }
+
+    private void loadOlderAuditLogs() {
+        if (auditLogModel == null || auditHistoryExhausted || newestAuditId < 0 || auditOlderRunning) return;
+        auditOlderRunning = true;
+        long before = oldestAuditId;
+        AsyncDatabase.onEdt(AsyncDatabase.supply(() -> DatabaseManager.getAuditLogsBefore(before, AUDIT_PAGE_SIZE)), page -> {
+            auditOlderRunning = false;
+            if (before == oldestAuditId) appendOlderAuditLogs(page);
+        }, error -> {
+            auditOlderRunning = false;
+            System.err.println("Error loading older audit logs: " + error.getMessage());
+        });
+    }
+
+    private void appendOlderAuditLogs(List<DatabaseManager.AuditLogEntry> page) {
+        for (DatabaseManager.AuditLogEntry entry : page) {
+            auditLogModel.addElement(entry.text);
+            oldestAuditId = entry.id;
         }
+        if (page.size() < AUDIT_PAGE_SIZE) auditHistoryExhausted = true;
     }
 
 
@@ -1342,7 +2062,7 @@ public class AirplaneReservationSystem {
         chatbotArea.setLineWrap(true);
         chatbotArea.setWrapStyleWord(true);
         chatbotArea.setText("🤖 AI Assistant: Hello! How can I assist you with your flight booking today?\n" +
-                "   You can ask about: 'flights to [city]', 'booking status [PNR]', 'help'.\n");
+                "   You can ask about: 'flights to [city]', 'flights from [city] to [city]', 'booking status [PNR]', 'help'.\n");
         JScrollPane scrollPane = new JScrollPane(chatbotArea);
         scrollPane.setBorder(BorderFactory.createEtchedBorder());
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -1393,76 +2113,23 @@ public class AirplaneReservationSystem {
         return panel;
     }
 
+    // Replies are appended in the order the questions were asked, even when a later one resolves first
+    private CompletableFuture<String> lastChatReply = CompletableFuture.completedFuture(null);
+
     private void processChatbotInput() {
-        String userInput = chatbotInput.getText().trim().toLowerCase();
+        String userInput = chatbotInput.getText().trim();
         if (userInput.isEmpty()) return;
 
-        chatbotArea.append("👤 You: " + chatbotInput.getText() + "\n");
+        chatbotArea.append("👤 You: " + userInput + "\n");
         chatbotInput.setText("");
 
-        String botResponse = "🤖 AI Assistant: ";
-        if (userInput.startsWith("hello") || userInput.startsWith("hi")) {
-            botResponse += "Hello there! How can I help you today?";
-        } else if (userInput.contains("flights to")) {
-            String destination = userInput.substring(userInput.indexOf("flights to") + "flights to".length()).trim();
-            botResponse += "Searching for flights to " + destination + "...\n";
-            boolean found = false;
-            List<Flight> localDbFlights = DatabaseManager.getFlights(true);
-            List<Flight> intDbFlights = DatabaseManager.getFlights(false);
-
-            for (Flight flight : localDbFlights) {
-                if (flight.getRoute().toLowerCase().contains(destination)) {
-                    botResponse += String.format("   - Local: %s (Base Fare: ₱%.2f, Status: %s)\n",
-                            flight.getRoute(), flight.getBaseFare(), flight.getCurrentStatus());
-                    found = true;
-                }
-            }
-            for (Flight flight : intDbFlights) {
-                if (flight.getRoute().toLowerCase().contains(destination)) {
-                    botResponse += String.format("   - International: %s (Base Fare: ₱%.2f, Status: %s)\n",
-                            flight.getRoute(), flight.getBaseFare(), flight.getCurrentStatus());
-                    found = true;
-                }
-            }
-            if (!found) botResponse += "   Sorry, no direct flights found for '" + destination + "' in our current list.";
-
-        } else if (userInput.startsWith("booking status")) {
-            String pnr = userInput.substring(userInput.indexOf("booking status") + "booking status".length()).trim().toUpperCase();
-            Booking b = DatabaseManager.getBookingByPnr(pnr);
-            if (b != null) {
-                Flight f = DatabaseManager.getFlightById(b.getFlight().getId());
-                botResponse += "Status for PNR " + pnr + ":\n" +
-                        "   Flight: " + b.getFlight().getRoute() + "\n" +
-                        "   Seats: " + String.join(", ", b.getSelectedSeats()) + "\n" +
-                        "   Total Price: ₱" + b.getTotalPrice() + "\n" +
-                        "   Checked In: " + (b.isCheckedIn() ? "Yes" : "No") + "\n" +
-                        "   Flight Status: " + (f != null ? f.getCurrentStatus() : "N/A");
-            } else {
-                botResponse += "Sorry, PNR " + pnr + " not found.";
-            }
-        } else if (userInput.startsWith("cancel booking")) {
-            String pnr = userInput.substring(userInput.indexOf("cancel booking") + "cancel booking".length()).trim().toUpperCase();
-            Booking b = DatabaseManager.getBookingByPnr(pnr);
-            if (b != null && loggedInUser != null && b.getUser().getUserId() == loggedInUser.getUserId()) {
-                botResponse += "To cancel booking PNR " + pnr + ", please go to 'My Bookings' and use the cancel option. This ensures proper confirmation.";
-            } else if (b == null) {
-                botResponse += "Sorry, PNR " + pnr + " not found.";
-            } else {
-                botResponse += "You can only manage your own bookings. Please ensure you are logged in with the correct account.";
-            }
-        } else if (userInput.contains("thank you") || userInput.contains("thanks")) {
-            botResponse += "You're welcome! Is there anything else?";
-        } else if (userInput.contains("help")) {
-            botResponse += "I can help you with:\n" +
-                    "   - Finding flights (e.g., 'flights to Tokyo')\n" +
-                    "   - Checking booking status (e.g., 'booking status ABC123')\n" +
-                    "   - Information on how to cancel bookings (e.g., 'cancel booking XYZ789')\n";
-        } else {
-            botResponse += "I'm sorry, I didn't quite understand that. Can you please rephrase or type 'help' for options?";
-        }
-
-        chatbotArea.append(botResponse + "\n\n");
-        chatbotArea.setCaretPosition(chatbotArea.getDocument().getLength());
+        // Intent matching happens here; lookups run in the background, so the window never waits on them
+        CompletableFuture<String> reply = ChatbotEngine.respond(userInput, loggedInUser);
+        lastChatReply = lastChatReply.thenCombine(reply, (previous, current) -> current);
+        AsyncDatabase.onEdt(lastChatReply, botResponse -> {
+            chatbotArea.append(botResponse + "\n\n");
+            chatbotArea.setCaretPosition(chatbotArea.getDocument().getLength());
+        }, error -> System.err.println("Chatbot reply failed: " + error.getMessage()));
     }
 
 
@@ -1537,7 +2204,8 @@ public class AirplaneReservationSystem {
         String route;
         double baseFare;
         int totalSeats;
-        Set<String> reservedSeats = new HashSet<>();
+        BitSet reservedSeats = new BitSet(); // Seat IDs encoded by SeatInventory
+        int reservedCount = 0;
         FlightStatus currentStatus = FlightStatus.ON_TIME;
 
 
@@ -1555,19 +2223,33 @@ public class AirplaneReservationSystem {
         public FlightStatus getCurrentStatus() { return currentStatus; }
         public void setCurrentStatus(FlightStatus status) { this.currentStatus = status; }
 
-        public Set<String> getReservedSeats() { return Collections.unmodifiableSet(reservedSeats); }
-        public void setReservedSeats(Set<String> seats) { this.reservedSeats = new HashSet<>(seats); }
+        public Set<String> getReservedSeats() { return SeatInventory.toSeatIds(reservedSeats); }
+        public void setReservedSeats(Set<String> seats) { setReservedSeatBits(SeatInventory.toBits(seats)); }
+        public BitSet getReservedSeatBits() { return (BitSet) reservedSeats.clone(); }
+        public void setReservedSeatBits(BitSet bits) {
+            this.reservedSeats = (BitSet) bits.clone();
+            this.reservedCount = reservedSeats.cardinality();
+        }
 
-        public boolean isSeatReserved(String seatId) { return reservedSeats.contains(seatId); }
+        public boolean isSeatReserved(String seatId) {
+            int idx = SeatInventory.encode(seatId);
+            return idx >= 0 && reservedSeats.get(idx);
+        }
         public boolean areSeatsAvailable(Set<String> seatsToCheck) {
             for (String s : seatsToCheck) {
-                if (reservedSeats.contains(s)) return false;
+                if (isSeatReserved(s)) return false;
             }
             return true;
         }
-        public void reserveSeatsOnObject(Set<String> seatsToReserve) { reservedSeats.addAll(seatsToReserve); }
-        public void releaseSeatsOnObject(Set<String> seatsToRelease) { reservedSeats.removeAll(seatsToRelease); }
-        public int getAvailableSeats() { return totalSeats - reservedSeats.size(); }
+        public void reserveSeatsOnObject(Set<String> seatsToReserve) {
+            reservedSeats.or(SeatInventory.toBits(seatsToReserve));
+            reservedCount = reservedSeats.cardinality();
+        }
+        public void releaseSeatsOnObject(Set<String> seatsToRelease) {
+            reservedSeats.andNot(SeatInventory.toBits(seatsToRelease));
+            reservedCount = reservedSeats.cardinality();
+        }
+        public int getAvailableSeats() { return totalSeats - reservedCount; }
     }
 
     public static class Fare {
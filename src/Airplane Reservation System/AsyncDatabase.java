@@ -0,0 +1,89 @@
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Non-blocking facade over DatabaseManager for the Swing UI.
+// Calls run on a background executor (virtual threads when the JVM has them, a cached daemon pool otherwise)
+// and results are handed back on the event dispatch thread via onEdt(), so a slow database never freezes the window.
+public class AsyncDatabase {
+
+    private static final ExecutorService executor = newExecutor("db-async-");
+
+    // Virtual-thread-per-task executor on JDK 21+, otherwise a cached pool of daemon threads named prefix + n.
+    static ExecutorService newExecutor(String threadNamePrefix) {
+        try {
+            // JDK 21+: one cheap virtual thread per call
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, threadNamePrefix + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    // Runs onSuccess or onError on the EDT once the future completes. Cancelled futures call neither.
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException) return;
+            SwingUtilities.invokeLater(() -> {
+                if (cause == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onError.accept(cause);
+                }
+            });
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    // Tracks the latest request of one kind (e.g. "price quote"). Submitting a new request cancels the previous
+    // one, and a result that arrives after it has been superseded is dropped instead of overwriting newer state.
+    public static class LatestRequest<T> {
+        private final AtomicLong generation = new AtomicLong();
+        private volatile CompletableFuture<T> current;
+
+        public void submit(Supplier<T> call, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            long gen = generation.incrementAndGet();
+            CompletableFuture<T> previous = current;
+            if (previous != null) previous.cancel(false);
+            CompletableFuture<T> future = supply(call);
+            current = future;
+            onEdt(future,
+                    result -> { if (generation.get() == gen) onSuccess.accept(result); },
+                    error -> { if (generation.get() == gen) onError.accept(error); });
+        }
+
+        public void cancel() {
+            generation.incrementAndGet();
+            CompletableFuture<T> previous = current;
+            if (previous != null) previous.cancel(false);
+        }
+    }
+
+    // --- DatabaseManager calls ---
+
+    public static CompletableFuture<AirplaneReservationSystem.User> validateUser(String username, String password) {
+        return supply(() -> DatabaseManager.validateUser(username, password));
+    }
+}
@@ -0,0 +1,236 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes audit_log rows in the background so callers (mostly the Swing event thread) never wait on an INSERT.
+// Entries go into a bounded queue; a single writer thread drains them and inserts a batch as one multi-row
+// INSERT in one transaction (group commit) once BATCH_SIZE entries are waiting or FLUSH_INTERVAL_MS has passed.
+// Dropped entries show up as errors on the audit.enqueue and audit.writeBatch timers.
+public class AuditLogWriter {
+
+    // What enqueue() does when the queue is full
+    public enum BackpressurePolicy {
+        BLOCK,        // wait for space (bounded by OFFER_TIMEOUT_MS, then drop)
+        DROP,         // discard the new entry and count it
+        CALLER_RUNS;  // write the entry synchronously on the caller's thread
+
+        // -Dairplane.audit.policy=drop|block|caller_runs; DROP by default, since BLOCK can stall the EDT
+        public static BackpressurePolicy fromSystemProperty() {
+            String value = System.getProperty("airplane.audit.policy", "drop");
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown airplane.audit.policy '" + value + "', using DROP.");
+                return DROP;
+            }
+        }
+    }
+
+    private static final int BATCH_SIZE = 50;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final long OFFER_TIMEOUT_MS = 1000;
+
+    private static final Metrics.Timer ENQUEUE = Metrics.timer("audit.enqueue");
+    private static final Metrics.Timer WRITE_BATCH = Metrics.timer("audit.writeBatch");
+
+    private static class Entry {
+        final String message;
+        final String username;
+        final Timestamp timestamp;
+        Entry(String message, String username, Timestamp timestamp) {
+            this.message = message;
+            this.username = username;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final Entry POISON = new Entry(null, null, null);
+
+    private final BlockingQueue<Entry> queue;
+    private final Thread writerThread;
+    private volatile BackpressurePolicy policy;
+    private volatile boolean running = true;
+    private final List<Runnable> flushListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public AuditLogWriter(int capacity, BackpressurePolicy policy) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.writerThread = new Thread(this::runWriter, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void setBackpressurePolicy(BackpressurePolicy policy) {
+        this.policy = policy;
+    }
+
+    // Called after every committed batch (on the writer thread).
+    public void addFlushListener(Runnable listener) {
+        flushListeners.add(listener);
+    }
+
+    public void enqueue(String message, String username) {
+        Entry entry = new Entry(message, username, new Timestamp(System.currentTimeMillis()));
+        if (!running) {
+            writeBatch(List.of(entry));
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (queue.offer(entry)) return;
+
+            switch (policy) {
+                case BLOCK:
+                    try {
+                        if (queue.offer(entry, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    drop();
+                    System.err.println("Audit log queue full; dropped entry: " + message);
+                    break;
+                case DROP:
+                    drop();
+                    break;
+                case CALLER_RUNS:
+                    writeBatch(List.of(entry));
+                    break;
+            }
+        } finally {
+            ENQUEUE.record(startNanos);
+        }
+    }
+
+    private void drop() {
+        dropped.incrementAndGet();
+        ENQUEUE.error();
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Entry first = queue.take();
+                if (first == POISON) break;
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    long remaining = deadline - System.nanoTime();
+                    Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        if (remaining <= 0) break;
+                        continue;
+                    }
+                    if (next == POISON) {
+                        stop = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        // Drain whatever is left after shutdown was requested
+        List<Entry> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.remove(POISON);
+        for (int i = 0; i < rest.size(); i += BATCH_SIZE) {
+            writeBatch(rest.subList(i, Math.min(rest.size(), i + BATCH_SIZE)));
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        StringBuilder sql = new StringBuilder("INSERT INTO audit_log (log_timestamp, message, username) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        Connection conn = null;
+        long startNanos = System.nanoTime();
+        try {
+            conn = DatabaseManager.getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int idx = 1;
+                for (Entry e : batch) {
+                    pstmt.setTimestamp(idx++, e.timestamp);
+                    pstmt.setString(idx++, e.message);
+                    pstmt.setString(idx++, e.username);
+                }
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (SQLException e) {
+            WRITE_BATCH.error();
+            System.err.println("Error writing audit log batch of " + batch.size() + ": " + e.getMessage());
+            dropped.addAndGet(batch.size());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Rollback failed: " + ex.getMessage());
+                }
+            }
+            return;
+        } finally {
+            WRITE_BATCH.record(startNanos);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
+            }
+        }
+        for (Runnable listener : flushListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("Audit log flush listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Stops accepting queued writes and waits for everything already queued to reach the database.
+    public void shutdown(long timeoutMillis) {
+        if (!running) return;
+        running = false;
+        try {
+            // A full queue that never drains (e.g. database down) must not hang shutdown
+            if (!queue.offer(POISON, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                writerThread.interrupt(); // stops after its current batch, then drains what it can
+            }
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            System.err.println("Audit log writer did not drain within " + timeoutMillis + " ms; " + queue.size() + " entries pending.");
+        }
+    }
+
+    public long getWrittenCount() { return written.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getBatchCount() { return batches.get(); }
+    public int getQueueDepth() { return queue.size(); }
+}
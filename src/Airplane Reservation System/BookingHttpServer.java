@@ -0,0 +1,622 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+// Local HTTP/JSON API over BookingService, so bookings can be made (and load-tested) without the GUI.
+// Runs on the JDK's built-in HttpServer with one virtual thread per request where available
+// (see AsyncDatabase.newExecutor). Endpoints:
+//   GET    /api/flights?type=local|international&q=cebu
+//   GET    /api/quote?flightId=1&fareClass=Economy&persons=2&children=1
+//   GET    /api/quotes?type=local&q=cebu&fareClass=Economy&persons=2   (every matching flight, priced at once)
+//   POST   /api/holds     {"flightId":1,"seats":["1A","1B"],"holdId":"optional"}
+//   DELETE /api/holds?flightId=1&holdId=...
+//   POST   /api/bookings  {"flightId":1,"fareClass":"Economy","persons":2,"children":0,"seats":["1A","1B"],"paymentMethod":"GCash","holdId":"...","quotedTotal":1234.5}
+//   POST   /api/cancel    {"pnr":"ABC123"}
+//   POST   /api/check-in  {"pnr":"ABC123"}
+// Holds, bookings, cancel and check-in require HTTP Basic credentials of a registered user. Hold IDs are scoped to
+// that user, and each user may keep at most airplane.api.maxHoldsPerUser holds at once. A booking whose quotedTotal
+// no longer matches the fare is refused with 409 and the new quote.
+// Listens on the loopback interface only, unless airplane.api.host names another address (e.g. 0.0.0.0).
+// Start headless with: java BookingHttpServer [port]
+public class BookingHttpServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final String HOST = System.getProperty("airplane.api.host");
+    private static final int MAX_HOLDS_PER_USER = Integer.getInteger("airplane.api.maxHoldsPerUser", 5);
+
+    private final BookingService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Live holds per user id: "flightId/holdId" -> expiry time, to enforce MAX_HOLDS_PER_USER. Guarded by the inner map.
+    private final ConcurrentHashMap<Integer, Map<String, Long>> holdsByUser = new ConcurrentHashMap<>();
+
+    // Thrown by handlers to end a request with the given status and error message
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public BookingHttpServer(BookingService service, int port) throws IOException {
+        this.service = service;
+        InetAddress address = HOST == null || HOST.isEmpty() ? InetAddress.getLoopbackAddress() : InetAddress.getByName(HOST);
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        this.executor = AsyncDatabase.newExecutor("http-api-");
+        server.setExecutor(executor);
+        route("/api/flights", "GET", this::flights);
+        route("/api/quote", "GET", this::quote);
+        route("/api/quotes", "GET", this::quotes);
+        route("/api/holds", "POST", this::hold);
+        route("/api/holds", "DELETE", this::releaseHold);
+        route("/api/bookings", "POST", this::book);
+        route("/api/cancel", "POST", this::cancel);
+        route("/api/check-in", "POST", this::checkIn);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Booking API listening on " + server.getAddress());
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        BookingHttpServer api = new BookingHttpServer(new DefaultBookingService(), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(1);
+            DynamicPricing.stop();
+            DatabaseManager.shutdownAuditLog(5000);
+            DatabaseManager.closeConnection();
+        }));
+        DynamicPricing.start();
+        api.start();
+    }
+
+    // --- Routing ---
+
+    private interface Handler {
+        Object handle(HttpExchange exchange) throws IOException;
+    }
+
+    // A handler result with a status other than 200
+    private static final class Response {
+        final int status;
+        final Object body;
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final Map<String, Map<String, Handler>> routes = new HashMap<>();
+
+    private void route(String path, String method, Handler handler) {
+        boolean first = !routes.containsKey(path);
+        routes.computeIfAbsent(path, k -> new HashMap<>()).put(method, handler);
+        if (first) server.createContext(path, dispatcher(path));
+    }
+
+    private HttpHandler dispatcher(String path) {
+        return exchange -> {
+            int status = 200;
+            Object body;
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) throw new ApiException(404, "Not found");
+                Handler handler = routes.get(path).get(exchange.getRequestMethod());
+                if (handler == null) throw new ApiException(405, "Method not allowed");
+                body = handler.handle(exchange);
+                if (body instanceof Response) {
+                    status = ((Response) body).status;
+                    body = ((Response) body).body;
+                }
+            } catch (ApiException e) {
+                status = e.status;
+                body = error(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Booking API error on " + path + ": " + e);
+                status = 500;
+                body = error("Internal error");
+            }
+            byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        };
+    }
+
+    // --- Endpoints ---
+
+    private Object flights(HttpExchange exchange) {
+        Map<String, String> q = query(exchange);
+        String type = q.get("type");
+        Boolean local = type == null ? null : "local".equalsIgnoreCase(type);
+        List<Object> result = new ArrayList<>();
+        for (AirplaneReservationSystem.Flight f : service.searchFlights(local, q.get("q"))) {
+            result.add(flightJson(f));
+        }
+        return result;
+    }
+
+    private Object quote(HttpExchange exchange) {
+        Map<String, String> q = query(exchange);
+        AirplaneReservationSystem.Flight flight = requireFlight(parseInt(q.get("flightId"), "flightId"));
+        BookingService.Quote quote = service.quote(flight, q.getOrDefault("fareClass", "Economy"),
+                parseInt(q.getOrDefault("persons", "1"), "persons"), parseInt(q.getOrDefault("children", "0"), "children"));
+        return quoteJson(quote);
+    }
+
+    private Object quotes(HttpExchange exchange) {
+        Map<String, String> q = query(exchange);
+        String type = q.get("type");
+        Boolean local = type == null ? null : "local".equalsIgnoreCase(type);
+        List<AirplaneReservationSystem.Flight> flights = service.searchFlights(local, q.get("q"));
+        List<Object> result = new ArrayList<>();
+        for (BookingService.Quote quote : service.bulkQuote(flights, q.getOrDefault("fareClass", "Economy"),
+                parseInt(q.getOrDefault("persons", "1"), "persons"), parseInt(q.getOrDefault("children", "0"), "children"))) {
+            result.add(quoteJson(quote));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> quoteJson(BookingService.Quote quote) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("flight", flightJson(quote.flight));
+        json.put("fareClass", quote.fare.getClassType());
+        json.put("multiplier", quote.fare.getMultiplier());
+        json.put("persons", quote.persons);
+        json.put("children", quote.children);
+        json.put("fares", quote.fares);
+        json.put("discount", quote.discount);
+        json.put("taxes", quote.taxes);
+        json.put("totalPrice", quote.totalPrice);
+        return json;
+    }
+
+    private Object hold(HttpExchange exchange) throws IOException {
+        AirplaneReservationSystem.User user = authenticate(exchange);
+        Map<String, Object> body = jsonBody(exchange);
+        int flightId = intField(body, "flightId");
+        Set<String> seats = seatsField(body);
+        String holdId = body.get("holdId") instanceof String ? (String) body.get("holdId") : UUID.randomUUID().toString();
+        Map<String, Long> holds = holdsByUser.computeIfAbsent(user.getUserId(), k -> new HashMap<>());
+        synchronized (holds) {
+            long now = System.currentTimeMillis();
+            holds.values().removeIf(expiresAt -> expiresAt <= now);
+            String key = flightId + "/" + holdId;
+            if (!holds.containsKey(key) && holds.size() >= MAX_HOLDS_PER_USER) {
+                throw new ApiException(429, "At most " + MAX_HOLDS_PER_USER + " holds may be open at once.");
+            }
+            if (!service.holdSeats(flightId, seats, holdOwner(user, holdId))) {
+                throw new ApiException(409, "One or more seats are not available.");
+            }
+            holds.put(key, now + SeatHoldService.getHoldTtlMillis());
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("holdId", holdId);
+        json.put("flightId", flightId);
+        json.put("seats", new ArrayList<>(seats));
+        json.put("expiresInMillis", SeatHoldService.getHoldTtlMillis());
+        return json;
+    }
+
+    private Object releaseHold(HttpExchange exchange) {
+        AirplaneReservationSystem.User user = authenticate(exchange);
+        Map<String, String> q = query(exchange);
+        String holdId = q.get("holdId");
+        if (holdId == null) throw new IllegalArgumentException("holdId is required.");
+        int flightId = parseInt(q.get("flightId"), "flightId");
+        service.releaseHold(flightId, holdOwner(user, holdId));
+        forgetHold(user, flightId, holdId);
+        return ok();
+    }
+
+    // Hold owners are prefixed with the user id, so one user can neither release nor book another's hold
+    private static String holdOwner(AirplaneReservationSystem.User user, String holdId) {
+        return "api-" + user.getUserId() + "-" + holdId;
+    }
+
+    private void forgetHold(AirplaneReservationSystem.User user, int flightId, String holdId) {
+        Map<String, Long> holds = holdsByUser.get(user.getUserId());
+        if (holds == null) return;
+        synchronized (holds) {
+            holds.remove(flightId + "/" + holdId);
+        }
+    }
+
+    private Object book(HttpExchange exchange) throws IOException {
+        AirplaneReservationSystem.User user = authenticate(exchange);
+        Map<String, Object> body = jsonBody(exchange);
+        int flightId = intField(body, "flightId");
+        Set<String> seats = seatsField(body);
+        String fareClass = body.get("fareClass") instanceof String ? (String) body.get("fareClass") : "Economy";
+        int persons = body.containsKey("persons") ? intField(body, "persons") : seats.size();
+        int children = body.containsKey("children") ? intField(body, "children") : 0;
+        String paymentMethod = body.get("paymentMethod") instanceof String ? (String) body.get("paymentMethod") : "Credit/Debit Card";
+        String holdId = body.get("holdId") instanceof String ? (String) body.get("holdId") : UUID.randomUUID().toString();
+        double quotedTotal = doubleField(body, "quotedTotal");
+
+        BookingService.BookingResult result = service.book(user, flightId, fareClass, persons, children, seats, paymentMethod,
+                holdOwner(user, holdId), quotedTotal);
+        if (result.status != BookingService.BookingResult.Status.PRICE_CHANGED) forgetHold(user, flightId, holdId); // book() released it
+        switch (result.status) {
+            case CONFIRMED:
+                return bookingJson(result.booking);
+            case SEATS_UNAVAILABLE:
+                throw new ApiException(409, "One or more seats are not available.");
+            case FLIGHT_CANCELED:
+                throw new ApiException(409, "Flight is canceled.");
+            case PRICE_CHANGED: {
+                // Not thrown: the client needs the new quote to confirm again with it
+                Map<String, Object> json = error("The fare changed; nothing was charged. Book again with the new quotedTotal.");
+                json.put("quote", quoteJson(result.quote));
+                return new Response(409, json);
+            }
+            default:
+                throw new ApiException(500, "Booking failed.");
+        }
+    }
+
+    private Object cancel(HttpExchange exchange) throws IOException {
+        AirplaneReservationSystem.User user = authenticate(exchange);
+        String pnr = stringField(jsonBody(exchange), "pnr").toUpperCase();
+        if (!service.cancel(pnr, user)) throw new ApiException(404, "Booking " + pnr + " not found.");
+        return ok();
+    }
+
+    private Object checkIn(HttpExchange exchange) throws IOException {
+        AirplaneReservationSystem.User user = authenticate(exchange);
+        String pnr = stringField(jsonBody(exchange), "pnr").toUpperCase();
+        BookingService.CheckInResult result = service.checkIn(pnr, user);
+        switch (result.status) {
+            case CHECKED_IN:
+            case ALREADY_CHECKED_IN:
+                return bookingJson(result.booking);
+            case NOT_FOUND:
+                throw new ApiException(404, "Booking " + pnr + " not found.");
+            case FLIGHT_CANCELED:
+                throw new ApiException(409, "Flight is canceled.");
+            default:
+                throw new ApiException(500, "Check-in failed.");
+        }
+    }
+
+    // --- Request helpers ---
+
+    private static AirplaneReservationSystem.User authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Basic ")) {
+            String decoded = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+            int colon = decoded.indexOf(':');
+            if (colon > 0) {
+                AirplaneReservationSystem.User user = DatabaseManager.validateUser(decoded.substring(0, colon), decoded.substring(colon + 1));
+                if (user != null) return user;
+            }
+        }
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"booking\"");
+        throw new ApiException(401, "Valid credentials are required.");
+    }
+
+    private AirplaneReservationSystem.Flight requireFlight(int flightId) {
+        AirplaneReservationSystem.Flight flight = service.getFlight(flightId);
+        if (flight == null) throw new ApiException(404, "Flight " + flightId + " not found.");
+        return flight;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static Map<String, Object> jsonBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (text.trim().isEmpty()) return new HashMap<>();
+            Object parsed = Json.parse(text);
+            if (!(parsed instanceof Map)) throw new IllegalArgumentException("Request body must be a JSON object.");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) parsed;
+            return map;
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        if (value == null) throw new IllegalArgumentException(name + " is required.");
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number.");
+        }
+    }
+
+    private static int intField(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        if (v instanceof Number) return ((Number) v).intValue();
+        return parseInt(v instanceof String ? (String) v : null, name);
+    }
+
+    private static double doubleField(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        if (v instanceof Number) return ((Number) v).doubleValue();
+        if (!(v instanceof String)) throw new IllegalArgumentException(name + " is required.");
+        try {
+            return Double.parseDouble(((String) v).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number.");
+        }
+    }
+
+    private static String stringField(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        if (!(v instanceof String) || ((String) v).trim().isEmpty()) throw new IllegalArgumentException(name + " is required.");
+        return ((String) v).trim();
+    }
+
+    private static Set<String> seatsField(Map<String, Object> body) {
+        Object v = body.get("seats");
+        if (!(v instanceof List) || ((List<?>) v).isEmpty()) throw new IllegalArgumentException("seats must be a non-empty array.");
+        Set<String> seats = new LinkedHashSet<>();
+        for (Object seat : (List<?>) v) {
+            if (!(seat instanceof String) || SeatInventory.encode(((String) seat).toUpperCase()) < 0) {
+                throw new IllegalArgumentException("Invalid seat: " + seat);
+            }
+            seats.add(((String) seat).toUpperCase());
+        }
+        return seats;
+    }
+
+    // --- Response helpers ---
+
+    private static Map<String, Object> flightJson(AirplaneReservationSystem.Flight f) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", f.getId());
+        json.put("route", f.getRoute());
+        json.put("baseFare", f.getBaseFare());
+        json.put("totalSeats", f.getTotalSeats());
+        json.put("availableSeats", f.getAvailableSeats());
+        json.put("status", f.getCurrentStatus().name());
+        return json;
+    }
+
+    private static Map<String, Object> bookingJson(AirplaneReservationSystem.Booking b) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("pnr", b.getPnr());
+        json.put("flightId", b.getFlight().getId());
+        json.put("route", b.getFlight().getRoute());
+        json.put("fareClass", b.getFare().getClassType());
+        json.put("persons", b.getNumPersons());
+        json.put("seats", new ArrayList<>(b.getSelectedSeats()));
+        json.put("totalPrice", b.getTotalPrice());
+        json.put("paymentMethod", b.getPaymentMethod());
+        json.put("checkedIn", b.isCheckedIn());
+        return json;
+    }
+
+    private static Map<String, Object> ok() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("ok", true);
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+
+    // Just enough JSON for this API: objects, arrays, strings, numbers, booleans and null.
+    static final class Json {
+
+        static String write(Object value) {
+            StringBuilder sb = new StringBuilder();
+            write(sb, value);
+            return sb.toString();
+        }
+
+        private static void write(StringBuilder sb, Object value) {
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof String) {
+                writeString(sb, (String) value);
+            } else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else if (value instanceof Map) {
+                sb.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    writeString(sb, String.valueOf(e.getKey()));
+                    sb.append(':');
+                    write(sb, e.getValue());
+                }
+                sb.append('}');
+            } else if (value instanceof Iterable) {
+                sb.append('[');
+                boolean first = true;
+                for (Object item : (Iterable<?>) value) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    write(sb, item);
+                }
+                sb.append(']');
+            } else {
+                writeString(sb, value.toString());
+            }
+        }
+
+        private static void writeString(StringBuilder sb, String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+
+        static Object parse(String text) {
+            Parser p = new Parser(text);
+            Object value = p.value();
+            p.skipWhitespace();
+            if (p.pos != text.length()) throw new IllegalArgumentException("Unexpected trailing JSON at " + p.pos);
+            return value;
+        }
+
+        private static final class Parser {
+            private final String s;
+            private int pos = 0;
+
+            Parser(String s) {
+                this.s = s;
+            }
+
+            Object value() {
+                skipWhitespace();
+                if (pos >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+                char c = s.charAt(pos);
+                if (c == '{') return object();
+                if (c == '[') return array();
+                if (c == '"') return string();
+                if (s.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+                if (s.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+                if (s.startsWith("null", pos)) { pos += 4; return null; }
+                return number();
+            }
+
+            private Map<String, Object> object() {
+                Map<String, Object> map = new LinkedHashMap<>();
+                pos++; // {
+                skipWhitespace();
+                if (peek() == '}') { pos++; return map; }
+                while (true) {
+                    skipWhitespace();
+                    String key = string();
+                    skipWhitespace();
+                    expect(':');
+                    map.put(key, value());
+                    skipWhitespace();
+                    if (peek() == ',') { pos++; continue; }
+                    expect('}');
+                    return map;
+                }
+            }
+
+            private List<Object> array() {
+                List<Object> list = new ArrayList<>();
+                pos++; // [
+                skipWhitespace();
+                if (peek() == ']') { pos++; return list; }
+                while (true) {
+                    list.add(value());
+                    skipWhitespace();
+                    if (peek() == ',') { pos++; continue; }
+                    expect(']');
+                    return list;
+                }
+            }
+
+            private String string() {
+                expect('"');
+                StringBuilder sb = new StringBuilder();
+                while (true) {
+                    if (pos >= s.length()) throw new IllegalArgumentException("Unterminated JSON string");
+                    char c = s.charAt(pos++);
+                    if (c == '"') return sb.toString();
+                    if (c != '\\') { sb.append(c); continue; }
+                    if (pos >= s.length()) throw new IllegalArgumentException("Unterminated JSON string");
+                    char esc = s.charAt(pos++);
+                    switch (esc) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > s.length()) throw new IllegalArgumentException("Truncated \\u escape at " + pos);
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16)); // NumberFormatException: 400 too
+                            pos += 4;
+                            break;
+                        default: sb.append(esc);
+                    }
+                }
+            }
+
+            private Number number() {
+                int start = pos;
+                while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+                String n = s.substring(start, pos);
+                if (n.isEmpty()) throw new IllegalArgumentException("Invalid JSON at " + start);
+                try {
+                    if (n.contains(".") || n.contains("e") || n.contains("E")) return Double.parseDouble(n);
+                    return Long.parseLong(n);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid JSON number: " + n);
+                }
+            }
+
+            private char peek() {
+                if (pos >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+                return s.charAt(pos);
+            }
+
+            private void expect(char c) {
+                if (peek() != c) throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+                pos++;
+            }
+
+            void skipWhitespace() {
+                while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Booking operations shared by the Swing client and the HTTP API (BookingHttpServer).
+// Implementations keep no per-user state: everything a call needs (user, flight, seats, hold owner)
+// is passed in, so one instance can serve any number of sessions concurrently.
+// Calls may block on the database; the Swing client invokes them off the EDT.
+public interface BookingService {
+
+    // Fare classes offered for every flight, with their price multipliers (see FareRules)
+    Map<String, Double> FARE_CLASSES = FareRules.FARE_CLASSES;
+
+    class Quote {
+        public final AirplaneReservationSystem.Flight flight;
+        public final AirplaneReservationSystem.Fare fare;
+        public final int persons;      // all passengers, children included
+        public final int children;
+        public final double fares;     // after child and group discounts
+        public final double discount;  // total taken off the full adult fares
+        public final double taxes;     // VAT plus per-passenger fees
+        public final double totalPrice;
+
+        public Quote(AirplaneReservationSystem.Flight flight, AirplaneReservationSystem.Fare fare, int persons, int children,
+                     double fares, double discount, double taxes, double totalPrice) {
+            this.flight = flight;
+            this.fare = fare;
+            this.persons = persons;
+            this.children = children;
+            this.fares = fares;
+            this.discount = discount;
+            this.taxes = taxes;
+            this.totalPrice = totalPrice;
+        }
+    }
+
+    class BookingResult {
+        public enum Status { CONFIRMED, SEATS_UNAVAILABLE, FLIGHT_CANCELED, PRICE_CHANGED, FAILED }
+
+        public final Status status;
+        public final AirplaneReservationSystem.Booking booking; // CONFIRMED only
+        public final AirplaneReservationSystem.Flight latestFlight; // current seat state when seats were lost
+        public final Quote quote; // the price charged (CONFIRMED) or the new price (PRICE_CHANGED)
+
+        BookingResult(Status status, AirplaneReservationSystem.Booking booking, AirplaneReservationSystem.Flight latestFlight) {
+            this(status, booking, latestFlight, null);
+        }
+
+        BookingResult(Status status, AirplaneReservationSystem.Booking booking, AirplaneReservationSystem.Flight latestFlight, Quote quote) {
+            this.status = status;
+            this.booking = booking;
+            this.latestFlight = latestFlight;
+            this.quote = quote;
+        }
+    }
+
+    class CheckInResult {
+        public enum Status { CHECKED_IN, ALREADY_CHECKED_IN, NOT_FOUND, FLIGHT_CANCELED, FAILED }
+
+        public final Status status;
+        public final AirplaneReservationSystem.Booking booking; // null when NOT_FOUND
+
+        CheckInResult(Status status, AirplaneReservationSystem.Booking booking) {
+            this.status = status;
+            this.booking = booking;
+        }
+    }
+
+    // Flights of one type (local = true / international = false, null = both) whose route contains
+    // routeQuery, ignoring case (null or empty = all).
+    List<AirplaneReservationSystem.Flight> searchFlights(Boolean local, String routeQuery);
+
+    AirplaneReservationSystem.Flight getFlight(int flightId);
+
+    AirplaneReservationSystem.Flight getFlightByRoute(String route);
+
+    // Prices persons seats of fareClass (a FARE_CLASSES key), children of them at the child fare, from the
+    // in-memory FareRules tables. Throws IllegalArgumentException for an unknown fare class or an impossible
+    // passenger count.
+    Quote quote(AirplaneReservationSystem.Flight flight, String fareClass, int persons, int children);
+
+    default Quote quote(AirplaneReservationSystem.Flight flight, String fareClass, int persons) {
+        return quote(flight, fareClass, persons, 0);
+    }
+
+    // Prices every flight (e.g. a searchFlights() result) in one call; quotes are in the order of flights.
+    List<Quote> bulkQuote(List<AirplaneReservationSystem.Flight> flights, String fareClass, int persons, int children);
+
+    // Temporarily holds seats for holdOwner (see SeatHoldService). Returns false if any seat is taken.
+    boolean holdSeats(int flightId, Set<String> seats, String holdOwner);
+
+    void releaseHold(int flightId, String holdOwner);
+
+    // Books the seats at the quote(flight, fareClass, persons, children) price, provided it still equals
+    // quotedTotal (the total the customer was shown); otherwise nothing is charged and PRICE_CHANGED carries the
+    // new quote, with the hold kept so the customer can accept it. The hold taken with holdSeats() normally
+    // guarantees the seats; if it has expired they are re-checked and held again before the booking is written.
+    BookingResult book(AirplaneReservationSystem.User user, int flightId, String fareClass, int persons, int children,
+                       Set<String> seats, String paymentMethod, String holdOwner, double quotedTotal);
+
+    // Cancels one of user's bookings. Returns false if it does not exist or belongs to someone else.
+    boolean cancel(String pnr, AirplaneReservationSystem.User user);
+
+    // Checks in one of user's bookings; bookings of other users are reported as NOT_FOUND.
+    CheckInResult checkIn(String pnr, AirplaneReservationSystem.User user);
+}
@@ -0,0 +1,369 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Answers chat messages for the assistant panel.
+// Intents are recognized in one pass over the message by an Aho-Corasick automaton compiled from every
+// keyword and synonym below; matches must sit on word boundaries, and the highest-priority intent wins.
+// PNRs and airports are then extracted from the text after the keyword. Answers that need a lookup run on
+// AsyncDatabase's executor (virtual threads on JDK 21+) and are cut off after REPLY_TIMEOUT_MS. Route answers
+// are kept for CACHE_TTL_MS so a repeated question is answered without another lookup; booking answers are not,
+// since a check-in or seat change would leave them stale.
+public class ChatbotEngine {
+
+    private static final long CACHE_TTL_MS = Long.getLong("airplane.chatbot.cacheMillis", 30000);
+    private static final int CACHE_ENTRIES = 256;
+    private static final long REPLY_TIMEOUT_MS = 10000;
+    private static final String PREFIX = "🤖 AI Assistant: ";
+
+    private static final Metrics.Timer RESPOND = Metrics.timer("chatbot.respond");
+
+    // In priority order: when several match, the first one listed wins
+    enum Intent { GREETING, CONNECTIONS, FLIGHTS_TO, BOOKING_STATUS, CANCEL_BOOKING, THANKS, HELP, UNKNOWN }
+
+    private static final Map<String, Intent> KEYWORDS = new LinkedHashMap<>();
+    static {
+        for (String k : new String[] {"hello", "hi", "hey", "good morning", "good afternoon", "good evening"}) KEYWORDS.put(k, Intent.GREETING);
+        for (String k : new String[] {"flights from", "flight from", "fly from", "flying from", "connections from",
+                "connecting flights from"}) KEYWORDS.put(k, Intent.CONNECTIONS);
+        for (String k : new String[] {"flights to", "flight to", "fly to", "flying to", "going to", "trip to"}) KEYWORDS.put(k, Intent.FLIGHTS_TO);
+        for (String k : new String[] {"booking status", "status of booking", "status of my booking", "check booking",
+                "pnr status", "where is my booking"}) KEYWORDS.put(k, Intent.BOOKING_STATUS);
+        for (String k : new String[] {"cancel booking", "cancel my booking", "cancel pnr", "refund"}) KEYWORDS.put(k, Intent.CANCEL_BOOKING);
+        for (String k : new String[] {"thank you", "thanks", "thx", "salamat"}) KEYWORDS.put(k, Intent.THANKS);
+        for (String k : new String[] {"help", "what can you do", "options"}) KEYWORDS.put(k, Intent.HELP);
+    }
+
+    private static final KeywordMatcher MATCHER = new KeywordMatcher(KEYWORDS);
+
+    // --- Aho-Corasick automaton ---
+
+    static final class KeywordMatcher {
+        private static class State {
+            final Map<Character, State> next = new HashMap<>();
+            State fail;
+            String keyword;       // keyword ending exactly here, or null
+            State output;         // nearest state along fail links that ends a keyword
+        }
+
+        static final class Match {
+            final String keyword;
+            final Intent intent;
+            final int start, end; // [start, end) in the searched text
+
+            Match(String keyword, Intent intent, int start, int end) {
+                this.keyword = keyword;
+                this.intent = intent;
+                this.start = start;
+                this.end = end;
+            }
+        }
+
+        private final State root = new State();
+        private final Map<String, Intent> intents;
+
+        KeywordMatcher(Map<String, Intent> keywords) {
+            this.intents = keywords;
+            for (String keyword : keywords.keySet()) {
+                State s = root;
+                for (int i = 0; i < keyword.length(); i++) {
+                    s = s.next.computeIfAbsent(keyword.charAt(i), c -> new State());
+                }
+                s.keyword = keyword;
+            }
+            // Breadth-first: a state's fail link is the longest proper suffix of its path that is also a path
+            Queue<State> queue = new ArrayDeque<>();
+            root.fail = root;
+            for (State child : root.next.values()) {
+                child.fail = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                State s = queue.remove();
+                s.output = s.fail.keyword != null ? s.fail : s.fail.output;
+                for (Map.Entry<Character, State> e : s.next.entrySet()) {
+                    State f = s.fail;
+                    while (f != root && !f.next.containsKey(e.getKey())) f = f.fail;
+                    State target = f.next.get(e.getKey());
+                    e.getValue().fail = target != null && target != e.getValue() ? target : root;
+                    queue.add(e.getValue());
+                }
+            }
+        }
+
+        // All whole-word keyword occurrences in text (already lower case), in order of their end
+        List<Match> findAll(String text) {
+            List<Match> matches = new ArrayList<>();
+            State s = root;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (s != root && !s.next.containsKey(c)) s = s.fail;
+                s = s.next.getOrDefault(c, root);
+                for (State out = s.keyword != null ? s : s.output; out != null; out = out.output) {
+                    int start = i + 1 - out.keyword.length();
+                    if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                        matches.add(new Match(out.keyword, intents.get(out.keyword), start, i + 1));
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private static boolean isBoundary(String text, int index) {
+            return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+        }
+    }
+
+    // --- Parsing ---
+
+    static final class Parsed {
+        final Intent intent;
+        final String pnr;         // BOOKING_STATUS, CANCEL_BOOKING
+        final String origin;      // CONNECTIONS
+        final String destination; // CONNECTIONS, FLIGHTS_TO
+
+        Parsed(Intent intent, String pnr, String origin, String destination) {
+            this.intent = intent;
+            this.pnr = pnr;
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        // Null for booking intents: those answers change with the booking and the asker, so they aren't cached
+        String cacheKey() {
+            if (intent == Intent.BOOKING_STATUS || intent == Intent.CANCEL_BOOKING) return null;
+            return intent + "|" + origin + "|" + destination;
+        }
+    }
+
+    static Parsed parse(String input) {
+        String text = input.trim().toLowerCase();
+        KeywordMatcher.Match best = null;
+        for (KeywordMatcher.Match m : MATCHER.findAll(text)) {
+            if (m.intent == Intent.GREETING && m.start != 0) continue; // only as an opener
+            if (m.intent == Intent.CONNECTIONS && text.indexOf(" to ", m.end) < 0) continue;
+            if (best == null || m.intent.ordinal() < best.intent.ordinal()) best = m;
+        }
+        if (best == null) return new Parsed(Intent.UNKNOWN, null, null, null);
+
+        String rest = text.substring(best.end);
+        switch (best.intent) {
+            case CONNECTIONS: {
+                int to = rest.lastIndexOf(" to ");
+                return new Parsed(Intent.CONNECTIONS, null, extractAirport(rest.substring(0, to)),
+                        extractAirport(rest.substring(to + " to ".length())));
+            }
+            case FLIGHTS_TO:
+                return new Parsed(Intent.FLIGHTS_TO, null, null, extractAirport(rest));
+            case BOOKING_STATUS:
+            case CANCEL_BOOKING:
+                return new Parsed(best.intent, extractPnr(rest), null, null);
+            default:
+                return new Parsed(best.intent, null, null, null);
+        }
+    }
+
+    // PNRs are 6 letters/digits; prefer a token with a digit ("please abc123"), else the first 6-character one
+    static String extractPnr(String text) {
+        String firstSixChars = null;
+        for (String token : text.split("[^a-z0-9]+")) {
+            if (token.length() != 6) continue;
+            if (token.chars().anyMatch(Character::isDigit)) return token.toUpperCase();
+            if (firstSixChars == null) firstSixChars = token;
+        }
+        return firstSixChars != null ? firstSixChars.toUpperCase() : null;
+    }
+
+    // The longest run of up to 3 leading words that RouteIndex knows as a city or airport code
+    // ("tokyo please" -> "tokyo", "new york city" -> "new york"); otherwise the text without trailing punctuation
+    static String extractAirport(String text) {
+        String[] words = text.trim().split("[^\\p{L}\\p{N}]+");
+        int start = words.length > 0 && words[0].isEmpty() ? 1 : 0;
+        for (int n = Math.min(3, words.length - start); n >= 1; n--) {
+            String candidate = String.join(" ", java.util.Arrays.copyOfRange(words, start, start + n));
+            if (RouteIndex.isAirport(candidate)) return candidate;
+        }
+        return text.trim().replaceAll("[?.!]+$", "").trim();
+    }
+
+    // --- Responses ---
+
+    private static final class Cached {
+        final String reply;
+        final long expiresAt;
+
+        Cached(String reply, long expiresAt) {
+            this.reply = reply;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final LinkedHashMap<String, Cached> cache = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    // The assistant's reply to input, completed on a background thread when it needs a lookup.
+    // Never completes exceptionally: failures and timeouts become an apology.
+    public static CompletableFuture<String> respond(String input, AirplaneReservationSystem.User user) {
+        long startNanos = System.nanoTime();
+        Parsed parsed = parse(input);
+        if (!needsLookup(parsed.intent)) {
+            RESPOND.record(startNanos);
+            return CompletableFuture.completedFuture(answer(parsed, user));
+        }
+
+        String key = parsed.cacheKey();
+        if (key != null) {
+            synchronized (cache) {
+                Cached hit = cache.get(key);
+                if (hit != null && hit.expiresAt > System.currentTimeMillis()) {
+                    RESPOND.record(startNanos);
+                    return CompletableFuture.completedFuture(hit.reply);
+                }
+            }
+        }
+        return AsyncDatabase.supply(() -> answer(parsed, user))
+                .orTimeout(REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .handle((reply, error) -> {
+                    RESPOND.record(startNanos);
+                    if (error != null) {
+                        RESPOND.error();
+                        System.err.println("Chatbot lookup failed: " + error);
+                        return PREFIX + "Sorry, I couldn't look that up right now. Please try again in a moment.";
+                    }
+                    if (key != null) {
+                        synchronized (cache) {
+                            cache.put(key, new Cached(reply, System.currentTimeMillis() + CACHE_TTL_MS));
+                        }
+                    }
+                    return reply;
+                });
+    }
+
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static boolean needsLookup(Intent intent) {
+        switch (intent) {
+            case CONNECTIONS:
+            case FLIGHTS_TO:
+            case BOOKING_STATUS:
+            case CANCEL_BOOKING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Builds the reply; may block on the database for the lookup intents
+    static String answer(Parsed p, AirplaneReservationSystem.User user) {
+        StringBuilder sb = new StringBuilder(PREFIX);
+        switch (p.intent) {
+            case GREETING:
+                sb.append("Hello there! How can I help you today?");
+                break;
+            case CONNECTIONS:
+                appendConnections(sb, p.origin, p.destination);
+                break;
+            case FLIGHTS_TO:
+                appendFlightsTo(sb, p.destination);
+                break;
+            case BOOKING_STATUS:
+                appendBookingStatus(sb, p.pnr, user);
+                break;
+            case CANCEL_BOOKING:
+                appendCancelAdvice(sb, p.pnr, user);
+                break;
+            case THANKS:
+                sb.append("You're welcome! Is there anything else?");
+                break;
+            case HELP:
+                sb.append("I can help you with:\n")
+                        .append("   - Finding flights (e.g., 'flights to Tokyo')\n")
+                        .append("   - Connecting flights (e.g., 'flights from Cebu to Tokyo')\n")
+                        .append("   - Checking booking status (e.g., 'booking status ABC123')\n")
+                        .append("   - Information on how to cancel bookings (e.g., 'cancel booking XYZ789')\n");
+                break;
+            default:
+                sb.append("I'm sorry, I didn't quite understand that. Can you please rephrase or type 'help' for options?");
+        }
+        return sb.toString();
+    }
+
+    private static void appendConnections(StringBuilder sb, String origin, String destination) {
+        sb.append("Searching for flights from ").append(origin).append(" to ").append(destination).append("...\n");
+        // Served from the precomputed itineraries; only the first search loads the route graph
+        List<ConnectionSearch.Itinerary> itineraries = ConnectionSearch.search(origin, destination);
+        for (ConnectionSearch.Itinerary it : itineraries) {
+            int stops = it.legs.size() - 1;
+            sb.append("   - ").append(stops == 0 ? "Direct" : stops + (stops == 1 ? " stop" : " stops")).append(": ")
+                    .append(it.describe()).append(String.format(" (Base Fares: ₱%.2f)", it.totalBaseFare)).append('\n');
+        }
+        if (itineraries.isEmpty()) {
+            sb.append("   Sorry, no direct or connecting flights found from '").append(origin)
+                    .append("' to '").append(destination).append("'.");
+        }
+    }
+
+    private static void appendFlightsTo(StringBuilder sb, String destination) {
+        sb.append("Searching for flights to ").append(destination).append("...\n");
+        // Only hits the database until the route index has seen both flight lists
+        RouteIndex.ensureLoaded();
+        List<RouteIndex.RouteEntry> matches = RouteIndex.findByDestination(destination, 20);
+        for (RouteIndex.RouteEntry entry : matches) {
+            sb.append(String.format("   - %s: %s (Base Fare: ₱%.2f, Status: %s)\n",
+                    entry.local ? "Local" : "International", entry.route, entry.baseFare, entry.status));
+        }
+        if (matches.isEmpty()) {
+            sb.append("   Sorry, no direct flights found for '").append(destination).append("' in our current list.\n")
+                    .append("   For connecting flights, try 'flights from [city] to ").append(destination).append("'.");
+        }
+    }
+
+    // Only the booking's owner sees its details; for anyone else it does not exist, so PNRs can't be probed
+    private static void appendBookingStatus(StringBuilder sb, String pnr, AirplaneReservationSystem.User user) {
+        if (pnr == null) {
+            sb.append("Please include your 6-character PNR, e.g. 'booking status ABC123'.");
+            return;
+        }
+        AirplaneReservationSystem.Booking b = DatabaseManager.getBookingByPnr(pnr);
+        if (b == null || user == null || b.getUser().getUserId() != user.getUserId()) {
+            sb.append("Sorry, PNR ").append(pnr).append(" not found.");
+            return;
+        }
+        AirplaneReservationSystem.Flight f = DatabaseManager.getFlightById(b.getFlight().getId());
+        sb.append("Status for PNR ").append(pnr).append(":\n")
+                .append("   Flight: ").append(b.getFlight().getRoute()).append('\n')
+                .append("   Seats: ").append(String.join(", ", b.getSelectedSeats())).append('\n')
+                .append("   Total Price: ₱").append(b.getTotalPrice()).append('\n')
+                .append("   Checked In: ").append(b.isCheckedIn() ? "Yes" : "No").append('\n')
+                .append("   Flight Status: ").append(f != null ? f.getCurrentStatus() : "N/A");
+    }
+
+    private static void appendCancelAdvice(StringBuilder sb, String pnr, AirplaneReservationSystem.User user) {
+        if (pnr == null) {
+            sb.append("Please include your 6-character PNR, e.g. 'cancel booking XYZ789'.");
+            return;
+        }
+        AirplaneReservationSystem.Booking b = DatabaseManager.getBookingByPnr(pnr);
+        // As in appendBookingStatus, someone else's booking reads as not found
+        if (b == null || user == null || b.getUser().getUserId() != user.getUserId()) {
+            sb.append("Sorry, PNR ").append(pnr).append(" not found.");
+            return;
+        }
+        sb.append("To cancel booking PNR ").append(pnr)
+                .append(", please go to 'My Bookings' and use the cancel option. This ensures proper confirmation.");
+    }
+}
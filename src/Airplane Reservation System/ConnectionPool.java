@@ -0,0 +1,334 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Small bounded JDBC connection pool used behind DatabaseManager.getConnection().
+// Callers keep using try-with-resources: close() on a borrowed connection hands it back to the pool
+// instead of tearing down the physical connection. Works with any JDBC URL (MySQL, or an embedded DB for tests).
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private int totalConnections = 0;
+    private int activeConnections = 0;
+    private boolean shutdown = false;
+
+    // Stats (guarded by lock)
+    private long borrowCount = 0;
+    private long waitCount = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+    private long timeoutCount = 0;
+    private long evictedCount = 0;
+
+    private final java.util.Timer evictionTimer;
+
+    private static class IdleConnection {
+        final Connection physical;
+        final long idleSince;
+        IdleConnection(Connection physical, long idleSince) {
+            this.physical = physical;
+            this.idleSince = idleSince;
+        }
+    }
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis) {
+        if (maxSize < 1) throw new IllegalArgumentException("Pool size must be at least 1");
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = 2;
+
+        this.evictionTimer = new java.util.Timer("db-pool-evictor", true);
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictionTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                evictIdleConnections();
+            }
+        }, period, period);
+    }
+
+    // Borrows a connection, waiting up to the borrow timeout when the pool is exhausted.
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        boolean waited = false;
+
+        while (true) {
+            IdleConnection candidate = null;
+            boolean mayCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) throw new SQLException("Connection pool is shut down.");
+                    candidate = idle.pollFirst();
+                    if (candidate != null) break;
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        mayCreate = true;
+                        break;
+                    }
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection ("
+                                + activeConnections + " active, pool size " + maxSize + ").");
+                    }
+                    waited = true;
+                    try {
+                        remaining = available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+                activeConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            Connection physical;
+            if (mayCreate) {
+                try {
+                    physical = DriverManager.getConnection(url, user, password);
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (isUsable(candidate.physical)) {
+                physical = candidate.physical;
+            } else {
+                // Validation on borrow failed - drop it and try again with the remaining budget.
+                discard(candidate.physical);
+                long elapsed = System.nanoTime() - start;
+                remaining = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis) - elapsed;
+                continue;
+            }
+
+            recordBorrow(waited ? System.nanoTime() - start : 0, waited);
+            return wrap(physical);
+        }
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordBorrow(long waitNanos, boolean waited) {
+        lock.lock();
+        try {
+            borrowCount++;
+            if (waited) {
+                waitCount++;
+                totalWaitNanos += waitNanos;
+                if (waitNanos > maxWaitNanos) maxWaitNanos = waitNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called when a borrowed connection is closed by the caller.
+    private void release(Connection physical) {
+        boolean healthy = true;
+        try {
+            if (physical.isClosed()) {
+                healthy = false;
+            } else if (!physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction.
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        if (!healthy) {
+            discard(physical);
+            return;
+        }
+
+        boolean closeIt = false;
+        lock.lock();
+        try {
+            activeConnections--;
+            if (shutdown) {
+                totalConnections--;
+                closeIt = true;
+            } else {
+                idle.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closeIt) closeQuietly(physical);
+    }
+
+    // Gives back a pool slot for a connection that is broken or could not be opened.
+    private void discard(Connection physical) {
+        lock.lock();
+        try {
+            activeConnections--;
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (physical != null) closeQuietly(physical);
+    }
+
+    void evictIdleConnections() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Deque<Connection> toClose = new ArrayDeque<>();
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail.
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                IdleConnection ic = it.next();
+                if (ic.idleSince > cutoff) break;
+                it.remove();
+                totalConnections--;
+                evictedCount++;
+                toClose.add(ic.physical);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Connection c : toClose) closeQuietly(c);
+    }
+
+    public void shutdown() {
+        evictionTimer.cancel();
+        Deque<Connection> toClose = new ArrayDeque<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (IdleConnection ic : idle) toClose.add(ic.physical);
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Connection c : toClose) closeQuietly(c);
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(physical));
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private Connection physical;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (physical != null) {
+                    Connection c = physical;
+                    physical = null;
+                    release(c);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return physical == null || physical.isClosed();
+            }
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("toString")) return "PooledConnection[" + physical + "]";
+            if (physical == null) throw new SQLException("Connection has already been returned to the pool.");
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // --- Stats ---
+
+    public static class Stats {
+        public final int active;
+        public final int idle;
+        public final int total;
+        public final int maxSize;
+        public final long borrows;
+        public final long waits;
+        public final long timeouts;
+        public final long evicted;
+        public final double avgWaitMillis;
+        public final double maxWaitMillis;
+
+        Stats(int active, int idle, int total, int maxSize, long borrows, long waits, long timeouts, long evicted,
+              double avgWaitMillis, double maxWaitMillis) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.borrows = borrows;
+            this.waits = waits;
+            this.timeouts = timeouts;
+            this.evicted = evicted;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            double avgWait = waitCount == 0 ? 0.0 : (totalWaitNanos / (double) waitCount) / 1_000_000.0;
+            return new Stats(activeConnections, idle.size(), totalConnections, maxSize, borrowCount, waitCount,
+                    timeoutCount, evictedCount, avgWait, maxWaitNanos / 1_000_000.0);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Itineraries of up to MAX_LEGS flights between two airports, for when there is no direct flight.
+// rebuild() loads every flight once, builds a graph of airports (keyed by airport code, or by city when a
+// route has none) with flights as edges, and precomputes the TOP_K cheapest itineraries for every airport pair
+// in parallel on the fork-join pool, one depth-first search per origin. Queries are then map lookups.
+// Consecutive legs must leave at least the minimum connection time after the previous arrival (longer when an
+// international flight is involved) and within MAX_LAYOVER; legs without a schedule are connected as-is.
+// When a flight is CANCELED (FlightStatusChanged), only the pairs whose cached itineraries use it are dropped;
+// those are recomputed from the in-memory graph on their next query. Flights added or rescheduled in the
+// database are picked up by start()'s periodic rebuild, every REBUILD_PERIOD_MS.
+public class ConnectionSearch {
+
+    public static final int MAX_LEGS = Integer.getInteger("airplane.connections.maxLegs", 3);
+    public static final int TOP_K = Integer.getInteger("airplane.connections.topK", 5);
+    public static final long REBUILD_PERIOD_MS = Long.getLong("airplane.connections.rebuildMillis", TimeUnit.MINUTES.toMillis(10));
+
+    // Minimum connection times
+    private static final long MCT_DOMESTIC_MS = TimeUnit.MINUTES.toMillis(45);
+    private static final long MCT_INTERNATIONAL_MS = TimeUnit.MINUTES.toMillis(90); // either leg international
+    private static final long MAX_LAYOVER_MS = TimeUnit.HOURS.toMillis(24);
+    private static final int ORIGINS_PER_TASK = 8;
+
+    private static final Metrics.Timer PRECOMPUTE = Metrics.timer("connections.precompute");
+    private static final Metrics.Timer SEARCH = Metrics.timer("connections.search");
+
+    public static class Leg {
+        public final int flightId;
+        public final String route;
+        public final boolean local;
+        public final double baseFare;
+        public final String from; // airport key
+        public final String to;
+        final long departure; // epoch millis, -1 when not scheduled
+        final long arrival;
+
+        Leg(DatabaseManager.FlightSchedule s, String from, String to) {
+            this.flightId = s.flightId;
+            this.route = s.route;
+            this.local = s.local;
+            this.baseFare = s.baseFare;
+            this.from = from;
+            this.to = to;
+            this.departure = s.departure == null ? -1 : s.departure.getTime();
+            this.arrival = s.arrival == null ? -1 : s.arrival.getTime();
+        }
+
+        boolean connectsTo(Leg next) {
+            if (arrival < 0 || next.departure < 0) return true;
+            long minConnect = local && next.local ? MCT_DOMESTIC_MS : MCT_INTERNATIONAL_MS;
+            long layover = next.departure - arrival;
+            return layover >= minConnect && layover <= MAX_LAYOVER_MS;
+        }
+    }
+
+    public static class Itinerary {
+        public final List<Leg> legs;
+        public final double totalBaseFare;
+
+        Itinerary(List<Leg> legs, double totalBaseFare) {
+            this.legs = legs;
+            this.totalBaseFare = totalBaseFare;
+        }
+
+        boolean betterThan(Itinerary other) {
+            if (totalBaseFare != other.totalBaseFare) return totalBaseFare < other.totalBaseFare;
+            return legs.size() < other.legs.size();
+        }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            for (Leg leg : legs) {
+                if (sb.length() > 0) sb.append(" → ");
+                sb.append(leg.route);
+            }
+            return sb.toString();
+        }
+    }
+
+    // Immutable route graph; canceled flights are filtered through the live canceled set instead
+    private static class Graph {
+        final Map<String, List<Leg>> legsFrom = new HashMap<>();
+        final Map<String, String> airportByName = new HashMap<>(); // normalized city or code -> airport key
+        final Map<String, String> displayName = new HashMap<>();   // airport key -> "Manila (MNL)"
+    }
+
+    private static volatile Graph graph;
+    private static final Set<Integer> canceled = ConcurrentHashMap.newKeySet();
+    // "ORIGIN>DEST" -> cheapest itineraries, and which pairs each flight appears in (for invalidation)
+    private static final ConcurrentHashMap<String, List<Itinerary>> topK = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Set<String>> pairsByFlight = new ConcurrentHashMap<>();
+    // Origins whose pairs are all in topK; an invalidated pair is dropped from here too
+    private static final Set<String> computedOrigins = ConcurrentHashMap.newKeySet();
+    // Bumped, under cacheLock, by every cancel, reinstatement and rebuild. A search publishes its results only if
+    // the generation it started in is still current; otherwise they may use a flight canceled meanwhile.
+    private static final AtomicLong generation = new AtomicLong();
+    private static final Object cacheLock = new Object();
+    private static final Object schedulerLock = new Object();
+    private static ScheduledExecutorService scheduler;
+
+    static {
+        FlightEventBus.subscribeAll(ConnectionSearch::onFlightEvent);
+    }
+
+    private static String airportKey(RouteIndex.Airport a) {
+        return a.code != null ? a.code : RouteIndex.normalize(a.city);
+    }
+
+    private static String pairKey(String origin, String destination) {
+        return origin + ">" + destination;
+    }
+
+    // Loads all flights and precomputes every origin's itineraries; a database call, so keep it off the EDT
+    public static synchronized void rebuild() {
+        long startNanos = System.nanoTime();
+        try {
+            Graph g = new Graph();
+            Set<Integer> nowCanceled = new HashSet<>();
+            for (DatabaseManager.FlightSchedule s : DatabaseManager.getFlightSchedules()) {
+                RouteIndex.Airport[] airports = RouteIndex.parse(s.route);
+                if (airports[0] == null) continue; // no origin, can't be a leg
+                String from = airportKey(airports[0]), to = airportKey(airports[1]);
+                g.legsFrom.computeIfAbsent(from, k -> new ArrayList<>()).add(new Leg(s, from, to));
+                for (RouteIndex.Airport a : airports) {
+                    String key = airportKey(a);
+                    g.airportByName.put(RouteIndex.normalize(a.city), key);
+                    if (a.code != null) g.airportByName.put(a.code.toLowerCase(), key);
+                    g.displayName.putIfAbsent(key, a.toString());
+                }
+                if (s.status == AirplaneReservationSystem.FlightStatus.CANCELED) nowCanceled.add(s.flightId);
+            }
+            synchronized (cacheLock) {
+                generation.incrementAndGet();
+                canceled.clear();
+                canceled.addAll(nowCanceled);
+                topK.clear();
+                pairsByFlight.clear();
+                computedOrigins.clear();
+                graph = g;
+            }
+
+            List<String> origins = new ArrayList<>(g.legsFrom.keySet());
+            ForkJoinPool.commonPool().invoke(new PrecomputeTask(g, origins, 0, origins.size()));
+        } finally {
+            PRECOMPUTE.record(startNanos);
+        }
+    }
+
+    // Splits the origin list until ORIGINS_PER_TASK are left, then searches from each
+    private static class PrecomputeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Graph g;
+        private final List<String> origins;
+        private final int from, to;
+
+        PrecomputeTask(Graph g, List<String> origins, int from, int to) {
+            this.g = g;
+            this.origins = origins;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ORIGINS_PER_TASK) {
+                for (int i = from; i < to; i++) computeOrigin(g, origins.get(i));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PrecomputeTask(g, origins, from, mid), new PrecomputeTask(g, origins, mid, to));
+        }
+    }
+
+    // Depth-first search of all itineraries from origin, keeping the TOP_K best per destination. Returns false
+    // without publishing anything if a cancel, reinstatement or rebuild happened while it searched.
+    private static boolean computeOrigin(Graph g, String origin) {
+        long startGeneration = generation.get(); // read before the search looks at canceled
+        Map<String, List<Itinerary>> best = new HashMap<>();
+        List<Leg> path = new ArrayList<>(MAX_LEGS);
+        Set<String> visited = new HashSet<>();
+        visited.add(origin);
+        extend(g, origin, path, 0.0, visited, best);
+        synchronized (cacheLock) {
+            if (generation.get() != startGeneration || graph != g) return false;
+            for (Map.Entry<String, List<Itinerary>> e : best.entrySet()) {
+                String pair = pairKey(origin, e.getKey());
+                topK.put(pair, Collections.unmodifiableList(e.getValue()));
+                for (Itinerary it : e.getValue()) {
+                    for (Leg leg : it.legs) pairsByFlight.computeIfAbsent(leg.flightId, id -> ConcurrentHashMap.newKeySet()).add(pair);
+                }
+            }
+            computedOrigins.add(origin);
+            return true;
+        }
+    }
+
+    private static void extend(Graph g, String at, List<Leg> path, double fare, Set<String> visited,
+                               Map<String, List<Itinerary>> best) {
+        if (path.size() == MAX_LEGS) return;
+        Leg last = path.isEmpty() ? null : path.get(path.size() - 1);
+        for (Leg leg : g.legsFrom.getOrDefault(at, Collections.emptyList())) {
+            if (visited.contains(leg.to) || canceled.contains(leg.flightId)) continue;
+            if (last != null && !last.connectsTo(leg)) continue;
+            path.add(leg);
+            offer(best.computeIfAbsent(leg.to, k -> new ArrayList<>(TOP_K + 1)),
+                    new Itinerary(new ArrayList<>(path), fare + leg.baseFare));
+            visited.add(leg.to);
+            extend(g, leg.to, path, fare + leg.baseFare, visited, best);
+            visited.remove(leg.to);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    // Inserts into a list kept sorted best-first and capped at TOP_K
+    private static void offer(List<Itinerary> list, Itinerary it) {
+        int i = list.size();
+        while (i > 0 && it.betterThan(list.get(i - 1))) i--;
+        if (i >= TOP_K) return;
+        list.add(i, it);
+        if (list.size() > TOP_K) list.remove(TOP_K);
+    }
+
+    private static void onFlightEvent(FlightEventBus.FlightEvent event) {
+        if (!(event instanceof FlightStatusEngine.FlightStatusChanged)) return;
+        FlightStatusEngine.FlightStatusChanged change = (FlightStatusEngine.FlightStatusChanged) event;
+        if (change.newStatus == AirplaneReservationSystem.FlightStatus.CANCELED) {
+            synchronized (cacheLock) {
+                generation.incrementAndGet();
+                canceled.add(change.flightId);
+                Set<String> pairs = pairsByFlight.remove(change.flightId);
+                if (pairs != null) {
+                    for (String pair : pairs) {
+                        topK.remove(pair);
+                        computedOrigins.remove(pair.substring(0, pair.indexOf('>')));
+                    }
+                }
+            }
+        } else if (change.oldStatus == AirplaneReservationSystem.FlightStatus.CANCELED) {
+            // Reinstated: it may now belong in any pair, so recompute everything lazily
+            synchronized (cacheLock) {
+                generation.incrementAndGet();
+                canceled.remove(change.flightId);
+                computedOrigins.clear();
+                topK.clear();
+                pairsByFlight.clear();
+            }
+        }
+    }
+
+    // Builds the graph now and again every REBUILD_PERIOD_MS on a daemon thread, so flights added or rescheduled
+    // in the database show up in connections
+    public static void start() {
+        synchronized (schedulerLock) {
+            if (scheduler != null) return;
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "connection-rebuild");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    // An uncaught exception would cancel all future runs
+                    System.err.println("Connection rebuild failed: " + e.getMessage());
+                }
+            }, 0, REBUILD_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static void stop() {
+        synchronized (schedulerLock) {
+            if (scheduler == null) return;
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Airport key for a city name or airport code, or null if no route uses it
+    public static String resolveAirport(String name) {
+        Graph g = graph;
+        return g == null ? null : g.airportByName.get(RouteIndex.normalize(name));
+    }
+
+    public static String displayName(String airportKey) {
+        Graph g = graph;
+        String name = g == null ? null : g.displayName.get(airportKey);
+        return name != null ? name : airportKey;
+    }
+
+    public static boolean isBuilt() {
+        return graph != null;
+    }
+
+    // Cheapest itineraries (direct flights included) from origin to destination, each given as city or code.
+    // Builds the graph on first use; after that, answers from memory.
+    public static List<Itinerary> search(String origin, String destination) {
+        if (graph == null) rebuild();
+        long startNanos = System.nanoTime();
+        try {
+            String from = resolveAirport(origin), to = resolveAirport(destination);
+            if (from == null || to == null || from.equals(to)) return Collections.emptyList();
+            String pair = pairKey(from, to);
+            List<Itinerary> cached = topK.get(pair);
+            // A few tries: a search that raced a cancel or rebuild publishes nothing and is redone
+            for (int attempt = 0; cached == null && !computedOrigins.contains(from) && attempt < 3; attempt++) {
+                computeOrigin(graph, from);
+                cached = topK.get(pair);
+            }
+            return cached != null ? cached : Collections.emptyList();
+        } finally {
+            SEARCH.record(startNanos);
+        }
+    }
+}
@@ -1,7 +1,12 @@
+import java.security.SecureRandom;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DatabaseManager {
@@ -11,65 +16,175 @@ public class DatabaseManager {
     private static final String DB_PASSWORD = ""; // Replace with your DB password
     // --- END OF CONFIGURATION ---
 
-    private static Connection connection;
+    // --- CONNECTION POOL SETTINGS ---
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_BORROW_TIMEOUT_MS = 5000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 60000;
 
-    // Establishes connection to the database
+    // --- METRICS (see Metrics and the admin Performance tab) ---
+    // One timer per database operation. Cache hits in getFlightById/getFlightByRoute return before
+    // the timer starts, so those two measure actual database loads.
+    private static final Metrics.Timer DB_GET_CONNECTION = Metrics.timer("db.getConnection");
+    private static final Metrics.Timer DB_GET_AUDIT_LOGS = Metrics.timer("db.getAuditLogs");
+    private static final Metrics.Timer DB_REGISTER_USER = Metrics.timer("db.registerUser");
+    private static final Metrics.Timer DB_VALIDATE_USER = Metrics.timer("db.validateUser");
+    private static final Metrics.Timer DB_UPDATE_LOYALTY_POINTS = Metrics.timer("db.updateUserLoyaltyPoints");
+    private static final Metrics.Timer DB_GET_FLIGHTS = Metrics.timer("db.getFlights");
+    private static final Metrics.Timer DB_GET_FLIGHT_BY_ROUTE = Metrics.timer("db.getFlightByRoute");
+    private static final Metrics.Timer DB_GET_FLIGHT_BY_ID = Metrics.timer("db.getFlightById");
+    private static final Metrics.Timer DB_UPDATE_FLIGHT_STATUS = Metrics.timer("db.updateFlightStatus");
+    private static final Metrics.Timer DB_GET_FLIGHT_STATUSES = Metrics.timer("db.getFlightStatuses");
+    private static final Metrics.Timer DB_UPDATE_FLIGHT_STATUSES = Metrics.timer("db.updateFlightStatuses");
+    private static final Metrics.Timer DB_CREATE_BOOKING = Metrics.timer("db.createBooking");
+    private static final Metrics.Timer DB_LOAD_RESERVED_SEATS = Metrics.timer("db.loadReservedSeatBits");
+    private static final Metrics.Timer DB_GET_USER_BOOKINGS = Metrics.timer("db.getUserBookings");
+    private static final Metrics.Timer DB_GET_SEATS_FOR_BOOKING = Metrics.timer("db.getSeatsForBooking");
+    private static final Metrics.Timer DB_GET_USER_BOOKING_PNRS = Metrics.timer("db.getUserBookingPnrs");
+    private static final Metrics.Timer DB_CANCEL_BOOKING = Metrics.timer("db.cancelBooking");
+    private static final Metrics.Timer DB_UPDATE_CHECK_IN = Metrics.timer("db.updateCheckInStatus");
+    private static final Metrics.Timer DB_GET_BOOKING_BY_PNR = Metrics.timer("db.getBookingByPnr");
+    private static final Metrics.Timer DB_GET_DASHBOARD_STATS = Metrics.timer("db.getDashboardStats");
+    private static final Metrics.Timer DB_COMPUTE_DASHBOARD_STATS = Metrics.timer("db.computeDashboardStats");
+    private static final Metrics.Timer DB_RECONCILE_DASHBOARD_STATS = Metrics.timer("db.reconcileDashboardStats");
+    private static final Metrics.Timer DB_GET_TOTAL_BOOKINGS = Metrics.timer("db.getTotalBookingsCount");
+    private static final Metrics.Timer DB_GET_TOTAL_REVENUE = Metrics.timer("db.getTotalRevenue");
+    private static final Metrics.Timer DB_GET_TOTAL_CHECKED_IN = Metrics.timer("db.getTotalCheckedInCount");
+    private static final Metrics.Timer DB_GET_OVERALL_OCCUPANCY = Metrics.timer("db.getOverallOccupancy");
+    private static final Metrics.Timer DB_LEASE_PNR_BLOCK = Metrics.timer("db.leasePnrBlock");
+    private static final Metrics.Timer DB_CHECK_PNR_EXISTS = Metrics.timer("db.checkPnrExists");
+    private static final Metrics.Timer DB_FIND_DOUBLE_SOLD_SEATS = Metrics.timer("db.findDoubleSoldSeats");
+    private static final Metrics.Timer DB_GET_PRICING_INPUTS = Metrics.timer("db.getPricingInputs");
+    private static final Metrics.Timer DB_GET_FLIGHT_SCHEDULES = Metrics.timer("db.getFlightSchedules");
+
+    private static ConnectionPool pool;
+
+    // Points the pool at a different database (e.g. an embedded DB in tests). Must be called before first use.
+    public static synchronized void configure(String url, String user, String password) {
+        closeConnection();
+        pool = new ConnectionPool(url, user, password, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS);
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS);
+        }
+        return pool;
+    }
+
+    // Borrows a pooled connection. Closing it (e.g. via try-with-resources) returns it to the pool.
+    // Statements run on it are traced per SQL template (see StatementTracer).
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            } catch (SQLException e) {
-                System.err.println("Database connection error: " + e.getMessage());
-                throw e; // Re-throw to be handled by caller
-            }
+        long startNanos = System.nanoTime();
+        try {
+            return StatementTracer.wrap(getPool().borrow());
+        } catch (SQLException e) {
+            DB_GET_CONNECTION.error();
+            System.err.println("Database connection error: " + e.getMessage());
+            throw e; // Re-throw to be handled by caller
+        } finally {
+            DB_GET_CONNECTION.record(startNanos);
         }
-        return connection;
     }
 
-    // Closes the database connection
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null; // Reset connection
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
+    // Shuts down the pool and closes all idle connections
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
     }
 
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    // --- AUDIT LOG WRITER SETTINGS ---
+    private static final int AUDIT_QUEUE_CAPACITY = 10000;
+
+    private static AuditLogWriter auditWriter;
+
+    public static synchronized AuditLogWriter getAuditWriter() {
+        if (auditWriter == null) {
+            auditWriter = new AuditLogWriter(AUDIT_QUEUE_CAPACITY, AuditLogWriter.BackpressurePolicy.fromSystemProperty());
+        }
+        return auditWriter;
+    }
+
+    // Queues the entry for the background writer; returns immediately.
     public static void addAuditLogEntry(String message, String username) {
-        String sql = "INSERT INTO audit_log (message, username) VALUES (?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, message);
-            pstmt.setString(2, username);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error adding audit log: " + e.getMessage());
+        getAuditWriter().enqueue(message, username);
+    }
+
+    // Flushes queued audit entries to the database. Call before closeConnection() on shutdown.
+    public static void shutdownAuditLog(long timeoutMillis) {
+        AuditLogWriter writer;
+        synchronized (DatabaseManager.class) {
+            writer = auditWriter;
+            auditWriter = null;
+        }
+        // Outside the lock: the writer thread still needs getConnection() while it drains
+        if (writer != null) {
+            writer.shutdown(timeoutMillis);
+        }
+    }
+
+    public static class AuditLogEntry {
+        public final long id;
+        public final String text;
+        AuditLogEntry(long id, String text) {
+            this.id = id;
+            this.text = text;
         }
     }
 
     public static List<String> getAuditLogs() {
         List<String> logs = new ArrayList<>();
-        String sql = "SELECT log_timestamp, message, username FROM audit_log ORDER BY log_timestamp DESC LIMIT 200";
+        for (AuditLogEntry entry : getAuditLogsBefore(Long.MAX_VALUE, 200)) {
+            logs.add(entry.text);
+        }
+        return logs;
+    }
+
+    // Keyset pagination over audit_log's primary key; neither query's cost depends on table size.
+    // Newer than afterId, oldest first (for tailing).
+    public static List<AuditLogEntry> getAuditLogsAfter(long afterId, int limit) {
+        String sql = "SELECT log_id, log_timestamp, message, username FROM audit_log WHERE log_id > ? ORDER BY log_id ASC LIMIT ?";
+        return queryAuditLogs(sql, afterId, limit);
+    }
+
+    // Older than beforeId, newest first (for paging back while scrolling).
+    public static List<AuditLogEntry> getAuditLogsBefore(long beforeId, int limit) {
+        String sql = "SELECT log_id, log_timestamp, message, username FROM audit_log WHERE log_id < ? ORDER BY log_id DESC LIMIT ?";
+        return queryAuditLogs(sql, beforeId, limit);
+    }
+
+    private static List<AuditLogEntry> queryAuditLogs(String sql, long cursorId, int limit) {
+        List<AuditLogEntry> logs = new ArrayList<>();
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                logs.add(String.format("%s - %s (User: %s)",
-                        rs.getTimestamp("log_timestamp").toString(),
-                        rs.getString("message"),
-                        rs.getString("username") == null ? "System" : rs.getString("username")));
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, cursorId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(new AuditLogEntry(rs.getLong("log_id"), String.format("%s - %s (User: %s)",
+                            rs.getTimestamp("log_timestamp").toString(),
+                            rs.getString("message"),
+                            rs.getString("username") == null ? "System" : rs.getString("username"))));
+                }
             }
         } catch (SQLException e) {
+            DB_GET_AUDIT_LOGS.error();
             System.err.println("Error fetching audit logs: " + e.getMessage());
+        } finally {
+            DB_GET_AUDIT_LOGS.record(startNanos);
         }
         return logs;
     }
 
     public static AirplaneReservationSystem.User validateUser(String username, String password) {
         String sql = "SELECT user_id, username, role, loyalty_points FROM users WHERE username = ? AND password = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
@@ -89,22 +204,29 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            DB_VALIDATE_USER.error();
             System.err.println("Error validating user: " + e.getMessage());
+        } finally {
+            DB_VALIDATE_USER.record(startNanos);
         }
         return null;
     }
 
     public static boolean registerUser(String username, String password, AirplaneReservationSystem.Role role) {
         String checkSql = "SELECT user_id FROM users WHERE username = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement checkPstmt = conn.prepareStatement(checkSql)) {
             checkPstmt.setString(1, username);
             try (ResultSet rs = checkPstmt.executeQuery()) {
                 if (rs.next()) {
+                    DB_REGISTER_USER.record(startNanos);
                     return false;
                 }
             }
         } catch (SQLException e) {
+            DB_REGISTER_USER.error();
+            DB_REGISTER_USER.record(startNanos);
             System.err.println("Error checking username existence: " + e.getMessage());
             return false;
         }
@@ -118,20 +240,27 @@ public class DatabaseManager {
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
         } catch (SQLException e) {
+            DB_REGISTER_USER.error();
             System.err.println("Error registering user: " + e.getMessage());
+        } finally {
+            DB_REGISTER_USER.record(startNanos);
         }
         return false;
     }
 
     public static void updateUserLoyaltyPoints(int userId, int points) {
         String sql = "UPDATE users SET loyalty_points = ? WHERE user_id = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, points);
             pstmt.setInt(2, userId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
+            DB_UPDATE_LOYALTY_POINTS.error();
             System.err.println("Error updating loyalty points: " + e.getMessage());
+        } finally {
+            DB_UPDATE_LOYALTY_POINTS.record(startNanos);
         }
     }
 
@@ -139,6 +268,7 @@ public class DatabaseManager {
         List<AirplaneReservationSystem.Flight> flights = new ArrayList<>();
         String flightType = isLocal ? "LOCAL" : "INTERNATIONAL";
         String sql = "SELECT flight_id, route, base_fare, total_seats, current_status FROM flights WHERE flight_type = ? ORDER BY route";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, flightType);
@@ -154,14 +284,31 @@ public class DatabaseManager {
                     flights.add(flight);
                 }
             }
+            RouteIndex.sync(flights, isLocal);
         } catch (SQLException e) {
+            DB_GET_FLIGHTS.error();
             System.err.println("Error fetching flights: " + e.getMessage());
+        } finally {
+            DB_GET_FLIGHTS.record(startNanos);
         }
         return flights;
     }
 
+    // Builds a Flight from the catalog cache; seat occupancy comes from SeatInventory, so no query runs.
+    private static AirplaneReservationSystem.Flight fromCache(FlightCatalogCache.Entry e) {
+        AirplaneReservationSystem.Flight flight = new AirplaneReservationSystem.Flight(e.id, e.route, e.baseFare, e.totalSeats);
+        flight.setCurrentStatus(e.status);
+        flight.setReservedSeatBits(getReservedSeatBits(e.id));
+        return flight;
+    }
+
     public static AirplaneReservationSystem.Flight getFlightByRoute(String route) {
+        FlightCatalogCache.Entry cached = FlightCatalogCache.getByRoute(route);
+        if (cached != null) return fromCache(cached);
+        long cacheStamp = FlightCatalogCache.stamp();
+
         String sql = "SELECT flight_id, route, base_fare, total_seats, current_status FROM flights WHERE route = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, route);
@@ -174,18 +321,27 @@ public class DatabaseManager {
                             rs.getInt("total_seats")
                     );
                     flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status")));
-                    flight.setReservedSeats(getReservedSeatsForFlight(flight.getId()));
+                    flight.setReservedSeatBits(getReservedSeatBits(flight.getId()));
+                    FlightCatalogCache.put(flight, cacheStamp);
                     return flight;
                 }
             }
         } catch (SQLException e) {
+            DB_GET_FLIGHT_BY_ROUTE.error();
             System.err.println("Error fetching flight by route: " + e.getMessage());
+        } finally {
+            DB_GET_FLIGHT_BY_ROUTE.record(startNanos);
         }
         return null;
     }
 
     public static AirplaneReservationSystem.Flight getFlightById(int flightId) {
+        FlightCatalogCache.Entry cached = FlightCatalogCache.getById(flightId);
+        if (cached != null) return fromCache(cached);
+        long cacheStamp = FlightCatalogCache.stamp();
+
         String sql = "SELECT flight_id, route, base_fare, total_seats, current_status FROM flights WHERE flight_id = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, flightId);
@@ -198,48 +354,198 @@ public class DatabaseManager {
                             rs.getInt("total_seats")
                     );
                     flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status")));
-                    flight.setReservedSeats(getReservedSeatsForFlight(flight.getId()));
+                    flight.setReservedSeatBits(getReservedSeatBits(flight.getId()));
+                    FlightCatalogCache.put(flight, cacheStamp);
                     return flight;
                 }
             }
         } catch (SQLException e) {
+            DB_GET_FLIGHT_BY_ID.error();
             System.err.println("Error fetching flight by ID: " + e.getMessage());
+        } finally {
+            DB_GET_FLIGHT_BY_ID.record(startNanos);
         }
         return null;
     }
 
     public static void updateFlightStatus(int flightId, AirplaneReservationSystem.FlightStatus status) {
+        String selectSql = "SELECT current_status, total_seats FROM flights WHERE flight_id = ? FOR UPDATE";
         String sql = "UPDATE flights SET current_status = ? WHERE flight_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, status.name());
-            pstmt.setInt(2, flightId);
-            pstmt.executeUpdate();
+        Connection conn = null;
+        long startNanos = System.nanoTime();
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            String oldStatus = null;
+            int totalSeats = 0;
+            try (PreparedStatement selPstmt = conn.prepareStatement(selectSql)) {
+                selPstmt.setInt(1, flightId);
+                try (ResultSet rs = selPstmt.executeQuery()) {
+                    if (rs.next()) {
+                        oldStatus = rs.getString("current_status");
+                        totalSeats = rs.getInt("total_seats");
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, status.name());
+                pstmt.setInt(2, flightId);
+                pstmt.executeUpdate();
+            }
+            // Canceled flights don't count towards capacity
+            boolean wasCanceled = "CANCELED".equals(oldStatus);
+            boolean isCanceled = status == AirplaneReservationSystem.FlightStatus.CANCELED;
+            if (oldStatus != null && wasCanceled != isCanceled) {
+                adjustDashboardStats(conn, 0, 0.0, 0, 0, isCanceled ? -totalSeats : totalSeats);
+            }
+            conn.commit();
+            FlightCatalogCache.invalidate(flightId);
+            if (oldStatus != null && !oldStatus.equals(status.name())) {
+                FlightEventBus.publish(new FlightStatusEngine.FlightStatusChanged(flightId,
+                        AirplaneReservationSystem.FlightStatus.valueOf(oldStatus), status));
+            }
         } catch (SQLException e) {
+            DB_UPDATE_FLIGHT_STATUS.error();
             System.err.println("Error updating flight status for flight ID " + flightId + ": " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Rollback failed: " + ex.getMessage());
+                }
+            }
+        } finally {
+            DB_UPDATE_FLIGHT_STATUS.record(startNanos);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
+            }
         }
     }
 
-    public static List<AirplaneReservationSystem.Flight> getAllFlightsForStatusUpdate() {
-        List<AirplaneReservationSystem.Flight> flights = new ArrayList<>();
-        String sql = "SELECT flight_id, route, base_fare, total_seats, current_status FROM flights";
+    // Just the columns the status engine needs; no route, fare or seat occupancy.
+    public static class FlightStatusRow {
+        public final int flightId;
+        public final AirplaneReservationSystem.FlightStatus status;
+
+        FlightStatusRow(int flightId, AirplaneReservationSystem.FlightStatus status) {
+            this.flightId = flightId;
+            this.status = status;
+        }
+    }
+
+    public static List<FlightStatusRow> getFlightStatuses() {
+        List<FlightStatusRow> rows = new ArrayList<>();
+        String sql = "SELECT flight_id, current_status FROM flights";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                AirplaneReservationSystem.Flight flight = new AirplaneReservationSystem.Flight(
-                        rs.getInt("flight_id"),
-                        rs.getString("route"),
-                        rs.getDouble("base_fare"),
-                        rs.getInt("total_seats")
-                );
-                flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status")));
-                flights.add(flight);
+                rows.add(new FlightStatusRow(rs.getInt("flight_id"),
+                        AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status"))));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching all flights for status update: " + e.getMessage());
+            DB_GET_FLIGHT_STATUSES.error();
+            System.err.println("Error fetching flight statuses: " + e.getMessage());
+        } finally {
+            DB_GET_FLIGHT_STATUSES.record(startNanos);
+        }
+        return rows;
+    }
+
+    // Applies many status changes in one transaction with a single UPDATE ... CASE statement.
+    // Rows are locked in flight_id order and re-read, so only real transitions are written and returned;
+    // the capacity counter is adjusted once for the whole batch. Each applied change is published on
+    // FlightEventBus after commit. Returns an empty list on failure.
+    public static List<FlightStatusEngine.FlightStatusChanged> updateFlightStatuses(Map<Integer, AirplaneReservationSystem.FlightStatus> changes) {
+        List<FlightStatusEngine.FlightStatusChanged> applied = new ArrayList<>();
+        if (changes.isEmpty()) return applied;
+
+        String placeholders = String.join(", ", Collections.nCopies(changes.size(), "?"));
+        String selectSql = "SELECT flight_id, current_status, total_seats FROM flights WHERE flight_id IN (" + placeholders + ") " +
+                "ORDER BY flight_id FOR UPDATE";
+        Connection conn = null;
+        long startNanos = System.nanoTime();
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            int capacityDelta = 0;
+            try (PreparedStatement selPstmt = conn.prepareStatement(selectSql)) {
+                int idx = 1;
+                for (Integer flightId : changes.keySet()) selPstmt.setInt(idx++, flightId);
+                try (ResultSet rs = selPstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int flightId = rs.getInt("flight_id");
+                        AirplaneReservationSystem.FlightStatus oldStatus = AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status"));
+                        AirplaneReservationSystem.FlightStatus newStatus = changes.get(flightId);
+                        if (oldStatus == newStatus) continue;
+                        applied.add(new FlightStatusEngine.FlightStatusChanged(flightId, oldStatus, newStatus));
+                        // Canceled flights don't count towards capacity
+                        boolean wasCanceled = oldStatus == AirplaneReservationSystem.FlightStatus.CANCELED;
+                        boolean isCanceled = newStatus == AirplaneReservationSystem.FlightStatus.CANCELED;
+                        if (wasCanceled != isCanceled) {
+                            int totalSeats = rs.getInt("total_seats");
+                            capacityDelta += isCanceled ? -totalSeats : totalSeats;
+                        }
+                    }
+                }
+            }
+            if (applied.isEmpty()) {
+                conn.commit();
+                return applied;
+            }
+
+            StringBuilder sql = new StringBuilder("UPDATE flights SET current_status = CASE flight_id");
+            for (int i = 0; i < applied.size(); i++) sql.append(" WHEN ? THEN ?");
+            sql.append(" END WHERE flight_id IN (")
+                    .append(String.join(", ", Collections.nCopies(applied.size(), "?"))).append(")");
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int idx = 1;
+                for (FlightStatusEngine.FlightStatusChanged c : applied) {
+                    pstmt.setInt(idx++, c.flightId);
+                    pstmt.setString(idx++, c.newStatus.name());
+                }
+                for (FlightStatusEngine.FlightStatusChanged c : applied) {
+                    pstmt.setInt(idx++, c.flightId);
+                }
+                pstmt.executeUpdate();
+            }
+            if (capacityDelta != 0) {
+                adjustDashboardStats(conn, 0, 0.0, 0, 0, capacityDelta);
+            }
+            conn.commit();
+            for (FlightStatusEngine.FlightStatusChanged c : applied) {
+                FlightCatalogCache.invalidate(c.flightId);
+                FlightEventBus.publish(c);
+            }
+            return applied;
+        } catch (SQLException e) {
+            DB_UPDATE_FLIGHT_STATUSES.error();
+            System.err.println("Error applying " + changes.size() + " flight status changes: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Rollback failed: " + ex.getMessage());
+                }
+            }
+            return new ArrayList<>();
+        } finally {
+            DB_UPDATE_FLIGHT_STATUSES.record(startNanos);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
+            }
         }
-        return flights;
     }
 
     public static AirplaneReservationSystem.Booking createBooking(AirplaneReservationSystem.User user, AirplaneReservationSystem.Flight flight,
@@ -250,6 +556,7 @@ public class DatabaseManager {
         String seatSql = "INSERT INTO reserved_seats (booking_id, flight_id, seat_id_str) VALUES (?, ?, ?)";
         Connection conn = null;
 
+        long startNanos = System.nanoTime();
         try {
             conn = getConnection();
             conn.setAutoCommit(false);
@@ -285,7 +592,12 @@ public class DatabaseManager {
                 seatPstmt.executeBatch();
             }
 
+            adjustDashboardStats(conn, 1, totalPrice, numPersons, 0, 0);
+
             conn.commit();
+            SeatInventory.reserve(flight.getId(), selectedSeats);
+            FlightEventBus.publish(new FlightEventBus.SeatsChanged(flight.getId(), pnr,
+                    SeatInventory.toBits(selectedSeats), new BitSet()));
 
             int pointsEarned = (int) (totalPrice / 100);
             user.addLoyaltyPoints(pointsEarned);
@@ -296,7 +608,9 @@ public class DatabaseManager {
                     false, new java.util.Date(), numPersons, paymentMethod);
 
         } catch (SQLException e) {
+            DB_CREATE_BOOKING.error();
             System.err.println("Booking creation transaction failed: " + e.getMessage());
+            SeatInventory.invalidate(flight.getId()); // Likely lost a seat race; reload occupancy on next read
             if (conn != null) {
                 try {
                     conn.rollback();
@@ -306,31 +620,52 @@ public class DatabaseManager {
             }
             return null;
         } finally {
+            DB_CREATE_BOOKING.record(startNanos);
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
                 } catch (SQLException ex) {
                     // Log
                 }
+                try {
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
             }
         }
     }
 
     public static Set<String> getReservedSeatsForFlight(int flightId) {
-        Set<String> reserved = new HashSet<>();
-        String sql = "SELECT seat_id_str FROM reserved_seats WHERE flight_id = ?"; //
-        try (Connection conn = getConnection(); //
-             PreparedStatement pstmt = conn.prepareStatement(sql)) { //
-            pstmt.setInt(1, flightId); //
-            try (ResultSet rs = pstmt.executeQuery()) { //
-                while (rs.next()) { //
-                    reserved.add(rs.getString("seat_id_str")); //
+        return SeatInventory.toSeatIds(getReservedSeatBits(flightId));
+    }
+
+    // Served from SeatInventory; only the first read of a flight goes to the database.
+    public static BitSet getReservedSeatBits(int flightId) {
+        return SeatInventory.getReserved(flightId, DatabaseManager::loadReservedSeatBits);
+    }
+
+    private static BitSet loadReservedSeatBits(int flightId) {
+        BitSet reserved = new BitSet();
+        String sql = "SELECT seat_id_str FROM reserved_seats WHERE flight_id = ?";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int idx = SeatInventory.encode(rs.getString("seat_id_str"));
+                    if (idx >= 0) reserved.set(idx);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching reserved seats for flight " + flightId + ": " + e.getMessage()); //
+            DB_LOAD_RESERVED_SEATS.error();
+            System.err.println("Error fetching reserved seats for flight " + flightId + ": " + e.getMessage());
+            return null;
+        } finally {
+            DB_LOAD_RESERVED_SEATS.record(startNanos);
         }
-        return reserved; //
+        return reserved;
     }
 
     // Helper class for two-phase fetch
@@ -362,9 +697,14 @@ public class DatabaseManager {
         }
     }
 
+    // Loads a user's bookings together with their seats and each flight's occupancy in a fixed
+    // number of queries (bookings, booking seats, flight seats), however many bookings the user has.
     public static List<AirplaneReservationSystem.Booking> getUserBookings(int userId) {
         List<AirplaneReservationSystem.Booking> bookings = new ArrayList<>();
         List<BookingRawData> rawDataList = new ArrayList<>();
+        Map<Integer, Set<String>> seatsByBooking = new HashMap<>();
+        Map<Integer, Set<String>> reservedByFlight = new HashMap<>();
+
         String sql = "SELECT b.booking_id, b.pnr, b.user_id, b.flight_id, b.fare_class, b.fare_multiplier, " +
                 "b.total_price, b.num_persons, b.booking_date, b.is_checked_in, b.payment_method, " +
                 "f.route AS flight_route, f.base_fare AS flight_base_fare, f.total_seats AS flight_total_seats, f.current_status AS flight_status, " +
@@ -373,22 +713,53 @@ public class DatabaseManager {
                 "JOIN flights f ON b.flight_id = f.flight_id " +
                 "JOIN users u ON b.user_id = u.user_id " +
                 "WHERE b.user_id = ? ORDER BY b.booking_date DESC";
+        String bookingSeatsSql = "SELECT rs.booking_id, rs.seat_id_str FROM reserved_seats rs " +
+                "JOIN bookings b ON rs.booking_id = b.booking_id WHERE b.user_id = ?";
+        String flightSeatsSql = "SELECT rs.flight_id, rs.seat_id_str FROM reserved_seats rs " +
+                "WHERE rs.flight_id IN (SELECT DISTINCT b.flight_id FROM bookings b WHERE b.user_id = ?)";
 
-        // Phase 1: Fetch all raw data
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    rawDataList.add(new BookingRawData(rs));
+        // Phase 1: Fetch bookings, their seats and per-flight occupancy on one connection
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        rawDataList.add(new BookingRawData(rs));
+                    }
+                }
+            }
+            if (rawDataList.isEmpty()) {
+                return bookings;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(bookingSeatsSql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        seatsByBooking.computeIfAbsent(rs.getInt("booking_id"), k -> new HashSet<>())
+                                .add(rs.getString("seat_id_str"));
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(flightSeatsSql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        reservedByFlight.computeIfAbsent(rs.getInt("flight_id"), k -> new HashSet<>())
+                                .add(rs.getString("seat_id_str"));
+                    }
                 }
             }
         } catch (SQLException e) {
+            DB_GET_USER_BOOKINGS.error();
             System.err.println("Error fetching raw user bookings data for user ID " + userId + ": " + e.getMessage());
             return bookings; // Return empty list on error in phase 1
+        } finally {
+            DB_GET_USER_BOOKINGS.record(startNanos);
         }
 
-        // Phase 2: Process raw data and fetch details
+        // Phase 2: Assemble domain objects. Bookings on the same flight share one Flight instance.
+        Map<Integer, AirplaneReservationSystem.Flight> flightsById = new HashMap<>();
         for (BookingRawData raw : rawDataList) {
             try {
                 AirplaneReservationSystem.User user = new AirplaneReservationSystem.User(
@@ -396,17 +767,21 @@ public class DatabaseManager {
                 );
                 user.setLoyaltyPoints(raw.userLoyaltyPoints);
 
-                AirplaneReservationSystem.Flight flight = new AirplaneReservationSystem.Flight(
-                        raw.flightId, raw.flightRoute, raw.flightBaseFare, raw.flightTotalSeats
-                );
-                flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(raw.flightStatusStr));
-                flight.setReservedSeats(getReservedSeatsForFlight(raw.flightId));
+                AirplaneReservationSystem.Flight flight = flightsById.get(raw.flightId);
+                if (flight == null) {
+                    flight = new AirplaneReservationSystem.Flight(
+                            raw.flightId, raw.flightRoute, raw.flightBaseFare, raw.flightTotalSeats
+                    );
+                    flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(raw.flightStatusStr));
+                    flight.setReservedSeats(reservedByFlight.getOrDefault(raw.flightId, Collections.emptySet()));
+                    flightsById.put(raw.flightId, flight);
+                }
 
                 AirplaneReservationSystem.Fare fare = new AirplaneReservationSystem.Fare(
                         raw.fareClass, raw.fareMultiplier
                 );
 
-                Set<String> selectedSeats = getSeatsForBooking(raw.bookingId);
+                Set<String> selectedSeats = seatsByBooking.getOrDefault(raw.bookingId, Collections.emptySet());
 
                 AirplaneReservationSystem.Booking booking = new AirplaneReservationSystem.Booking(
                         raw.bookingId, raw.pnr, user, flight, fare, raw.totalPrice, selectedSeats,
@@ -423,6 +798,7 @@ public class DatabaseManager {
     private static Set<String> getSeatsForBooking(int bookingId) {
         Set<String> seats = new HashSet<>();
         String sql = "SELECT seat_id_str FROM reserved_seats WHERE booking_id = ?"; //
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection(); //
              PreparedStatement pstmt = conn.prepareStatement(sql)) { //
             pstmt.setInt(1, bookingId); //
@@ -432,7 +808,10 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            DB_GET_SEATS_FOR_BOOKING.error();
             System.err.println("Error fetching seats for booking " + bookingId + ": " + e.getMessage()); //
+        } finally {
+            DB_GET_SEATS_FOR_BOOKING.record(startNanos);
         }
         return seats; //
     }
@@ -440,6 +819,7 @@ public class DatabaseManager {
     private static Set<String> getUserBookingPnrs(int userId) {
         Set<String> pnrs = new HashSet<>();
         String sql = "SELECT pnr FROM bookings WHERE user_id = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -448,32 +828,56 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            DB_GET_USER_BOOKING_PNRS.error();
             System.err.println("Error fetching user PNRs: " + e.getMessage());
+        } finally {
+            DB_GET_USER_BOOKING_PNRS.record(startNanos);
         }
         return pnrs;
     }
 
     public static boolean cancelBooking(String pnr, int userId) {
-        String selectSql = "SELECT booking_id FROM bookings WHERE pnr = ? AND user_id = ?"; // Removed flight_id as it's not used
+        String selectSql = "SELECT booking_id, flight_id, total_price, num_persons, is_checked_in FROM bookings WHERE pnr = ? AND user_id = ? FOR UPDATE";
         Connection conn = null;
         int bookingId = -1;
+        int flightId = -1;
+        double totalPrice = 0.0;
+        int numPersons = 0;
+        boolean checkedIn = false;
 
+        long startNanos = System.nanoTime();
         try {
             conn = getConnection();
+            conn.setAutoCommit(false);
+
+            // Locked so a concurrent check-in or cancel can't change what the counters are adjusted by
             try (PreparedStatement selPstmt = conn.prepareStatement(selectSql)) {
                 selPstmt.setString(1, pnr);
                 selPstmt.setInt(2, userId);
                 try (ResultSet rs = selPstmt.executeQuery()) {
                     if (rs.next()) {
                         bookingId = rs.getInt("booking_id");
+                        flightId = rs.getInt("flight_id");
+                        totalPrice = rs.getDouble("total_price");
+                        numPersons = rs.getInt("num_persons");
+                        checkedIn = rs.getBoolean("is_checked_in");
                     } else {
                         System.err.println("Booking PNR " + pnr + " not found for user ID " + userId + " or does not exist.");
+                        conn.rollback();
                         return false;
                     }
                 }
             }
 
-            conn.setAutoCommit(false);
+            Set<String> releasedSeats = new HashSet<>();
+            try (PreparedStatement seatsPstmt = conn.prepareStatement("SELECT seat_id_str FROM reserved_seats WHERE booking_id = ?")) {
+                seatsPstmt.setInt(1, bookingId);
+                try (ResultSet rs = seatsPstmt.executeQuery()) {
+                    while (rs.next()) {
+                        releasedSeats.add(rs.getString("seat_id_str"));
+                    }
+                }
+            }
 
             String deleteSeatsSql = "DELETE FROM reserved_seats WHERE booking_id = ?";
             try (PreparedStatement delSeatsPstmt = conn.prepareStatement(deleteSeatsSql)) {
@@ -486,7 +890,11 @@ public class DatabaseManager {
                 delBookingPstmt.setInt(1, bookingId);
                 int affectedRows = delBookingPstmt.executeUpdate();
                 if (affectedRows > 0) {
+                    adjustDashboardStats(conn, -1, -totalPrice, -numPersons, checkedIn ? -1 : 0, 0);
                     conn.commit();
+                    SeatInventory.release(flightId, releasedSeats);
+                    FlightEventBus.publish(new FlightEventBus.SeatsChanged(flightId, pnr,
+                            new BitSet(), SeatInventory.toBits(releasedSeats)));
                     return true;
                 } else {
                     conn.rollback();
@@ -494,6 +902,7 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            DB_CANCEL_BOOKING.error();
             System.err.println("Error canceling booking PNR " + pnr + ": " + e.getMessage());
             if (conn != null) {
                 try {
@@ -504,26 +913,74 @@ public class DatabaseManager {
             }
             return false;
         } finally {
+            DB_CANCEL_BOOKING.record(startNanos);
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
                 } catch (SQLException ex) {
                     System.err.println("Failed to set auto-commit true: " + ex.getMessage());
                 }
+                try {
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
             }
         }
     }
 
     public static boolean updateCheckInStatus(String pnr, boolean isCheckedIn) {
-        String sql = "UPDATE bookings SET is_checked_in = ? WHERE pnr = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setBoolean(1, isCheckedIn);
-            pstmt.setString(2, pnr);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+        // Only flip rows whose flag actually changes, so the checked-in counter moves exactly once
+        String sql = "UPDATE bookings SET is_checked_in = ? WHERE pnr = ? AND is_checked_in <> ?";
+        Connection conn = null;
+        long startNanos = System.nanoTime();
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            int affectedRows;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setBoolean(1, isCheckedIn);
+                pstmt.setString(2, pnr);
+                pstmt.setBoolean(3, isCheckedIn);
+                affectedRows = pstmt.executeUpdate();
+            }
+            if (affectedRows > 0) {
+                adjustDashboardStats(conn, 0, 0.0, 0, isCheckedIn ? affectedRows : -affectedRows, 0);
+                int flightId = -1;
+                try (PreparedStatement selPstmt = conn.prepareStatement("SELECT flight_id FROM bookings WHERE pnr = ?")) {
+                    selPstmt.setString(1, pnr);
+                    try (ResultSet rs = selPstmt.executeQuery()) {
+                        if (rs.next()) flightId = rs.getInt("flight_id");
+                    }
+                }
+                conn.commit();
+                if (flightId >= 0) {
+                    FlightEventBus.publish(new FlightEventBus.CheckInChanged(flightId, pnr, isCheckedIn));
+                }
+                return true;
+            }
+            conn.commit();
+            return checkPnrExists(pnr); // Already in the requested state
         } catch (SQLException e) {
+            DB_UPDATE_CHECK_IN.error();
             System.err.println("Error updating check-in status for PNR " + pnr + ": " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Rollback failed: " + ex.getMessage());
+                }
+            }
+        } finally {
+            DB_UPDATE_CHECK_IN.record(startNanos);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
+            }
         }
         return false;
     }
@@ -541,6 +998,7 @@ public class DatabaseManager {
                 "WHERE b.pnr = ?";
 
         // Phase 1: Fetch raw data
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, pnrToFind);
@@ -553,8 +1011,11 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            DB_GET_BOOKING_BY_PNR.error();
             System.err.println("Error fetching raw booking data by PNR " + pnrToFind + ": " + e.getMessage());
             return null;
+        } finally {
+            DB_GET_BOOKING_BY_PNR.record(startNanos);
         }
 
         // Phase 2: Process raw data
@@ -569,7 +1030,7 @@ public class DatabaseManager {
                         rawData.flightId, rawData.flightRoute, rawData.flightBaseFare, rawData.flightTotalSeats
                 );
                 flight.setCurrentStatus(AirplaneReservationSystem.FlightStatus.valueOf(rawData.flightStatusStr));
-                flight.setReservedSeats(getReservedSeatsForFlight(rawData.flightId));
+                flight.setReservedSeatBits(getReservedSeatBits(rawData.flightId));
 
                 AirplaneReservationSystem.Fare fare = new AirplaneReservationSystem.Fare(
                         rawData.fareClass, rawData.fareMultiplier
@@ -590,8 +1051,153 @@ public class DatabaseManager {
     }
 
 
+    // --- Materialized dashboard counters (table dashboard_stats, single row) ---
+    // Maintained inside the booking/cancel/check-in/status transactions so the admin dashboard reads one row
+    // instead of scanning bookings and flights. reconcileDashboardStats() repairs any drift.
+
+    public static class DashboardStats {
+        public final int totalBookings;
+        public final double totalRevenue;
+        public final int checkedInCount;
+        public final long bookedSeats;
+        public final long activeCapacity;
+
+        DashboardStats(int totalBookings, double totalRevenue, int checkedInCount, long bookedSeats, long activeCapacity) {
+            this.totalBookings = totalBookings;
+            this.totalRevenue = totalRevenue;
+            this.checkedInCount = checkedInCount;
+            this.bookedSeats = bookedSeats;
+            this.activeCapacity = activeCapacity;
+        }
+
+        public double getOccupancyPercent() {
+            if (activeCapacity == 0) return 0.0;
+            return (double) bookedSeats / activeCapacity * 100.0;
+        }
+    }
+
+    // Startup migration for databases created before dashboard_stats existed: creates the table and seeds its
+    // row from the real totals. Without the row, every adjustDashboardStats() would update nothing.
+    public static void ensureDashboardStats() {
+        String createSql = "CREATE TABLE IF NOT EXISTS dashboard_stats (" +
+                "stats_id INT NOT NULL PRIMARY KEY, " +
+                "total_bookings INT NOT NULL DEFAULT 0, " +
+                "total_revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00, " +
+                "checked_in_count INT NOT NULL DEFAULT 0, " +
+                "booked_seats BIGINT NOT NULL DEFAULT 0, " +
+                "active_capacity BIGINT NOT NULL DEFAULT 0)";
+        String seedSql = "INSERT INTO dashboard_stats (stats_id, total_bookings, total_revenue, checked_in_count, booked_seats, active_capacity) " +
+                "SELECT 1, (SELECT COUNT(*) FROM bookings), (SELECT COALESCE(SUM(total_price), 0) FROM bookings), " +
+                "(SELECT COUNT(*) FROM bookings WHERE is_checked_in = TRUE), (SELECT COALESCE(SUM(num_persons), 0) FROM bookings), " +
+                "(SELECT COALESCE(SUM(total_seats), 0) FROM flights WHERE current_status != 'CANCELED') " +
+                "ON DUPLICATE KEY UPDATE stats_id = stats_id"; // an existing row is left alone
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(createSql);
+            if (stmt.executeUpdate(seedSql) == 1) {
+                System.out.println("Created the dashboard_stats row from current totals.");
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not create dashboard_stats: " + e.getMessage());
+        }
+    }
+
+    // Must run on the caller's transaction so the counters commit or roll back with the change itself.
+    private static void adjustDashboardStats(Connection conn, int bookingsDelta, double revenueDelta, int seatsDelta,
+                                             int checkedInDelta, int capacityDelta) throws SQLException {
+        String sql = "UPDATE dashboard_stats SET total_bookings = total_bookings + ?, total_revenue = total_revenue + ?, " +
+                "booked_seats = booked_seats + ?, checked_in_count = checked_in_count + ?, active_capacity = active_capacity + ? " +
+                "WHERE stats_id = 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookingsDelta);
+            pstmt.setDouble(2, revenueDelta);
+            pstmt.setInt(3, seatsDelta);
+            pstmt.setInt(4, checkedInDelta);
+            pstmt.setInt(5, capacityDelta);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // O(1) read of the materialized counters. Falls back to live totals if the row is missing.
+    public static DashboardStats getDashboardStats() {
+        String sql = "SELECT total_bookings, total_revenue, checked_in_count, booked_seats, active_capacity FROM dashboard_stats WHERE stats_id = 1";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return new DashboardStats(rs.getInt("total_bookings"), rs.getDouble("total_revenue"),
+                        rs.getInt("checked_in_count"), rs.getLong("booked_seats"), rs.getLong("active_capacity"));
+            }
+        } catch (SQLException e) {
+            DB_GET_DASHBOARD_STATS.error();
+            System.err.println("Error reading dashboard stats: " + e.getMessage());
+        } finally {
+            DB_GET_DASHBOARD_STATS.record(startNanos);
+        }
+        return computeDashboardStats();
+    }
+
+    // Full scans of bookings and flights; used for reconciliation and as a fallback only.
+    private static DashboardStats computeDashboardStats() {
+        String sql = "SELECT (SELECT COUNT(*) FROM bookings) AS total_bookings, " +
+                "(SELECT COALESCE(SUM(total_price), 0) FROM bookings) AS total_revenue, " +
+                "(SELECT COUNT(*) FROM bookings WHERE is_checked_in = TRUE) AS checked_in_count, " +
+                "(SELECT COALESCE(SUM(num_persons), 0) FROM bookings) AS booked_seats, " +
+                "(SELECT COALESCE(SUM(total_seats), 0) FROM flights WHERE current_status != 'CANCELED') AS active_capacity";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return new DashboardStats(rs.getInt("total_bookings"), rs.getDouble("total_revenue"),
+                        rs.getInt("checked_in_count"), rs.getLong("booked_seats"), rs.getLong("active_capacity"));
+            }
+        } catch (SQLException e) {
+            DB_COMPUTE_DASHBOARD_STATS.error();
+            System.err.println("Error computing dashboard stats: " + e.getMessage());
+        } finally {
+            DB_COMPUTE_DASHBOARD_STATS.record(startNanos);
+        }
+        return new DashboardStats(0, 0.0, 0, 0, 0);
+    }
+
+    // Recomputes the real totals and overwrites the counters if they drifted. Returns true if a repair was made.
+    public static boolean reconcileDashboardStats() {
+        String sql = "INSERT INTO dashboard_stats (stats_id, total_bookings, total_revenue, checked_in_count, booked_seats, active_capacity) " +
+                "SELECT 1, (SELECT COUNT(*) FROM bookings), (SELECT COALESCE(SUM(total_price), 0) FROM bookings), " +
+                "(SELECT COUNT(*) FROM bookings WHERE is_checked_in = TRUE), (SELECT COALESCE(SUM(num_persons), 0) FROM bookings), " +
+                "(SELECT COALESCE(SUM(total_seats), 0) FROM flights WHERE current_status != 'CANCELED') " +
+                "ON DUPLICATE KEY UPDATE total_bookings = VALUES(total_bookings), total_revenue = VALUES(total_revenue), " +
+                "checked_in_count = VALUES(checked_in_count), booked_seats = VALUES(booked_seats), active_capacity = VALUES(active_capacity)";
+        DashboardStats stored = getDashboardStats();
+        DashboardStats actual = computeDashboardStats();
+        boolean drifted = stored.totalBookings != actual.totalBookings
+                || Math.abs(stored.totalRevenue - actual.totalRevenue) > 0.005
+                || stored.checkedInCount != actual.checkedInCount
+                || stored.bookedSeats != actual.bookedSeats
+                || stored.activeCapacity != actual.activeCapacity;
+        if (!drifted) return false;
+
+        // Recompute and write in one statement so bookings committed in between are not lost
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+            System.err.println("Dashboard stats drifted from real totals and were reconciled.");
+            return true;
+        } catch (SQLException e) {
+            DB_RECONCILE_DASHBOARD_STATS.error();
+            System.err.println("Error reconciling dashboard stats: " + e.getMessage());
+        } finally {
+            DB_RECONCILE_DASHBOARD_STATS.record(startNanos);
+        }
+        return false;
+    }
+
     public static int getTotalBookingsCount() {
         String sql = "SELECT COUNT(*) FROM bookings";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -599,13 +1205,17 @@ public class DatabaseManager {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
+            DB_GET_TOTAL_BOOKINGS.error();
             System.err.println("Error getting total bookings count: " + e.getMessage());
+        } finally {
+            DB_GET_TOTAL_BOOKINGS.record(startNanos);
         }
         return 0;
     }
 
     public static double getTotalRevenue() {
         String sql = "SELECT SUM(total_price) FROM bookings";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -613,13 +1223,17 @@ public class DatabaseManager {
                 return rs.getDouble(1);
             }
         } catch (SQLException e) {
+            DB_GET_TOTAL_REVENUE.error();
             System.err.println("Error getting total revenue: " + e.getMessage());
+        } finally {
+            DB_GET_TOTAL_REVENUE.record(startNanos);
         }
         return 0.0;
     }
 
     public static int getTotalCheckedInCount() {
         String sql = "SELECT COUNT(*) FROM bookings WHERE is_checked_in = TRUE";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -627,7 +1241,10 @@ public class DatabaseManager {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
+            DB_GET_TOTAL_CHECKED_IN.error();
             System.err.println("Error getting checked-in count: " + e.getMessage());
+        } finally {
+            DB_GET_TOTAL_CHECKED_IN.record(startNanos);
         }
         return 0;
     }
@@ -638,6 +1255,7 @@ public class DatabaseManager {
         long totalBookedSeats = 0;
         long totalCapacity = 0;
 
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
             try (ResultSet rsBooked = stmt.executeQuery(totalBookedSeatsSql)) {
                 if (rsBooked.next()) {
@@ -653,13 +1271,105 @@ public class DatabaseManager {
             return (double) totalBookedSeats / totalCapacity * 100.0;
 
         } catch (SQLException e) {
+            DB_GET_OVERALL_OCCUPANCY.error();
             System.err.println("Error calculating overall occupancy: " + e.getMessage());
+        } finally {
+            DB_GET_OVERALL_OCCUPANCY.record(startNanos);
         }
         return 0.0;
     }
 
+    // Startup migration for databases created before pnr_sequence existed, or before its pnr_key column did:
+    // creates the table and seeds its row. Without the row, every leasePnrBlock() would fail.
+    public static void ensurePnrSequence() {
+        String createSql = "CREATE TABLE IF NOT EXISTS pnr_sequence (" +
+                "seq_id INT NOT NULL PRIMARY KEY, " +
+                "next_value BIGINT NOT NULL DEFAULT 0, " +
+                "pnr_key BIGINT NULL)";
+        String seedSql = "INSERT INTO pnr_sequence (seq_id, next_value, pnr_key) VALUES (1, 0, NULL) " +
+                "ON DUPLICATE KEY UPDATE seq_id = seq_id"; // an existing row is left alone
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(createSql);
+            try {
+                stmt.executeQuery("SELECT pnr_key FROM pnr_sequence WHERE 1 = 0").close();
+            } catch (SQLException missing) {
+                stmt.executeUpdate("ALTER TABLE pnr_sequence ADD COLUMN pnr_key BIGINT NULL");
+                System.out.println("Added pnr_sequence.pnr_key.");
+            }
+            if (stmt.executeUpdate(seedSql) == 1) {
+                System.out.println("Created the pnr_sequence row.");
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not create pnr_sequence: " + e.getMessage());
+        }
+    }
+
+    public static class PnrBlock {
+        public final long start;
+        public final long key; // PnrAllocator's permutation key, shared by every app instance
+
+        PnrBlock(long start, long key) {
+            this.start = start;
+            this.key = key;
+        }
+    }
+
+    // Reserves blockSize consecutive PNR sequence numbers for this app instance. The first lease ever also
+    // generates the permutation key and stores it in the same row. Returns null if pnr_sequence is unavailable.
+    public static PnrBlock leasePnrBlock(int blockSize) {
+        String selectSql = "SELECT next_value, pnr_key FROM pnr_sequence WHERE seq_id = 1 FOR UPDATE";
+        String updateSql = "UPDATE pnr_sequence SET next_value = ?, pnr_key = ? WHERE seq_id = 1";
+        Connection conn = null;
+        long startNanos = System.nanoTime();
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            long start;
+            long key;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(selectSql)) {
+                if (!rs.next()) {
+                    throw new SQLException("pnr_sequence row missing");
+                }
+                start = rs.getLong("next_value");
+                key = rs.getLong("pnr_key");
+                if (rs.wasNull()) key = new SecureRandom().nextLong();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                pstmt.setLong(1, start + blockSize);
+                pstmt.setLong(2, key);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            return new PnrBlock(start, key);
+        } catch (SQLException e) {
+            DB_LEASE_PNR_BLOCK.error();
+            System.err.println("Error leasing PNR block: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Rollback failed: " + ex.getMessage());
+                }
+            }
+            return null;
+        } finally {
+            DB_LEASE_PNR_BLOCK.record(startNanos);
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to return connection to pool: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
     public static boolean checkPnrExists(String pnr) {
         String sql = "SELECT 1 FROM bookings WHERE pnr = ?";
+        long startNanos = System.nanoTime();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, pnr);
@@ -667,8 +1377,123 @@ public class DatabaseManager {
                 return rs.next();
             }
         } catch (SQLException e) {
+            DB_CHECK_PNR_EXISTS.error();
             System.err.println("Error checking PNR existence: " + e.getMessage());
+        } finally {
+            DB_CHECK_PNR_EXISTS.record(startNanos);
         }
         return false;
     }
+
+    // Seats sold more than once ("flightId:seat x count"). Always empty while the unique_flight_seat key exists;
+    // used by LoadGenerator to verify that no booking path can oversell.
+    public static List<String> findDoubleSoldSeats() {
+        List<String> doubles = new ArrayList<>();
+        String sql = "SELECT flight_id, seat_id_str, COUNT(*) AS sold FROM reserved_seats " +
+                "GROUP BY flight_id, seat_id_str HAVING COUNT(*) > 1";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                doubles.add(rs.getInt("flight_id") + ":" + rs.getString("seat_id_str") + " x" + rs.getInt("sold"));
+            }
+        } catch (SQLException e) {
+            DB_FIND_DOUBLE_SOLD_SEATS.error();
+            System.err.println("Error checking for double-sold seats: " + e.getMessage());
+        } finally {
+            DB_FIND_DOUBLE_SOLD_SEATS.record(startNanos);
+        }
+        return doubles;
+    }
+
+    // What DynamicPricing needs per flight, with the booked seat count, in one query
+    public static class PricingInput {
+        public final int flightId;
+        public final double baseFare;
+        public final int totalSeats;
+        public final int bookedSeats;
+        public final java.util.Date departure; // null when not scheduled
+        public final AirplaneReservationSystem.FlightStatus status;
+
+        PricingInput(int flightId, double baseFare, int totalSeats, int bookedSeats, java.util.Date departure,
+                     AirplaneReservationSystem.FlightStatus status) {
+            this.flightId = flightId;
+            this.baseFare = baseFare;
+            this.totalSeats = totalSeats;
+            this.bookedSeats = bookedSeats;
+            this.departure = departure;
+            this.status = status;
+        }
+    }
+
+    public static List<PricingInput> getPricingInputs() {
+        List<PricingInput> inputs = new ArrayList<>();
+        String sql = "SELECT f.flight_id, f.base_fare, f.total_seats, f.departure_time, f.current_status, " +
+                "(SELECT COUNT(*) FROM reserved_seats rs WHERE rs.flight_id = f.flight_id) AS booked_seats FROM flights f";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Timestamp departure = rs.getTimestamp("departure_time");
+                inputs.add(new PricingInput(rs.getInt("flight_id"), rs.getDouble("base_fare"), rs.getInt("total_seats"),
+                        rs.getInt("booked_seats"), departure == null ? null : new java.util.Date(departure.getTime()),
+                        AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status"))));
+            }
+        } catch (SQLException e) {
+            DB_GET_PRICING_INPUTS.error();
+            System.err.println("Error fetching pricing inputs: " + e.getMessage());
+        } finally {
+            DB_GET_PRICING_INPUTS.record(startNanos);
+        }
+        return inputs;
+    }
+
+    // One row per flight with its schedule, for ConnectionSearch's route graph
+    public static class FlightSchedule {
+        public final int flightId;
+        public final String route;
+        public final boolean local;
+        public final double baseFare;
+        public final AirplaneReservationSystem.FlightStatus status;
+        public final java.util.Date departure; // null when not scheduled
+        public final java.util.Date arrival;   // null when not scheduled
+
+        FlightSchedule(int flightId, String route, boolean local, double baseFare, AirplaneReservationSystem.FlightStatus status,
+                       java.util.Date departure, java.util.Date arrival) {
+            this.flightId = flightId;
+            this.route = route;
+            this.local = local;
+            this.baseFare = baseFare;
+            this.status = status;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+    }
+
+    public static List<FlightSchedule> getFlightSchedules() {
+        List<FlightSchedule> schedules = new ArrayList<>();
+        String sql = "SELECT flight_id, route, flight_type, base_fare, current_status, departure_time, arrival_time FROM flights";
+        long startNanos = System.nanoTime();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Timestamp departure = rs.getTimestamp("departure_time");
+                Timestamp arrival = rs.getTimestamp("arrival_time");
+                schedules.add(new FlightSchedule(rs.getInt("flight_id"), rs.getString("route"),
+                        "LOCAL".equals(rs.getString("flight_type")), rs.getDouble("base_fare"),
+                        AirplaneReservationSystem.FlightStatus.valueOf(rs.getString("current_status")),
+                        departure == null ? null : new java.util.Date(departure.getTime()),
+                        arrival == null ? null : new java.util.Date(arrival.getTime())));
+            }
+        } catch (SQLException e) {
+            DB_GET_FLIGHT_SCHEDULES.error();
+            System.err.println("Error fetching flight schedules: " + e.getMessage());
+        } finally {
+            DB_GET_FLIGHT_SCHEDULES.record(startNanos);
+        }
+        return schedules;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// BookingService backed by DatabaseManager, SeatHoldService and PnrAllocator. Holds no state of its own.
+public class DefaultBookingService implements BookingService {
+
+    private static final int PNR_ATTEMPTS = 3;
+
+    // Totals closer than this (half a centavo) count as the same price, so floating-point noise is not a fare change
+    private static final double PRICE_TOLERANCE = 0.005;
+
+    @Override
+    public List<AirplaneReservationSystem.Flight> searchFlights(Boolean local, String routeQuery) {
+        List<AirplaneReservationSystem.Flight> all = new ArrayList<>();
+        if (local == null || local) all.addAll(DatabaseManager.getFlights(true));
+        if (local == null || !local) all.addAll(DatabaseManager.getFlights(false));
+        if (routeQuery == null || routeQuery.trim().isEmpty()) return all;
+
+        String q = routeQuery.trim().toLowerCase(Locale.ROOT);
+        List<AirplaneReservationSystem.Flight> matches = new ArrayList<>();
+        for (AirplaneReservationSystem.Flight f : all) {
+            if (f.getRoute().toLowerCase(Locale.ROOT).contains(q)) matches.add(f);
+        }
+        return matches;
+    }
+
+    @Override
+    public AirplaneReservationSystem.Flight getFlight(int flightId) {
+        return DatabaseManager.getFlightById(flightId);
+    }
+
+    @Override
+    public AirplaneReservationSystem.Flight getFlightByRoute(String route) {
+        return DatabaseManager.getFlightByRoute(route);
+    }
+
+    @Override
+    public Quote quote(AirplaneReservationSystem.Flight flight, String fareClass, int persons, int children) {
+        return FareRules.get().quote(flight, fareClass, persons, children);
+    }
+
+    @Override
+    public List<Quote> bulkQuote(List<AirplaneReservationSystem.Flight> flights, String fareClass, int persons, int children) {
+        return FareRules.get().quoteAll(flights, fareClass, persons, children);
+    }
+
+    @Override
+    public boolean holdSeats(int flightId, Set<String> seats, String holdOwner) {
+        AirplaneReservationSystem.Flight flight = DatabaseManager.getFlightById(flightId);
+        return flight != null && flight.areSeatsAvailable(seats)
+                && SeatHoldService.hold(flightId, seats, holdOwner, flight.getReservedSeatBits());
+    }
+
+    @Override
+    public void releaseHold(int flightId, String holdOwner) {
+        SeatHoldService.release(flightId, holdOwner);
+    }
+
+    @Override
+    public BookingResult book(AirplaneReservationSystem.User user, int flightId, String fareClass, int persons, int children,
+                              Set<String> seats, String paymentMethod, String holdOwner, double quotedTotal) {
+        if (seats.size() != persons) {
+            throw new IllegalArgumentException("Exactly " + persons + " seat(s) must be selected, got " + seats.size() + ".");
+        }
+        AirplaneReservationSystem.Flight flight = DatabaseManager.getFlightById(flightId);
+        if (flight == null) {
+            SeatHoldService.release(flightId, holdOwner);
+            return new BookingResult(BookingResult.Status.FAILED, null, null);
+        }
+        if (flight.getCurrentStatus() == AirplaneReservationSystem.FlightStatus.CANCELED) {
+            SeatHoldService.release(flightId, holdOwner);
+            return new BookingResult(BookingResult.Status.FLIGHT_CANCELED, null, flight);
+        }
+        Quote quote = quote(flight, fareClass, persons, children);
+        if (Math.abs(quote.totalPrice - quotedTotal) >= PRICE_TOLERANCE) {
+            return new BookingResult(BookingResult.Status.PRICE_CHANGED, null, flight, quote); // hold kept for a retry at the new price
+        }
+
+        // Our hold normally guarantees the seats; if it expired, try to take it again before giving up.
+        boolean seatsSecured = flight.areSeatsAvailable(seats)
+                && (SeatHoldService.isHeldBy(flightId, seats, holdOwner)
+                    || SeatHoldService.hold(flightId, seats, holdOwner, flight.getReservedSeatBits()));
+        if (!seatsSecured) {
+            SeatHoldService.release(flightId, holdOwner);
+            return new BookingResult(BookingResult.Status.SEATS_UNAVAILABLE, null, flight);
+        }
+
+        String pnr;
+        AirplaneReservationSystem.Booking booking;
+        int attempts = 0;
+        do {
+            pnr = PnrAllocator.nextPnr();
+            booking = DatabaseManager.createBooking(user, flight, quote.fare, quote.totalPrice,
+                    seats, persons, paymentMethod, pnr);
+            // A failure with the PNR now taken means it collided with an older booking's code: try the next one
+        } while (booking == null && ++attempts < PNR_ATTEMPTS && DatabaseManager.checkPnrExists(pnr));
+        SeatHoldService.release(flightId, holdOwner); // Booked seats are now in the inventory; a failed booking frees them for others
+        if (booking == null) {
+            DatabaseManager.addAuditLogEntry("Booking failed for User: " + user.getUsername() + ", Flight: " + flight.getRoute(), user.getUsername());
+            return new BookingResult(BookingResult.Status.FAILED, null, null);
+        }
+        user.addBookingPNR(pnr);
+        DatabaseManager.addAuditLogEntry("Booking completed. PNR: " + pnr + ", User: " + user.getUsername() +
+                ", Flight: " + flight.getRoute() + ", Amount: " + quote.totalPrice + ", Payment: " + paymentMethod, user.getUsername());
+        return new BookingResult(BookingResult.Status.CONFIRMED, booking, null, quote);
+    }
+
+    @Override
+    public boolean cancel(String pnr, AirplaneReservationSystem.User user) {
+        if (!DatabaseManager.cancelBooking(pnr, user.getUserId())) return false;
+        user.removeBookingPNR(pnr);
+        DatabaseManager.addAuditLogEntry("Booking canceled. PNR: " + pnr + ", User: " + user.getUsername(), user.getUsername());
+        return true;
+    }
+
+    @Override
+    public CheckInResult checkIn(String pnr, AirplaneReservationSystem.User user) {
+        AirplaneReservationSystem.Booking booking = DatabaseManager.getBookingByPnr(pnr);
+        if (booking == null || booking.getUser().getUserId() != user.getUserId()) {
+            return new CheckInResult(CheckInResult.Status.NOT_FOUND, null);
+        }
+        if (booking.isCheckedIn()) {
+            return new CheckInResult(CheckInResult.Status.ALREADY_CHECKED_IN, booking);
+        }
+        AirplaneReservationSystem.Flight flight = DatabaseManager.getFlightById(booking.getFlight().getId());
+        if (flight != null && flight.getCurrentStatus() == AirplaneReservationSystem.FlightStatus.CANCELED) {
+            return new CheckInResult(CheckInResult.Status.FLIGHT_CANCELED, booking);
+        }
+        if (!DatabaseManager.updateCheckInStatus(pnr, true)) {
+            return new CheckInResult(CheckInResult.Status.FAILED, booking);
+        }
+        booking.setCheckedIn(true);
+        DatabaseManager.addAuditLogEntry("Checked in for PNR: " + pnr + ", User: " + user.getUsername(), user.getUsername());
+        return new CheckInResult(CheckInResult.Status.CHECKED_IN, booking);
+    }
+}
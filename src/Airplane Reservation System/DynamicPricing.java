@@ -0,0 +1,185 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Occupancy- and date-driven base fares (enable with -Dairplane.pricing.dynamic=true).
+// Each flight's booked seat count is kept in memory and adjusted by every SeatsChanged event, which
+// DatabaseManager publishes after each committed createBooking/cancelBooking (and which other instances
+// forward over the event transport), so repricing a flight is O(1) arithmetic with no query.
+// A scheduler thread reprices all flights in parallel every REPRICE_PERIOD_MS and publishes the fares as a
+// new FareRules snapshot, which is what BookingService.quote() and calculatePrice() read, so a fare can change
+// between a quote and the booking; BookingService.book() then answers PRICE_CHANGED instead of charging it.
+// Seat counts are resynchronized from the database every RESYNC_EVERY repricings to repair any missed event.
+public class DynamicPricing {
+
+    public static final boolean ENABLED = Boolean.getBoolean("airplane.pricing.dynamic");
+
+    private static final long REPRICE_PERIOD_MS = 60000;
+    private static final int RESYNC_EVERY = 10;
+
+    // Load factor -> fare multiplier, linear between points: flat while the flight is half empty,
+    // then rising steeply as the last seats sell
+    private static final double[] LOAD_POINTS =      {0.0, 0.50, 0.80, 0.95, 1.00};
+    private static final double[] LOAD_MULTIPLIERS = {1.0, 1.00, 1.25, 1.50, 1.60};
+    // Days to departure (lower bound) -> multiplier; flights without a departure time stay at 1.0
+    private static final int[] DAYS_BEFORE =         {30,   14,   7,    3,    0};
+    private static final double[] DAY_MULTIPLIERS =  {0.95, 1.00, 1.10, 1.20, 1.35};
+
+    private static final Metrics.Timer REPRICE = Metrics.timer("pricing.repriceAll");
+
+    // In-memory pricing inputs for one flight; only bookedSeats changes between resyncs
+    static class FlightLoad {
+        final int flightId;
+        final double baseFare;
+        final int totalSeats;
+        final long departureMillis; // -1 when not scheduled
+        final boolean canceled;
+        final AtomicInteger bookedSeats;
+
+        FlightLoad(DatabaseManager.PricingInput in) {
+            this.flightId = in.flightId;
+            this.baseFare = in.baseFare;
+            this.totalSeats = in.totalSeats;
+            this.departureMillis = in.departure == null ? -1 : in.departure.getTime();
+            this.canceled = in.status == AirplaneReservationSystem.FlightStatus.CANCELED;
+            this.bookedSeats = new AtomicInteger(in.bookedSeats);
+        }
+
+        double loadFactor() {
+            return totalSeats <= 0 ? 0.0 : Math.min(1.0, Math.max(0, bookedSeats.get()) / (double) totalSeats);
+        }
+
+        // O(1): two short table walks
+        double price(long nowMillis) {
+            if (canceled) return baseFare;
+            double multiplier = loadMultiplier(loadFactor());
+            if (departureMillis >= 0 && departureMillis > nowMillis) {
+                multiplier *= dayMultiplier((departureMillis - nowMillis) / TimeUnit.DAYS.toMillis(1));
+            }
+            return Math.round(baseFare * multiplier / 10.0) * 10.0; // whole tens of pesos
+        }
+    }
+
+    private static final Map<Integer, FlightLoad> loads = new ConcurrentHashMap<>();
+    // SeatsChanged events applied per flight, so resync can tell which flights changed while it queried.
+    // Guarded by itself, which also orders applying an event against resync swapping in fresh loads.
+    private static final Map<Integer, Long> eventsApplied = new HashMap<>();
+    private static volatile Map<Integer, Double> publishedFares = Collections.emptyMap();
+    private static ScheduledExecutorService scheduler;
+    private static FlightEventBus.Subscription subscription;
+    private static int repricings = 0;
+
+    static double loadMultiplier(double loadFactor) {
+        for (int i = 1; i < LOAD_POINTS.length; i++) {
+            if (loadFactor <= LOAD_POINTS[i]) {
+                double t = (loadFactor - LOAD_POINTS[i - 1]) / (LOAD_POINTS[i] - LOAD_POINTS[i - 1]);
+                return LOAD_MULTIPLIERS[i - 1] + t * (LOAD_MULTIPLIERS[i] - LOAD_MULTIPLIERS[i - 1]);
+            }
+        }
+        return LOAD_MULTIPLIERS[LOAD_MULTIPLIERS.length - 1];
+    }
+
+    static double dayMultiplier(long daysToDeparture) {
+        for (int i = 0; i < DAYS_BEFORE.length; i++) {
+            if (daysToDeparture >= DAYS_BEFORE[i]) return DAY_MULTIPLIERS[i];
+        }
+        return DAY_MULTIPLIERS[DAY_MULTIPLIERS.length - 1];
+    }
+
+    // Loads the seat counts, prices every flight once and starts the periodic repricer. No-op unless ENABLED.
+    public static synchronized void start() {
+        if (!ENABLED || scheduler != null) return;
+        subscription = FlightEventBus.subscribeAll(DynamicPricing::onFlightEvent);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dynamic-pricing");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (repricings++ % RESYNC_EVERY == 0) resync();
+                repriceAll();
+            } catch (RuntimeException e) {
+                // An uncaught exception would cancel all future runs
+                System.err.println("Dynamic repricing failed: " + e.getMessage());
+            }
+        }, 0, REPRICE_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+        subscription.cancel();
+        scheduler.shutdownNow();
+        scheduler = null;
+        subscription = null;
+    }
+
+    private static void onFlightEvent(FlightEventBus.FlightEvent event) {
+        if (!(event instanceof FlightEventBus.SeatsChanged)) return;
+        FlightEventBus.SeatsChanged change = (FlightEventBus.SeatsChanged) event;
+        synchronized (eventsApplied) {
+            eventsApplied.merge(change.flightId, 1L, Long::sum);
+            FlightLoad load = loads.get(change.flightId);
+            if (load != null) {
+                load.bookedSeats.addAndGet(change.reserved.cardinality() - change.released.cardinality());
+            }
+        }
+    }
+
+    // Replaces all in-memory inputs with fresh ones from the database. A flight that got a SeatsChanged event
+    // while the query ran keeps its counted seats: the row may or may not include that booking, so taking it
+    // could drop or double-count it. Such a flight is repaired by a later resync.
+    static void resync() {
+        Map<Integer, Long> before;
+        synchronized (eventsApplied) {
+            before = new HashMap<>(eventsApplied);
+        }
+        List<DatabaseManager.PricingInput> inputs = DatabaseManager.getPricingInputs();
+        if (inputs.isEmpty()) return; // keep the old counts rather than pricing nothing
+        Map<Integer, FlightLoad> fresh = inputs.stream().collect(Collectors.toMap(in -> in.flightId, FlightLoad::new));
+        synchronized (eventsApplied) {
+            for (FlightLoad load : fresh.values()) {
+                FlightLoad counted = loads.get(load.flightId);
+                if (counted != null && !Objects.equals(before.get(load.flightId), eventsApplied.get(load.flightId))) {
+                    load.bookedSeats.set(counted.bookedSeats.get());
+                }
+            }
+            loads.keySet().retainAll(fresh.keySet());
+            loads.putAll(fresh);
+        }
+    }
+
+    // Reprices every flight in parallel and publishes the result to FareRules
+    public static Map<Integer, Double> repriceAll() {
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        try {
+            Map<Integer, Double> fares = loads.values().parallelStream()
+                    .collect(Collectors.toConcurrentMap(l -> l.flightId, l -> l.price(now)));
+            publishedFares = Collections.unmodifiableMap(fares);
+            FareRules.applyBaseFares(publishedFares);
+            return publishedFares;
+        } finally {
+            REPRICE.record(startNanos);
+        }
+    }
+
+    // Latest published base fare per flight id; empty until the first repricing (or when disabled)
+    public static Map<Integer, Double> getPublishedFares() {
+        return publishedFares;
+    }
+
+    // Current load factor (0..1) of a flight from the in-memory counters, or -1 if unknown
+    public static double getLoadFactor(int flightId) {
+        FlightLoad load = loads.get(flightId);
+        return load == null ? -1 : load.loadFactor();
+    }
+}
@@ -0,0 +1,201 @@
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+// Detects stalls of the Swing event dispatch thread. A daemon thread posts a probe to the event queue
+// every PROBE_INTERVAL_MS; if the probe has not run after the threshold (airplane.edt.stallMillis,
+// default 250), the EDT's stack is captured and the stall is attributed to the outermost DatabaseManager
+// call on it and to the application frame (usually a listener lambda) that made it. The stall goes into a ring
+// buffer of the last RING_SIZE stalls, the log and "ui.edtStallDetected" right away, so one that never ends
+// (a deadlock) is still reported; its duration keeps growing until the probe runs, when it is timed under
+// "ui.edtStall". Durations are measured from the probe being posted, so they are a lower bound (by up to
+// PROBE_INTERVAL_MS).
+public class EdtWatchdog {
+
+    private static final long STALL_THRESHOLD_MS = Long.getLong("airplane.edt.stallMillis", 250);
+    private static final long PROBE_INTERVAL_MS = 100;
+    private static final long POLL_MS = 20;
+    private static final int RING_SIZE = 100;
+
+    private static final Metrics.Timer STALLS = Metrics.timer("ui.edtStall");
+    private static final Metrics.Timer STALLS_DETECTED = Metrics.timer("ui.edtStallDetected");
+
+    public static class Stall {
+        public final Date detectedAt;
+        public final String databaseCall; // "DatabaseManager.cancelBooking", or null
+        public final String source;       // outermost application frame on the EDT, e.g. a listener lambda
+        public final StackTraceElement[] stack;
+        private volatile long durationMillis; // so far, while ongoing
+        private volatile boolean ongoing = true;
+
+        Stall(Date detectedAt, long durationMillis, String databaseCall, String source, StackTraceElement[] stack) {
+            this.detectedAt = detectedAt;
+            this.durationMillis = durationMillis;
+            this.databaseCall = databaseCall;
+            this.source = source;
+            this.stack = stack;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        // True until the EDT answers the probe that detected the stall
+        public boolean isOngoing() {
+            return ongoing;
+        }
+
+        // "1234 ms", or ">= 1234 ms (ongoing)"
+        public String describeDuration() {
+            return ongoing ? ">= " + durationMillis + " ms (ongoing)" : durationMillis + " ms";
+        }
+
+        public String getAttribution() {
+            if (databaseCall != null && source != null) return databaseCall + " via " + source;
+            if (databaseCall != null) return databaseCall;
+            return source != null ? source : "unknown (Swing/JDK code only)";
+        }
+    }
+
+    private static final Stall[] ring = new Stall[RING_SIZE];
+    private static int ringNext = 0;
+    private static int ringCount = 0;
+
+    private static Thread watchdog;
+    private static volatile boolean running;
+    private static volatile Thread edt;
+    private static volatile long answeredProbe = 0;
+    private static volatile long answeredAtNanos;
+
+    public static synchronized void start() {
+        if (watchdog != null) return;
+        running = true;
+        watchdog = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    public static synchronized void stop() {
+        if (watchdog == null) return;
+        running = false;
+        watchdog.interrupt();
+        watchdog = null;
+    }
+
+    private static void watch() {
+        long probe = 0;
+        try {
+            while (running) {
+                long id = ++probe;
+                long postedAt = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    edt = Thread.currentThread();
+                    answeredAtNanos = System.nanoTime();
+                    answeredProbe = id;
+                });
+
+                long deadline = postedAt + STALL_THRESHOLD_MS * 1_000_000L;
+                while (answeredProbe != id && System.nanoTime() < deadline) {
+                    Thread.sleep(POLL_MS);
+                }
+                if (answeredProbe != id) {
+                    // Stalled: record where the EDT is stuck now, then keep its duration current until it comes back
+                    Thread stuck = edt;
+                    StackTraceElement[] stack = stuck != null ? stuck.getStackTrace() : new StackTraceElement[0];
+                    Stall stall = detected(postedAt, stack);
+                    while (answeredProbe != id && running) {
+                        Thread.sleep(POLL_MS);
+                        stall.durationMillis = (System.nanoTime() - postedAt) / 1_000_000;
+                    }
+                    if (answeredProbe == id) {
+                        ended(stall, postedAt, answeredAtNanos);
+                    }
+                }
+                Thread.sleep(PROBE_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Stall detected(long postedAt, StackTraceElement[] stack) {
+        String databaseCall = null;
+        String source = null;
+        // Walk from the top of the stack down: the last DatabaseManager frame is the entry point the UI called,
+        // the last non-JDK frame is the application code the event was dispatched to.
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (cls.equals(DatabaseManager.class.getName())) {
+                databaseCall = "DatabaseManager." + frame.getMethodName();
+            }
+            // Lambda classes carry no line numbers; the lambda$... method frame below them names the listener
+            if (!isPlatformClass(cls) && !cls.contains("$$Lambda") && !cls.equals(EdtWatchdog.class.getName())) {
+                source = simpleName(cls) + "." + frame.getMethodName()
+                        + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+            }
+        }
+
+        STALLS_DETECTED.record(postedAt);
+        Stall stall = new Stall(new Date(), (System.nanoTime() - postedAt) / 1_000_000, databaseCall, source, stack);
+        synchronized (ring) {
+            ring[ringNext] = stall;
+            ringNext = (ringNext + 1) % RING_SIZE;
+            if (ringCount < RING_SIZE) ringCount++;
+        }
+        System.err.println("EDT stalled (ongoing, " + stall.durationMillis + " ms so far) in " + stall.getAttribution());
+        return stall;
+    }
+
+    private static void ended(Stall stall, long postedAt, long answeredAt) {
+        stall.durationMillis = (answeredAt - postedAt) / 1_000_000;
+        stall.ongoing = false;
+        STALLS.record(postedAt);
+        System.err.println("EDT stall ended after " + stall.durationMillis + " ms in " + stall.getAttribution());
+    }
+
+    private static boolean isPlatformClass(String cls) {
+        return cls.startsWith("java.") || cls.startsWith("javax.") || cls.startsWith("sun.")
+                || cls.startsWith("jdk.") || cls.startsWith("com.sun.");
+    }
+
+    private static String simpleName(String cls) {
+        return cls.substring(cls.lastIndexOf('.') + 1);
+    }
+
+    // Most recent first
+    public static List<Stall> getRecentStalls() {
+        List<Stall> stalls = new ArrayList<>();
+        synchronized (ring) {
+            for (int i = 1; i <= ringCount; i++) {
+                stalls.add(ring[(ringNext - i + RING_SIZE) % RING_SIZE]);
+            }
+        }
+        return stalls;
+    }
+
+    public static void clear() {
+        synchronized (ring) {
+            Arrays.fill(ring, null);
+            ringNext = 0;
+            ringCount = 0;
+        }
+    }
+
+    // Plain-text report of the buffered stalls with their full EDT stacks, for the admin export
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        List<Stall> stalls = getRecentStalls();
+        sb.append("EDT stalls over ").append(STALL_THRESHOLD_MS).append(" ms: ").append(stalls.size())
+                .append(" (most recent first)").append(System.lineSeparator());
+        for (Stall s : stalls) {
+            sb.append(System.lineSeparator()).append(s.detectedAt).append("  ").append(s.describeDuration()).append("  ")
+                    .append(s.getAttribution()).append(System.lineSeparator());
+            for (StackTraceElement frame : s.stack) {
+                sb.append("    at ").append(frame).append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Quotes-per-second benchmark for FareRules. Builds the tables for synthetic flights (no database needed),
+// then prices random single quotes and bulk quotes of `bulk` flights from `threads` threads, after a warm-up.
+//
+//   java FareQuoteBenchmark flights=500 threads=4 duration=10 bulk=50
+public class FareQuoteBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int flightCount = 500, threads = Runtime.getRuntime().availableProcessors(), durationSeconds = 10, bulk = 50;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "flights": flightCount = Integer.parseInt(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "duration": durationSeconds = Integer.parseInt(value); break;
+                case "bulk": bulk = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        bulk = Math.min(bulk, flightCount);
+
+        List<AirplaneReservationSystem.Flight> local = new ArrayList<>();
+        List<AirplaneReservationSystem.Flight> international = new ArrayList<>();
+        for (int i = 1; i <= flightCount; i++) {
+            AirplaneReservationSystem.Flight f = new AirplaneReservationSystem.Flight(i, "Route " + i, 1500 + 37.5 * i, 180);
+            (i % 3 == 0 ? international : local).add(f);
+        }
+        List<AirplaneReservationSystem.Flight> all = new ArrayList<>(local);
+        all.addAll(international);
+        FareRules rules = FareRules.build(local, international);
+        String[] classes = FareRules.FARE_CLASSES.keySet().toArray(new String[0]);
+
+        System.out.printf("%d flights, %d threads, %d s per phase, bulk size %d%n", flightCount, threads, durationSeconds, bulk);
+        run("warm-up", rules, all, classes, threads, Math.max(1, durationSeconds / 2), 0);
+        run("single", rules, all, classes, threads, durationSeconds, 0);
+        run("bulk", rules, all, classes, threads, durationSeconds, bulk);
+    }
+
+    // bulk = 0 prices one flight per call; otherwise quoteAll() over a random window of bulk flights
+    private static void run(String phase, FareRules rules, List<AirplaneReservationSystem.Flight> flights, String[] classes,
+                            int threads, int seconds, int bulk) throws InterruptedException {
+        LongAdder quotes = new LongAdder();
+        LongAdder checksum = new LongAdder(); // keeps the JIT from discarding the work
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long n = 0;
+                double sum = 0;
+                for (long i = 0; (i & 255) != 0 || System.nanoTime() < end; i++) {
+                    String fareClass = classes[rnd.nextInt(classes.length)];
+                    int persons = 1 + rnd.nextInt(9);
+                    int children = rnd.nextInt(persons + 1);
+                    if (bulk == 0) {
+                        sum += rules.quote(flights.get(rnd.nextInt(flights.size())), fareClass, persons, children).totalPrice;
+                        n++;
+                    } else {
+                        int from = rnd.nextInt(flights.size() - bulk + 1);
+                        for (BookingService.Quote q : rules.quoteAll(flights.subList(from, from + bulk), fareClass, persons, children)) {
+                            sum += q.totalPrice;
+                        }
+                        n += bulk;
+                    }
+                }
+                quotes.add(n);
+                checksum.add((long) sum);
+            }, "fare-bench-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread w : workers) w.join();
+        System.out.printf("%-8s %,14.0f quotes/s  (checksum %d)%n", phase, quotes.sum() / (double) seconds, checksum.sum() % 1000);
+    }
+}
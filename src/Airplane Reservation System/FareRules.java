@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fare rules (classes and multipliers, child and group discounts, taxes) and the quote tables built from them.
+// A FareRules instance is an immutable snapshot: per flight and fare class it holds the precomputed adult fare,
+// child fare and per-passenger fee, so pricing a quote is an array lookup plus a few multiplications with no
+// database access and no locking. The snapshot is loaded once from the flight list and swapped atomically by
+// reload(); a flight missing from it (added after loading) triggers one reload. With dynamic pricing enabled,
+// DynamicPricing publishes a copy with repriced base fares after every repricing run.
+public final class FareRules {
+
+    // --- FARE RULES ---
+    public static final Map<String, Double> FARE_CLASSES = fareClasses();
+    public static final double CHILD_DISCOUNT = 0.25;        // off the fare for each child passenger
+    public static final int GROUP_MIN_PASSENGERS = 5;
+    public static final double GROUP_DISCOUNT = 0.10;        // off all fares for groups of GROUP_MIN_PASSENGERS or more
+    public static final double VAT_RATE = 0.12;              // on the discounted fare
+    public static final double LOCAL_PASSENGER_FEE = 200.0;  // terminal fee per passenger, domestic flights
+    public static final double INTERNATIONAL_PASSENGER_FEE = 750.0;
+
+    private static Map<String, Double> fareClasses() {
+        Map<String, Double> classes = new LinkedHashMap<>();
+        classes.put("Economy", 1.0);
+        classes.put("Economy Plus", 1.5);
+        classes.put("Business Class", 2.0);
+        classes.put("First Class", 3.0);
+        return Collections.unmodifiableMap(classes);
+    }
+
+    private static final String[] CLASS_NAMES = FARE_CLASSES.keySet().toArray(new String[0]);
+    private static final int CLASS_COUNT = CLASS_NAMES.length;
+    // Shared, never modified: every quote for a class refers to the same Fare
+    private static final AirplaneReservationSystem.Fare[] FARES = new AirplaneReservationSystem.Fare[CLASS_COUNT];
+    static {
+        for (int c = 0; c < CLASS_COUNT; c++) {
+            FARES[c] = new AirplaneReservationSystem.Fare(CLASS_NAMES[c], FARE_CLASSES.get(CLASS_NAMES[c]));
+        }
+    }
+
+    private static volatile FareRules current;
+
+    private final Map<Integer, Integer> slotByFlightId;
+    private final double[] adultFares;    // [slot * CLASS_COUNT + class]
+    private final double[] childFares;    // [slot * CLASS_COUNT + class]
+    private final double[] passengerFees; // [slot]
+
+    private FareRules(List<AirplaneReservationSystem.Flight> localFlights, List<AirplaneReservationSystem.Flight> internationalFlights) {
+        int size = localFlights.size() + internationalFlights.size();
+        Map<Integer, Integer> slots = new HashMap<>(size * 2);
+        adultFares = new double[size * CLASS_COUNT];
+        childFares = new double[size * CLASS_COUNT];
+        passengerFees = new double[size];
+        int slot = 0;
+        for (AirplaneReservationSystem.Flight f : localFlights) fill(slots, slot++, f, LOCAL_PASSENGER_FEE);
+        for (AirplaneReservationSystem.Flight f : internationalFlights) fill(slots, slot++, f, INTERNATIONAL_PASSENGER_FEE);
+        slotByFlightId = Collections.unmodifiableMap(slots);
+    }
+
+    private FareRules(FareRules source) {
+        slotByFlightId = source.slotByFlightId;
+        adultFares = source.adultFares.clone();
+        childFares = source.childFares.clone();
+        passengerFees = source.passengerFees;
+    }
+
+    private void fill(Map<Integer, Integer> slots, int slot, AirplaneReservationSystem.Flight flight, double passengerFee) {
+        slots.put(flight.getId(), slot);
+        passengerFees[slot] = passengerFee;
+        setBaseFare(slot, flight.getBaseFare());
+    }
+
+    private void setBaseFare(int slot, double baseFare) {
+        for (int c = 0; c < CLASS_COUNT; c++) {
+            double adult = baseFare * FARES[c].getMultiplier();
+            adultFares[slot * CLASS_COUNT + c] = adult;
+            childFares[slot * CLASS_COUNT + c] = adult * (1 - CHILD_DISCOUNT);
+        }
+    }
+
+    // A copy of these tables with the given base fares (by flight id) in place of the loaded ones;
+    // flights not in this snapshot are ignored
+    FareRules withBaseFares(Map<Integer, Double> baseFares) {
+        FareRules copy = new FareRules(this);
+        for (Map.Entry<Integer, Double> e : baseFares.entrySet()) {
+            Integer slot = slotByFlightId.get(e.getKey());
+            if (slot != null) copy.setBaseFare(slot, e.getValue());
+        }
+        return copy;
+    }
+
+    // Tables for the given flights, without touching the database (e.g. for benchmarks)
+    static FareRules build(List<AirplaneReservationSystem.Flight> localFlights, List<AirplaneReservationSystem.Flight> internationalFlights) {
+        return new FareRules(localFlights, internationalFlights);
+    }
+
+    // The current snapshot, loading it on first use
+    public static FareRules get() {
+        FareRules rules = current;
+        return rules != null ? rules : reload();
+    }
+
+    // Rebuilds the tables from the flights table and publishes them to all later quotes
+    public static synchronized FareRules reload() {
+        FareRules rules = new FareRules(DatabaseManager.getFlights(true), DatabaseManager.getFlights(false));
+        if (DynamicPricing.ENABLED) rules = rules.withBaseFares(DynamicPricing.getPublishedFares());
+        current = rules;
+        return rules;
+    }
+
+    // Publishes a copy of the current snapshot with the given base fares to all later quotes
+    static synchronized FareRules applyBaseFares(Map<Integer, Double> baseFares) {
+        FareRules rules = get().withBaseFares(baseFares);
+        current = rules;
+        return rules;
+    }
+
+    public int size() {
+        return passengerFees.length;
+    }
+
+    public static int classIndex(String fareClass) {
+        for (int c = 0; c < CLASS_COUNT; c++) {
+            if (CLASS_NAMES[c].equals(fareClass)) return c;
+        }
+        throw new IllegalArgumentException("Unknown fare class: " + fareClass);
+    }
+
+    private static void checkPassengers(int persons, int children) {
+        if (persons < 1) throw new IllegalArgumentException("At least one person is required.");
+        if (children < 0 || children > persons) {
+            throw new IllegalArgumentException("Children must be between 0 and the number of persons.");
+        }
+    }
+
+    // Prices persons passengers (children of them children) in fareClass on flight.
+    // Throws IllegalArgumentException for an unknown fare class or an impossible passenger count.
+    public BookingService.Quote quote(AirplaneReservationSystem.Flight flight, String fareClass, int persons, int children) {
+        checkPassengers(persons, children);
+        return price(flight, classIndex(fareClass), persons, children);
+    }
+
+    // Prices every flight at once (e.g. a whole search result) with one class lookup and one snapshot;
+    // the quotes are in the order of flights.
+    public List<BookingService.Quote> quoteAll(List<AirplaneReservationSystem.Flight> flights, String fareClass, int persons, int children) {
+        checkPassengers(persons, children);
+        int c = classIndex(fareClass);
+        List<BookingService.Quote> quotes = new ArrayList<>(flights.size());
+        for (AirplaneReservationSystem.Flight flight : flights) {
+            quotes.add(price(flight, c, persons, children));
+        }
+        return quotes;
+    }
+
+    private BookingService.Quote price(AirplaneReservationSystem.Flight flight, int c, int persons, int children) {
+        Integer slot = slotByFlightId.get(flight.getId());
+        if (slot == null) {
+            FareRules reloaded = this == current ? reload() : get();
+            if (reloaded.slotByFlightId.containsKey(flight.getId())) return reloaded.price(flight, c, persons, children);
+            throw new IllegalArgumentException("No fares loaded for flight " + flight.getId() + ".");
+        }
+        int cell = slot * CLASS_COUNT + c;
+        double fullFares = persons * adultFares[cell];
+        double fares = (persons - children) * adultFares[cell] + children * childFares[cell];
+        if (persons >= GROUP_MIN_PASSENGERS) fares *= 1 - GROUP_DISCOUNT;
+        double taxes = fares * VAT_RATE + persons * passengerFees[slot];
+        return new BookingService.Quote(flight, FARES[c], persons, children, fares, fullFares - fares, taxes, fares + taxes);
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Size-bounded LRU cache of flight rows, looked up by id or by route.
+// DatabaseManager invalidates a flight when it changes its row (status update); bookings and cancellations
+// leave the row alone, since seat occupancy is served by SeatInventory. Entries also expire after
+// MAX_AGE_MILLIS to pick up changes made by other app instances.
+public class FlightCatalogCache {
+
+    private static final int MAX_ENTRIES = 1000;
+    private static final long MAX_AGE_MILLIS = 30000;
+
+    public static class Entry {
+        public final int id;
+        public final String route;
+        public final double baseFare;
+        public final int totalSeats;
+        public final AirplaneReservationSystem.FlightStatus status;
+        final long loadedAt;
+
+        Entry(int id, String route, double baseFare, int totalSeats, AirplaneReservationSystem.FlightStatus status,
+              long loadedAt) {
+            this.id = id;
+            this.route = route;
+            this.baseFare = baseFare;
+            this.totalSeats = totalSeats;
+            this.status = status;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final Object lock = new Object();
+    private static final Map<String, Integer> idByRoute = new HashMap<>();
+    private static final LinkedHashMap<Integer, Entry> byId = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                idByRoute.remove(eldest.getValue().route);
+                return true;
+            }
+            return false;
+        }
+    };
+    // Flight id -> invalidation sequence number of its last invalidate(), oldest first, so put() can reject a
+    // row read before that flight changed. Capped at MAX_ENTRIES: stamps at or below the highest evicted
+    // sequence number can no longer be checked and are refused.
+    private static final LinkedHashMap<Integer, Long> invalidatedAt = new LinkedHashMap<Integer, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictedUpTo = eldest.getValue();
+                return true;
+            }
+            return false;
+        }
+    };
+    private static long evictedUpTo = 0;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong invalidations = new AtomicLong();
+
+    public static Entry getById(int flightId) {
+        synchronized (lock) {
+            return countLookup(fresh(byId.get(flightId)));
+        }
+    }
+
+    public static Entry getByRoute(String route) {
+        synchronized (lock) {
+            Integer id = idByRoute.get(route);
+            return countLookup(id == null ? null : fresh(byId.get(id)));
+        }
+    }
+
+    private static Entry fresh(Entry e) {
+        if (e != null && System.currentTimeMillis() - e.loadedAt > MAX_AGE_MILLIS) {
+            byId.remove(e.id);
+            idByRoute.remove(e.route);
+            return null;
+        }
+        return e;
+    }
+
+    private static Entry countLookup(Entry e) {
+        if (e == null) misses.incrementAndGet(); else hits.incrementAndGet();
+        return e;
+    }
+
+    // Token to take before querying the database; pass it to put() so a row read before a concurrent
+    // invalidation of the same flight is not cached over the newer state. Other flights' changes don't matter.
+    public static long stamp() {
+        return invalidations.get();
+    }
+
+    public static Entry put(AirplaneReservationSystem.Flight flight, long stamp) {
+        synchronized (lock) {
+            Long changed = invalidatedAt.get(flight.getId());
+            if (stamp < evictedUpTo || (changed != null && changed > stamp)) return null;
+            Entry e = new Entry(flight.getId(), flight.getRoute(), flight.getBaseFare(), flight.getTotalSeats(),
+                    flight.getCurrentStatus(), System.currentTimeMillis());
+            Entry old = byId.put(e.id, e);
+            if (old != null && !old.route.equals(e.route)) idByRoute.remove(old.route);
+            idByRoute.put(e.route, e.id);
+            return e;
+        }
+    }
+
+    // Invalidation hook: drops the cached row and records when, for put()
+    public static void invalidate(int flightId) {
+        synchronized (lock) {
+            Entry old = byId.remove(flightId);
+            if (old != null) idByRoute.remove(old.route);
+            invalidatedAt.remove(flightId); // re-insert at the young end
+            invalidatedAt.put(flightId, invalidations.incrementAndGet());
+        }
+    }
+
+    public static void clear() {
+        synchronized (lock) {
+            byId.clear();
+            idByRoute.clear();
+        }
+    }
+
+    public static long getHits() { return hits.get(); }
+    public static long getMisses() { return misses.get(); }
+    public static long getInvalidations() { return invalidations.get(); }
+
+    public static double getHitRate() {
+        long h = hits.get(), m = misses.get();
+        return h + m == 0 ? 0.0 : (double) h / (h + m) * 100.0;
+    }
+
+    public static int size() {
+        synchronized (lock) {
+            return byId.size();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// In-process publish/subscribe bus for flight changes, so open screens can apply small diffs
+// instead of re-reading reserved_seats and flights on a timer.
+// DatabaseManager publishes after each committed booking, cancellation, check-in or status change.
+// Subscribers register per flight id (or for everything) and are called on the publishing thread,
+// which is never the EDT; UI subscribers must hop over with SwingUtilities.invokeLater.
+// An optional Transport forwards events to other app instances; events received from it also
+// refresh this instance's SeatInventory and FlightCatalogCache before subscribers see them.
+public class FlightEventBus {
+
+    public interface FlightEvent {
+        int getFlightId();
+    }
+
+    // Seats taken by a new booking (reserved) or freed by a cancellation (released).
+    public static class SeatsChanged implements FlightEvent {
+        public final int flightId;
+        public final String pnr;
+        public final BitSet reserved;
+        public final BitSet released;
+
+        public SeatsChanged(int flightId, String pnr, BitSet reserved, BitSet released) {
+            this.flightId = flightId;
+            this.pnr = pnr;
+            this.reserved = reserved;
+            this.released = released;
+        }
+
+        @Override
+        public int getFlightId() { return flightId; }
+    }
+
+    public static class CheckInChanged implements FlightEvent {
+        public final int flightId;
+        public final String pnr;
+        public final boolean checkedIn;
+
+        public CheckInChanged(int flightId, String pnr, boolean checkedIn) {
+            this.flightId = flightId;
+            this.pnr = pnr;
+            this.checkedIn = checkedIn;
+        }
+
+        @Override
+        public int getFlightId() { return flightId; }
+    }
+
+    // Carries encoded events between app instances. start() hands the transport a receiver for
+    // messages published by other instances; a transport must not echo an instance's own messages back.
+    // A transport that loses its connection calls transportReconnected() once it is back.
+    public interface Transport {
+        void start(Consumer<String> receiver) throws IOException;
+        void send(String message);
+        void close();
+    }
+
+    public static final class Subscription {
+        private final List<Consumer<FlightEvent>> list;
+        private final Consumer<FlightEvent> subscriber;
+
+        private Subscription(List<Consumer<FlightEvent>> list, Consumer<FlightEvent> subscriber) {
+            this.list = list;
+            this.subscriber = subscriber;
+        }
+
+        public void cancel() {
+            list.remove(subscriber);
+        }
+    }
+
+    private static final ConcurrentHashMap<Integer, List<Consumer<FlightEvent>>> byFlight = new ConcurrentHashMap<>();
+    private static final List<Consumer<FlightEvent>> allFlights = new CopyOnWriteArrayList<>();
+    private static volatile Transport transport;
+
+    public static Subscription subscribe(int flightId, Consumer<FlightEvent> subscriber) {
+        List<Consumer<FlightEvent>> list = byFlight.computeIfAbsent(flightId, k -> new CopyOnWriteArrayList<>());
+        list.add(subscriber);
+        return new Subscription(list, subscriber);
+    }
+
+    public static Subscription subscribeAll(Consumer<FlightEvent> subscriber) {
+        allFlights.add(subscriber);
+        return new Subscription(allFlights, subscriber);
+    }
+
+    public static void publish(FlightEvent event) {
+        deliver(event);
+        Transport t = transport;
+        if (t != null) {
+            try {
+                t.send(encode(event));
+            } catch (RuntimeException e) {
+                System.err.println("Failed to forward flight event: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void deliver(FlightEvent event) {
+        List<Consumer<FlightEvent>> list = byFlight.get(event.getFlightId());
+        if (list != null) {
+            for (Consumer<FlightEvent> subscriber : list) notify(subscriber, event);
+        }
+        for (Consumer<FlightEvent> subscriber : allFlights) notify(subscriber, event);
+    }
+
+    private static void notify(Consumer<FlightEvent> subscriber, FlightEvent event) {
+        try {
+            subscriber.accept(event);
+        } catch (RuntimeException e) {
+            System.err.println("Flight event subscriber failed: " + e.getMessage());
+        }
+    }
+
+    // Replaces the current transport (null = this instance only).
+    public static synchronized void setTransport(Transport newTransport) {
+        Transport old = transport;
+        transport = null;
+        if (old != null) old.close();
+        if (newTransport == null) return;
+        try {
+            newTransport.start(FlightEventBus::receive);
+            transport = newTransport;
+        } catch (IOException e) {
+            System.err.println("Flight event transport unavailable, events stay local: " + e.getMessage());
+        }
+    }
+
+    // Events published while the transport was down never arrived, so caches fed by them may be stale
+    public static void transportReconnected() {
+        SeatInventory.clear();
+    }
+
+    private static void receive(String message) {
+        FlightEvent event;
+        try {
+            event = decode(message);
+        } catch (RuntimeException e) {
+            System.err.println("Ignoring malformed flight event: " + message);
+            return;
+        }
+        if (event == null) return;
+
+        // Another instance changed the database; bring this instance's caches up to date first
+        if (event instanceof SeatsChanged) {
+            SeatsChanged seats = (SeatsChanged) event;
+            SeatInventory.reserve(seats.flightId, SeatInventory.toSeatIds(seats.reserved));
+            SeatInventory.release(seats.flightId, SeatInventory.toSeatIds(seats.released));
+        } else if (event instanceof FlightStatusEngine.FlightStatusChanged) {
+            FlightCatalogCache.invalidate(event.getFlightId());
+        }
+        deliver(event);
+    }
+
+    // --- Wire format: one tab-separated line per event ---
+
+    static String encode(FlightEvent event) {
+        if (event instanceof SeatsChanged) {
+            SeatsChanged e = (SeatsChanged) event;
+            return "SEATS\t" + e.flightId + "\t" + e.pnr + "\t" + encodeBits(e.reserved) + "\t" + encodeBits(e.released);
+        }
+        if (event instanceof CheckInChanged) {
+            CheckInChanged e = (CheckInChanged) event;
+            return "CHECKIN\t" + e.flightId + "\t" + e.pnr + "\t" + e.checkedIn;
+        }
+        if (event instanceof FlightStatusEngine.FlightStatusChanged) {
+            FlightStatusEngine.FlightStatusChanged e = (FlightStatusEngine.FlightStatusChanged) event;
+            return "STATUS\t" + e.flightId + "\t" + e.oldStatus.name() + "\t" + e.newStatus.name();
+        }
+        throw new IllegalArgumentException("Unknown flight event type: " + event.getClass().getName());
+    }
+
+    static FlightEvent decode(String message) {
+        String[] f = message.split("\t", -1);
+        switch (f[0]) {
+            case "SEATS":
+                return new SeatsChanged(Integer.parseInt(f[1]), f[2], decodeBits(f[3]), decodeBits(f[4]));
+            case "CHECKIN":
+                return new CheckInChanged(Integer.parseInt(f[1]), f[2], Boolean.parseBoolean(f[3]));
+            case "STATUS":
+                return new FlightStatusEngine.FlightStatusChanged(Integer.parseInt(f[1]),
+                        AirplaneReservationSystem.FlightStatus.valueOf(f[2]), AirplaneReservationSystem.FlightStatus.valueOf(f[3]));
+            default:
+                return null; // Newer event type from a newer instance
+        }
+    }
+
+    private static String encodeBits(BitSet bits) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(i);
+        }
+        return sb.toString();
+    }
+
+    private static BitSet decodeBits(String s) {
+        BitSet bits = new BitSet();
+        if (s.isEmpty()) return bits;
+        for (String idx : s.split(",")) bits.set(Integer.parseInt(idx));
+        return bits;
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Simulates live flight status changes (on time / delayed / canceled) on its own scheduler thread.
+// Each tick reads only flight_id and current_status, picks a few flights to change, writes them with
+// one batched UPDATE via DatabaseManager.updateFlightStatuses(), which publishes a FlightStatusChanged
+// event on FlightEventBus for every real transition.
+public class FlightStatusEngine {
+
+    public static class FlightStatusChanged implements FlightEventBus.FlightEvent {
+        public final int flightId;
+        public final AirplaneReservationSystem.FlightStatus oldStatus;
+        public final AirplaneReservationSystem.FlightStatus newStatus;
+
+        public FlightStatusChanged(int flightId, AirplaneReservationSystem.FlightStatus oldStatus,
+                                   AirplaneReservationSystem.FlightStatus newStatus) {
+            this.flightId = flightId;
+            this.oldStatus = oldStatus;
+            this.newStatus = newStatus;
+        }
+
+        @Override
+        public int getFlightId() { return flightId; }
+    }
+
+    private static final long DEFAULT_PERIOD_MS = 15000;
+
+    private static final Random rand = new Random();
+    private static ScheduledExecutorService scheduler;
+
+    public static void start() {
+        start(DEFAULT_PERIOD_MS);
+    }
+
+    public static synchronized void start(long periodMillis) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flight-status-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                // An uncaught exception would cancel all future ticks
+                System.err.println("Flight status engine tick failed: " + e.getMessage());
+            }
+        }, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    // One simulation step: change 1-3 random flights (5% canceled, 15% delayed, 80% on time).
+    static void tick() {
+        List<DatabaseManager.FlightStatusRow> flights = DatabaseManager.getFlightStatuses();
+        if (flights.isEmpty()) return;
+
+        Map<Integer, AirplaneReservationSystem.FlightStatus> changes = new LinkedHashMap<>();
+        int count = rand.nextInt(3) + 1;
+        for (int i = 0; i < count; i++) {
+            DatabaseManager.FlightStatusRow flight = flights.get(rand.nextInt(flights.size()));
+            int r = rand.nextInt(100);
+            AirplaneReservationSystem.FlightStatus newStatus = AirplaneReservationSystem.FlightStatus.ON_TIME;
+            if (r < 5) newStatus = AirplaneReservationSystem.FlightStatus.CANCELED;
+            else if (r < 20) newStatus = AirplaneReservationSystem.FlightStatus.DELAYED;
+
+            if (flight.status != newStatus) {
+                changes.put(flight.flightId, newStatus);
+            }
+        }
+        if (changes.isEmpty()) return;
+
+        DatabaseManager.updateFlightStatuses(changes);
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size, lock-free latency histogram in microseconds (a small stand-in for HdrHistogram).
+// Buckets are log-linear: values below SUB_BUCKETS get one bucket each, and every power of two above
+// that is split into SUB_BUCKETS equal buckets, so any recorded value is reported within ~3% (1/32).
+// record() is a handful of arithmetic ops and one atomic increment; it never allocates or locks.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 32
+    private static final int MAX_EXPONENT = 40; // ~12.7 days in microseconds; larger values are clamped
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketFor(micros));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        long m;
+        while (micros > (m = max.get()) && !max.compareAndSet(m, micros)) {
+            // retry
+        }
+    }
+
+    static int bucketFor(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Upper bound of the values that land in the bucket
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    public double getMeanMicros() {
+        long n = total.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+
+    // Value at the given percentile (0-100), in microseconds. Concurrent records may or may not be included.
+    public long percentileMicros(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(bucketUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // "n=120 mean=3.2ms p50=2.9ms p90=5.1ms p99=9.8ms p99.9=12.0ms max=12.4ms"
+    public String summary() {
+        return String.format("n=%d mean=%s p50=%s p90=%s p99=%s p99.9=%s max=%s", getCount(),
+                format((long) getMeanMicros()), format(percentileMicros(50)), format(percentileMicros(90)),
+                format(percentileMicros(99)), format(percentileMicros(99.9)), format(getMaxMicros()));
+    }
+
+    static String format(long micros) {
+        if (micros < 1000) return micros + "us";
+        if (micros < 1_000_000) return String.format("%.1fms", micros / 1000.0);
+        return String.format("%.2fs", micros / 1_000_000.0);
+    }
+}
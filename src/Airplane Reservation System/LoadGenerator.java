@@ -0,0 +1,333 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless booking load test. Customers arrive at a fixed rate (open loop) and each runs
+// search -> seat selection -> hold -> payment think time -> book, against the live database.
+// At most `customers` run at once; arrivals that find every slot busy are counted as dropped, which is
+// the signal that the configured rate is beyond what the system sustains.
+// Seat choice is skewed toward the front of the cabin (Zipf with exponent `skew`; 0 = uniform) to create
+// contention. mode=direct skips BookingService and seat holds and books with the raw
+// getFlightById -> areSeatsAvailable -> createBooking sequence, to exercise its check-then-insert race.
+// After the run, reserved_seats is checked for seats sold twice, and (cleanup=true) the test bookings are cancelled.
+//
+//   java LoadGenerator user=user1 password=pass1 customers=50 rate=20 duration=30 seats=2 skew=1.2 think=200 mode=service
+public class LoadGenerator {
+
+    static class Config {
+        String user = "user1";
+        String password = "pass1";
+        int customers = 50;         // max concurrent customers
+        double rate = 20;           // arrivals per second
+        int durationSeconds = 30;
+        int seatsPerBooking = 1;
+        double skew = 1.0;          // Zipf exponent for flight and seat choice
+        long thinkMillis = 0;       // simulated payment time between hold and book
+        boolean direct = false;
+        boolean cleanup = true;
+        String flightIds = null;    // comma-separated; default = every flight not canceled
+
+        static Config parse(String[] args) {
+            Config c = new Config();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+                String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+                switch (key) {
+                    case "user": c.user = value; break;
+                    case "password": c.password = value; break;
+                    case "customers": c.customers = Integer.parseInt(value); break;
+                    case "rate": c.rate = Double.parseDouble(value); break;
+                    case "duration": c.durationSeconds = Integer.parseInt(value); break;
+                    case "seats": c.seatsPerBooking = Integer.parseInt(value); break;
+                    case "skew": c.skew = Double.parseDouble(value); break;
+                    case "think": c.thinkMillis = Long.parseLong(value); break;
+                    case "mode": c.direct = "direct".equalsIgnoreCase(value); break;
+                    case "cleanup": c.cleanup = Boolean.parseBoolean(value); break;
+                    case "flights": c.flightIds = value; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + key);
+                }
+            }
+            if (c.customers < 1 || c.rate <= 0 || c.durationSeconds < 1 || c.seatsPerBooking < 1) {
+                throw new IllegalArgumentException("customers, rate, duration and seats must be positive");
+            }
+            return c;
+        }
+    }
+
+    // Inverse-CDF sampler for ranks 0..n-1 with P(k) proportional to 1/(k+1)^s
+    static class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double s) {
+            cdf = new double[n];
+            double total = 0;
+            for (int k = 0; k < n; k++) {
+                total += 1.0 / Math.pow(k + 1, s);
+                cdf[k] = total;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= total;
+        }
+
+        int sample(Random rnd) {
+            int i = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+        }
+    }
+
+    private final Config cfg;
+    private final BookingService service = new DefaultBookingService();
+    private final AirplaneReservationSystem.User account;
+    private final List<AirplaneReservationSystem.Flight> flights;
+    private final Zipf flightChooser;
+    private final Map<Integer, Zipf> seatChoosers = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private final LatencyHistogram selectLatency = new LatencyHistogram();
+    private final LatencyHistogram holdLatency = new LatencyHistogram();
+    private final LatencyHistogram bookLatency = new LatencyHistogram();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+
+    private final AtomicLong arrivals = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong holdConflicts = new AtomicLong();
+    private final AtomicLong bookConflicts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> createdPnrs = new ConcurrentLinkedQueue<>();
+    private double elapsedSeconds;
+
+    LoadGenerator(Config cfg, AirplaneReservationSystem.User account, List<AirplaneReservationSystem.Flight> flights) {
+        this.cfg = cfg;
+        this.account = account;
+        this.flights = flights;
+        this.flightChooser = new Zipf(flights.size(), cfg.skew);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Config cfg = Config.parse(args);
+        AirplaneReservationSystem.User account = DatabaseManager.validateUser(cfg.user, cfg.password);
+        if (account == null) {
+            System.err.println("Login failed for " + cfg.user);
+            System.exit(1);
+        }
+        List<AirplaneReservationSystem.Flight> flights = new ArrayList<>();
+        for (AirplaneReservationSystem.Flight f : new DefaultBookingService().searchFlights(null, null)) {
+            if (f.getCurrentStatus() == AirplaneReservationSystem.FlightStatus.CANCELED) continue;
+            if (cfg.flightIds != null && !("," + cfg.flightIds + ",").contains("," + f.getId() + ",")) continue;
+            flights.add(f);
+        }
+        if (flights.isEmpty()) {
+            System.err.println("No bookable flights found.");
+            System.exit(1);
+        }
+
+        LoadGenerator gen = new LoadGenerator(cfg, account, flights);
+        gen.run();
+        gen.report();
+        gen.checkOversell();
+        if (cfg.cleanup) gen.cleanup();
+        DatabaseManager.shutdownAuditLog(10000);
+        DatabaseManager.closeConnection();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("Load test: %s mode, %.1f arrivals/s for %ds, max %d concurrent, %d seat(s) each, skew %.2f, %d flights%n",
+                cfg.direct ? "direct" : "service", cfg.rate, cfg.durationSeconds, cfg.customers, cfg.seatsPerBooking,
+                cfg.skew, flights.size());
+        Semaphore slots = new Semaphore(cfg.customers);
+        ExecutorService workers = AsyncDatabase.newExecutor("load-customer-");
+        ScheduledExecutorService arrivalClock = Executors.newSingleThreadScheduledExecutor();
+        long periodNanos = Math.max(1000, (long) (1_000_000_000L / cfg.rate));
+        long start = System.nanoTime();
+
+        arrivalClock.scheduleAtFixedRate(() -> {
+            arrivals.incrementAndGet();
+            if (!slots.tryAcquire()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    customer();
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                    System.err.println("Customer failed: " + e);
+                } finally {
+                    slots.release();
+                }
+            });
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        for (int s = 5; s < cfg.durationSeconds; s += 5) {
+            Thread.sleep(5000);
+            System.out.printf("  t=%3ds  confirmed=%d (%.1f/s)  conflicts=%d  dropped=%d%n", s, confirmed.get(),
+                    confirmed.get() / ((System.nanoTime() - start) / 1e9), holdConflicts.get() + bookConflicts.get(), dropped.get());
+        }
+        Thread.sleep(Math.max(0, TimeUnit.SECONDS.toMillis(cfg.durationSeconds) - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        arrivalClock.shutdownNow();
+        // Let customers already in flight finish
+        if (!slots.tryAcquire(cfg.customers, 60, TimeUnit.SECONDS)) {
+            System.err.println("Some customers were still running after 60 s.");
+        }
+        workers.shutdown();
+        elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    }
+
+    private void customer() {
+        long t0 = System.nanoTime();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        // Own copy per customer: User is not thread-safe (booking PNR set, loyalty points)
+        AirplaneReservationSystem.User user = new AirplaneReservationSystem.User(account.getUserId(), account.getUsername(), null, account.getRole());
+        String holdOwner = "load-" + Thread.currentThread().getId() + "-" + t0;
+
+        long t = System.nanoTime();
+        service.searchFlights(null, null);
+        searchLatency.recordNanos(System.nanoTime() - t);
+
+        int flightId = flights.get(flightChooser.sample(rnd)).getId();
+        t = System.nanoTime();
+        AirplaneReservationSystem.Flight flight = service.getFlight(flightId);
+        Set<String> seats = flight == null ? null : chooseSeats(flight, rnd);
+        selectLatency.recordNanos(System.nanoTime() - t);
+        if (seats == null) {
+            soldOut.incrementAndGet();
+            return;
+        }
+        double quoted = service.quote(flight, "Economy", seats.size()).totalPrice; // the price the customer agrees to
+
+        if (!cfg.direct) {
+            t = System.nanoTime();
+            boolean held = service.holdSeats(flightId, seats, holdOwner);
+            holdLatency.recordNanos(System.nanoTime() - t);
+            if (!held) {
+                holdConflicts.incrementAndGet();
+                totalLatency.recordNanos(System.nanoTime() - t0);
+                return;
+            }
+        }
+
+        if (cfg.thinkMillis > 0) {
+            try {
+                Thread.sleep(cfg.thinkMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        t = System.nanoTime();
+        if (cfg.direct) {
+            bookDirect(user, flightId, seats);
+        } else {
+            BookingService.BookingResult result = service.book(user, flightId, "Economy", seats.size(), 0, seats, "LoadTest", holdOwner, quoted);
+            switch (result.status) {
+                case CONFIRMED:
+                    confirmed.incrementAndGet();
+                    createdPnrs.add(result.booking.getPnr());
+                    break;
+                case SEATS_UNAVAILABLE:
+                case FLIGHT_CANCELED:
+                case PRICE_CHANGED:
+                    bookConflicts.incrementAndGet();
+                    break;
+                default:
+                    failed.incrementAndGet();
+            }
+        }
+        bookLatency.recordNanos(System.nanoTime() - t);
+        totalLatency.recordNanos(System.nanoTime() - t0);
+    }
+
+    // The pre-service flow: check availability, then insert. Losers of the race surface as createBooking failures
+    // (duplicate key on unique_flight_seat) or, without that key, as double-sold seats.
+    private void bookDirect(AirplaneReservationSystem.User user, int flightId, Set<String> seats) {
+        AirplaneReservationSystem.Flight flight = DatabaseManager.getFlightById(flightId);
+        if (flight == null || !flight.areSeatsAvailable(seats)) {
+            bookConflicts.incrementAndGet();
+            return;
+        }
+        BookingService.Quote quote = service.quote(flight, "Economy", seats.size());
+        String pnr = PnrAllocator.nextPnr();
+        AirplaneReservationSystem.Booking booking = DatabaseManager.createBooking(user, flight, quote.fare, quote.totalPrice,
+                seats, seats.size(), "LoadTest", pnr);
+        if (booking == null) {
+            failed.incrementAndGet();
+        } else {
+            confirmed.incrementAndGet();
+            createdPnrs.add(pnr);
+        }
+    }
+
+    // Picks free seats with a front-of-cabin bias; null if the flight has too few free seats.
+    private Set<String> chooseSeats(AirplaneReservationSystem.Flight flight, Random rnd) {
+        if (flight.getAvailableSeats() < cfg.seatsPerBooking) return null;
+        Zipf chooser = seatChoosers.computeIfAbsent(flight.getId(), id -> new Zipf(flight.getTotalSeats(), cfg.skew));
+        BitSet reserved = flight.getReservedSeatBits();
+        Set<String> seats = new LinkedHashSet<>();
+        for (int attempt = 0; seats.size() < cfg.seatsPerBooking && attempt < 50 * cfg.seatsPerBooking; attempt++) {
+            int idx = chooser.sample(rnd);
+            if (!reserved.get(idx)) seats.add(SeatInventory.decode(idx));
+        }
+        // Hot seats all taken: fall back to the first free ones
+        for (int idx = reserved.nextClearBit(0); seats.size() < cfg.seatsPerBooking && idx < flight.getTotalSeats();
+             idx = reserved.nextClearBit(idx + 1)) {
+            seats.add(SeatInventory.decode(idx));
+        }
+        return seats.size() == cfg.seatsPerBooking ? seats : null;
+    }
+
+    void report() {
+        long attempts = confirmed.get() + holdConflicts.get() + bookConflicts.get() + failed.get();
+        System.out.println();
+        System.out.printf("Elapsed %.1fs, arrivals %d, dropped (all %d customers busy) %d%n",
+                elapsedSeconds, arrivals.get(), cfg.customers, dropped.get());
+        System.out.printf("Throughput: %.1f bookings/s (%d confirmed)%n", confirmed.get() / elapsedSeconds, confirmed.get());
+        System.out.printf("Conflicts: %d at hold, %d at book (%.1f%% of attempts); failed %d; sold out %d; errors %d%n",
+                holdConflicts.get(), bookConflicts.get(),
+                attempts == 0 ? 0.0 : (holdConflicts.get() + bookConflicts.get()) * 100.0 / attempts,
+                failed.get(), soldOut.get(), errors.get());
+        System.out.println("Latency search:  " + searchLatency.summary());
+        System.out.println("Latency select:  " + selectLatency.summary());
+        if (!cfg.direct) System.out.println("Latency hold:    " + holdLatency.summary());
+        System.out.println("Latency book:    " + bookLatency.summary());
+        System.out.println("Latency total:   " + totalLatency.summary() + (cfg.thinkMillis > 0 ? " (incl. think time)" : ""));
+        ConnectionPool.Stats pool = DatabaseManager.getPoolStats();
+        System.out.printf("DB pool: max %d, avg wait %.1fms, max wait %.1fms, timeouts %d%n",
+                pool.maxSize, pool.avgWaitMillis, pool.maxWaitMillis, pool.timeouts);
+    }
+
+    void checkOversell() {
+        List<String> doubles = DatabaseManager.findDoubleSoldSeats();
+        if (doubles.isEmpty()) {
+            System.out.println("Oversell check: OK, no seat sold twice.");
+        } else {
+            System.out.println("Oversell check: " + doubles.size() + " seat(s) sold more than once: " + doubles);
+        }
+    }
+
+    void cleanup() {
+        AirplaneReservationSystem.User user = new AirplaneReservationSystem.User(account.getUserId(), account.getUsername(), null, account.getRole());
+        int cancelled = 0;
+        for (String pnr : createdPnrs) {
+            if (service.cancel(pnr, user)) cancelled++;
+        }
+        System.out.println("Cleanup: cancelled " + cancelled + " of " + createdPnrs.size() + " test booking(s).");
+    }
+}
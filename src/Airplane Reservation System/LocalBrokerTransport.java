@@ -0,0 +1,177 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// FlightEventBus transport that shares events between app instances on one machine through a tiny
+// line-based TCP broker on the loopback interface. This is a stand-in for a real message broker:
+// the first instance to start hosts the broker in-process and the others connect to it. The broker
+// relays every line to all clients except the sender. If the hosting instance exits, the remaining
+// instances reconnect and one of them takes over as broker.
+public class LocalBrokerTransport implements FlightEventBus.Transport {
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final int port;
+    private volatile boolean running = false;
+    private volatile Socket socket;
+    private volatile PrintWriter out;
+    private Broker hostedBroker;
+    private Thread readerThread;
+
+    public LocalBrokerTransport(int port) {
+        this.port = port;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) throws IOException {
+        running = true;
+        connectOrHost();
+        readerThread = new Thread(() -> readLoop(receiver), "flight-events-client");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    private synchronized void connectOrHost() throws IOException {
+        try {
+            connect();
+        } catch (IOException noBroker) {
+            try {
+                hostedBroker = new Broker(port);
+            } catch (IOException bindFailed) {
+                // Another instance won the race to host; fall through and connect to it
+            }
+            connect();
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket = s;
+        out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    private void readLoop(Consumer<String> receiver) {
+        while (running) {
+            try {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    receiver.accept(line);
+                }
+            } catch (IOException e) {
+                if (!running) return;
+            }
+            // Broker went away; reconnect (possibly hosting it ourselves)
+            while (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                    connectOrHost();
+                    FlightEventBus.transportReconnected();
+                    break;
+                } catch (IOException e) {
+                    System.err.println("Flight event broker unreachable: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        PrintWriter w = out;
+        if (w == null) return;
+        synchronized (w) {
+            w.println(message);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        closeQuietly(socket);
+        if (hostedBroker != null) {
+            hostedBroker.close();
+            hostedBroker = null;
+        }
+        if (readerThread != null) readerThread.interrupt();
+    }
+
+    private static void closeQuietly(java.io.Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // The relay itself: one thread accepting clients, one thread per client reading lines.
+    private static class Broker {
+        private final ServerSocket server;
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+        private static class Client {
+            final Socket socket;
+            final PrintWriter out;
+
+            Client(Socket socket) throws IOException {
+                this.socket = socket;
+                this.out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            }
+        }
+
+        Broker(int port) throws IOException {
+            server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptLoop, "flight-events-broker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Client client = new Client(server.accept());
+                    clients.add(client);
+                    Thread t = new Thread(() -> relay(client), "flight-events-broker-client");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    if (!server.isClosed()) System.err.println("Flight event broker accept failed: " + e.getMessage());
+                }
+            }
+        }
+
+        private void relay(Client from) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(from.socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    for (Client to : clients) {
+                        if (to == from) continue;
+                        synchronized (to.out) {
+                            to.out.println(line);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Client disconnected
+            } finally {
+                clients.remove(from);
+                closeQuietly(from.socket);
+            }
+        }
+
+        void close() {
+            closeQuietly(server);
+            for (Client c : clients) closeQuietly(c.socket);
+            clients.clear();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide registry of named operation timers ("db.createBooking", "ui.login", ...).
+// Each timer counts calls and errors and keeps a LatencyHistogram; recording a sample is a nanoTime()
+// read plus a few atomic updates, with no locks and no allocation. Timers are created once (usually into
+// a static final field) and published over JMX as AirplaneReservationSystem:type=Timer,name=<name>,
+// so jconsole/VisualVM can read them next to the admin panel's Performance tab.
+//
+//     long startNanos = System.nanoTime();
+//     try { ... } catch (SQLException e) { TIMER.error(); ... } finally { TIMER.record(startNanos); }
+public class Metrics {
+
+    public static final String JMX_DOMAIN = "AirplaneReservationSystem";
+
+    private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    // Attributes shown by JMX clients for each timer
+    public interface TimerMXBean {
+        String getName();
+        long getCount();
+        long getErrorCount();
+        double getErrorRatePercent();
+        double getMeanMicros();
+        long getP50Micros();
+        long getP99Micros();
+        long getMaxMicros();
+        void reset();
+    }
+
+    public static class Timer implements TimerMXBean {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        // Counts one call that started at startNanos (a System.nanoTime() value), successful or not
+        public void record(long startNanos) {
+            latency.recordNanos(System.nanoTime() - startNanos);
+        }
+
+        // Marks the current call as failed; record() still has to be called for it
+        public void error() {
+            errors.increment();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getErrorRatePercent() {
+            long count = getCount();
+            // error() runs before record(), so errors can briefly exceed calls
+            return count == 0 ? 0.0 : Math.min(100.0, getErrorCount() * 100.0 / count);
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return latency.getMeanMicros();
+        }
+
+        @Override
+        public long getP50Micros() {
+            return latency.percentileMicros(50);
+        }
+
+        @Override
+        public long getP99Micros() {
+            return latency.percentileMicros(99);
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return latency.getMaxMicros();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public void reset() {
+            latency.reset();
+            errors.reset();
+        }
+    }
+
+    // Returns the timer with this name, creating and registering it on first use. Not meant for hot paths:
+    // look timers up once and keep the reference.
+    public static Timer timer(String name) {
+        Timer existing = timers.get(name);
+        if (existing != null) return existing;
+        Timer created = new Timer(name);
+        existing = timers.putIfAbsent(name, created);
+        if (existing != null) return existing;
+        registerMBean(created);
+        return created;
+    }
+
+    // All timers sorted by name
+    public static List<Timer> getTimers() {
+        List<Timer> list = new ArrayList<>(timers.values());
+        list.sort(Comparator.comparing(Timer::getName));
+        return list;
+    }
+
+    public static void resetAll() {
+        for (Timer t : timers.values()) t.reset();
+    }
+
+    private static void registerMBean(Timer timer) {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Timer,name=" + ObjectName.quote(timer.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(timer, objectName);
+        } catch (JMException | RuntimeException e) {
+            // Metrics still work in-process; only the JMX view is missing
+            System.err.println("Could not register JMX bean for timer " + timer.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.Random;
+
+// Hands out unique 6-character PNRs without asking the database whether a code is taken.
+// Each code is a keyed permutation of a sequence number: sequence numbers are unique because every app
+// instance leases its own block of them from the pnr_sequence table (one round trip per BLOCK_SIZE bookings),
+// and the permutation is a bijection, so distinct numbers always give distinct codes. The permutation is a
+// 4-round Feistel network over 32 bits with cycle-walking down to the 36^6 code space, which makes
+// consecutive bookings look random instead of AAAAAB, AAAAAC, ...
+// The permutation key lives in pnr_sequence next to the counter: the first lease ever generates it, so
+// every instance uses the same key and the codes can't be predicted from the source.
+public class PnrAllocator {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int PNR_LENGTH = 6;
+    static final long CODE_SPACE = 2176782336L; // 36^6
+    private static final int BLOCK_SIZE = 1000;
+    private static final int ROUNDS = 4;
+    // After a failed lease, codes come from randomPnrWithLookup until the retry time; the wait doubles per failure
+    private static final long LEASE_RETRY_MIN_MS = 1000;
+    private static final long LEASE_RETRY_MAX_MS = 300000;
+
+    private static int[] roundKeys; // from the leased block's key
+    private static long nextInBlock = 0;
+    private static long blockEnd = 0; // exclusive
+    private static long leaseRetryDelay = LEASE_RETRY_MIN_MS;
+    private static long leaseRetryAt = 0; // System.currentTimeMillis() before which no lease is tried
+
+    static int[] roundKeys(long key) {
+        int[] keys = new int[ROUNDS];
+        long k = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            k = k * 6364136223846793005L + 1442695040888963407L;
+            keys[i] = (int) (k >>> 32);
+        }
+        return keys;
+    }
+
+    // A code not handed out by this allocator before. Old random PNRs may still collide with it, so callers
+    // retry with a new code when the insert hits the unique key (see DefaultBookingService.book).
+    public static synchronized String nextPnr() {
+        if (nextInBlock >= blockEnd) {
+            long now = System.currentTimeMillis();
+            if (now < leaseRetryAt) {
+                return randomPnrWithLookup();
+            }
+            DatabaseManager.PnrBlock block = DatabaseManager.leasePnrBlock(BLOCK_SIZE);
+            if (block == null) {
+                leaseRetryAt = now + leaseRetryDelay;
+                leaseRetryDelay = Math.min(leaseRetryDelay * 2, LEASE_RETRY_MAX_MS);
+                return randomPnrWithLookup();
+            }
+            leaseRetryDelay = LEASE_RETRY_MIN_MS;
+            roundKeys = roundKeys(block.key);
+            nextInBlock = block.start;
+            blockEnd = block.start + BLOCK_SIZE;
+        }
+        return encode(permute(nextInBlock++, roundKeys));
+    }
+
+    // Bijection on [0, CODE_SPACE) for a given key.
+    static long permute(long sequence, int[] roundKeys) {
+        if (sequence < 0 || sequence >= CODE_SPACE) {
+            throw new IllegalStateException("PNR sequence exhausted: " + sequence);
+        }
+        long x = sequence;
+        do {
+            x = feistel(x, roundKeys);
+        } while (x >= CODE_SPACE); // cycle-walk back into the code space
+        return x;
+    }
+
+    private static long feistel(long x, int[] roundKeys) {
+        int left = (int) (x >>> 16) & 0xFFFF;
+        int right = (int) x & 0xFFFF;
+        for (int i = 0; i < ROUNDS; i++) {
+            int next = left ^ (round(right, roundKeys[i]) & 0xFFFF);
+            left = right;
+            right = next;
+        }
+        return ((long) left << 16) | right;
+    }
+
+    private static int round(int half, int key) {
+        int h = half * 0x9E3779B1 + key;
+        h ^= h >>> 15;
+        h *= 0x85EBCA77;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    static String encode(long value) {
+        char[] chars = new char[PNR_LENGTH];
+        for (int i = PNR_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (value % ALPHABET.length()));
+            value /= ALPHABET.length();
+        }
+        return new String(chars);
+    }
+
+    // Old behaviour, only used when no sequence block can be leased (e.g. pnr_sequence table missing).
+    private static final Random rand = new Random();
+
+    private static String randomPnrWithLookup() {
+        StringBuilder pnr;
+        do {
+            pnr = new StringBuilder();
+            for (int i = 0; i < PNR_LENGTH; i++) {
+                pnr.append(ALPHABET.charAt(rand.nextInt(ALPHABET.length())));
+            }
+        } while (DatabaseManager.checkPnrExists(pnr.toString()));
+        return pnr.toString();
+    }
+}
@@ -0,0 +1,394 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// In-memory search index over flight routes for typeahead and the chatbot.
+// Each route ("Manila to Cebu (MNL-CEB)") is parsed into origin and destination airports (city + code).
+// Exact lookups go through inverted indexes keyed by city and code; prefix lookups walk a trie per role
+// (origin, destination) plus, for typeahead, one per flight type over every city word and code, collecting flight ids
+// depth-first until the limit is reached, so a query costs O(prefix length + results) regardless of route count.
+// DatabaseManager.getFlights() feeds every flight list it loads into sync(), which only re-indexes added,
+// changed and removed flights; status changes arrive as FlightStatusChanged events.
+public class RouteIndex {
+
+    // "Origin to Destination (ORG-DST)"; the code suffix is optional
+    private static final Pattern ROUTE = Pattern.compile(
+            "^\\s*(.+?)\\s+to\\s+(.+?)\\s*(?:\\(\\s*([A-Za-z0-9]+)\\s*-\\s*([A-Za-z0-9]+)\\s*\\))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    public static class Airport {
+        public final String city; // as written in the route
+        public final String code; // upper case, or null when the route has none
+        final List<String> keys;         // normalized city and code, for the exact and per-role indexes
+        final Set<String> typeaheadKeys; // keys plus each later word of the city ("san jose" -> "jose")
+
+        Airport(String city, String code) {
+            this.city = city;
+            this.code = code;
+            String normalized = normalize(city);
+            keys = code == null ? List.of(normalized) : List.of(normalized, code.toLowerCase());
+            Set<String> typeahead = new LinkedHashSet<>(keys);
+            String[] words = normalized.split(" ");
+            for (int i = 1; i < words.length; i++) typeahead.add(words[i]);
+            typeaheadKeys = Collections.unmodifiableSet(typeahead);
+        }
+
+        @Override
+        public String toString() {
+            return code == null ? city : city + " (" + code + ")";
+        }
+    }
+
+    public static class RouteEntry {
+        public final int flightId;
+        public final String route;
+        public final boolean local;
+        public final Airport origin;      // null when the route could not be parsed
+        public final Airport destination; // the whole route when it could not be parsed
+        public final double baseFare;
+        public final AirplaneReservationSystem.FlightStatus status;
+
+        RouteEntry(int flightId, String route, boolean local, double baseFare, AirplaneReservationSystem.FlightStatus status) {
+            this.flightId = flightId;
+            this.route = route;
+            this.local = local;
+            this.baseFare = baseFare;
+            this.status = status;
+            Airport[] airports = parse(route);
+            this.origin = airports[0];
+            this.destination = airports[1];
+        }
+
+        private RouteEntry(RouteEntry e, double baseFare, AirplaneReservationSystem.FlightStatus status) {
+            this.flightId = e.flightId;
+            this.route = e.route;
+            this.local = e.local;
+            this.origin = e.origin;
+            this.destination = e.destination;
+            this.baseFare = baseFare;
+            this.status = status;
+        }
+
+        // Same airports (no re-parse), new fare and status
+        RouteEntry with(double newBaseFare, AirplaneReservationSystem.FlightStatus newStatus) {
+            return new RouteEntry(this, newBaseFare, newStatus);
+        }
+
+        boolean sameIndexedFields(AirplaneReservationSystem.Flight f, boolean isLocal) {
+            return route.equals(f.getRoute()) && local == isLocal;
+        }
+    }
+
+    // {origin, destination}; origin is null and destination the whole route when it isn't "X to Y"
+    static Airport[] parse(String route) {
+        Matcher m = ROUTE.matcher(route);
+        if (!m.matches()) return new Airport[] {null, new Airport(route.trim(), null)};
+        return new Airport[] {
+                new Airport(m.group(1), m.group(3) == null ? null : m.group(3).toUpperCase()),
+                new Airport(m.group(2), m.group(4) == null ? null : m.group(4).toUpperCase())};
+    }
+
+    // Trie over normalized keys; a node's ids are the flights whose key ends there
+    private static class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        Set<Integer> ids;
+    }
+
+    private static class Trie {
+        final Node root = new Node();
+
+        void add(String key, int flightId) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            if (node.ids == null) node.ids = new TreeSet<>();
+            node.ids.add(flightId);
+        }
+
+        void remove(String key, int flightId) {
+            removeFrom(root, key, 0, flightId);
+        }
+
+        // Returns true when node is left empty, so the parent can prune it
+        private boolean removeFrom(Node node, String key, int depth, int flightId) {
+            if (depth == key.length()) {
+                if (node.ids != null) {
+                    node.ids.remove(flightId);
+                    if (node.ids.isEmpty()) node.ids = null;
+                }
+            } else {
+                Node child = node.children.get(key.charAt(depth));
+                if (child != null && removeFrom(child, key, depth + 1, flightId)) {
+                    node.children.remove(key.charAt(depth));
+                }
+            }
+            return node.ids == null && node.children.isEmpty();
+        }
+
+        // Ids under prefix in key order, stopping once out holds limit ids
+        void collect(String prefix, Set<Integer> out, int limit) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node != null) collect(node, out, limit);
+        }
+
+        private void collect(Node node, Set<Integer> out, int limit) {
+            if (node.ids != null) {
+                for (Integer id : node.ids) {
+                    if (out.size() >= limit) return;
+                    out.add(id);
+                }
+            }
+            for (Node child : node.children.values()) {
+                if (out.size() >= limit) return;
+                collect(child, out, limit);
+            }
+        }
+    }
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final Map<Integer, RouteEntry> byId = new HashMap<>();
+    private static final Map<String, Set<Integer>> byOrigin = new HashMap<>();      // city or code -> ids
+    private static final Map<String, Set<Integer>> byDestination = new HashMap<>(); // city or code -> ids
+    private static final Trie originTrie = new Trie();
+    private static final Trie destinationTrie = new Trie();
+    // Every city, later city word and code of either airport; one trie per flight type so typed queries stay O(results)
+    private static final Trie localTrie = new Trie();
+    private static final Trie internationalTrie = new Trie();
+    private static volatile boolean localLoaded = false;
+    private static volatile boolean internationalLoaded = false;
+
+    static {
+        FlightEventBus.subscribeAll(RouteIndex::onFlightEvent);
+    }
+
+    // Lower case, trimmed, runs of whitespace collapsed to one space
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> keys(Airport a) {
+        return a == null ? List.of() : a.keys;
+    }
+
+    private static Set<String> typeaheadKeys(Airport a) {
+        return a == null ? Set.of() : a.typeaheadKeys;
+    }
+
+    // --- Updates (write lock) ---
+
+    // Brings the index in line with the full list of local or international flights: flights that are new or whose
+    // route changed are (re-)indexed, flights of that type missing from the list are dropped, and the rest only
+    // get their fare and status refreshed.
+    public static void sync(List<AirplaneReservationSystem.Flight> flights, boolean local) {
+        lock.writeLock().lock();
+        try {
+            Set<Integer> listed = new HashSet<>(flights.size() * 2);
+            for (AirplaneReservationSystem.Flight f : flights) {
+                listed.add(f.getId());
+                RouteEntry old = byId.get(f.getId());
+                if (old != null && old.sameIndexedFields(f, local)) {
+                    byId.put(f.getId(), old.with(f.getBaseFare(), f.getCurrentStatus()));
+                } else {
+                    if (old != null) unindex(old);
+                    index(new RouteEntry(f.getId(), f.getRoute(), local, f.getBaseFare(), f.getCurrentStatus()));
+                }
+            }
+            List<RouteEntry> gone = new ArrayList<>();
+            for (RouteEntry e : byId.values()) {
+                if (e.local == local && !listed.contains(e.flightId)) gone.add(e);
+            }
+            for (RouteEntry e : gone) unindex(e);
+            if (local) localLoaded = true; else internationalLoaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static void remove(int flightId) {
+        lock.writeLock().lock();
+        try {
+            RouteEntry e = byId.get(flightId);
+            if (e != null) unindex(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void index(RouteEntry e) {
+        byId.put(e.flightId, e);
+        for (String key : keys(e.origin)) {
+            byOrigin.computeIfAbsent(key, k -> new TreeSet<>()).add(e.flightId);
+            originTrie.add(key, e.flightId);
+        }
+        for (String key : keys(e.destination)) {
+            byDestination.computeIfAbsent(key, k -> new TreeSet<>()).add(e.flightId);
+            destinationTrie.add(key, e.flightId);
+        }
+        Trie typeahead = e.local ? localTrie : internationalTrie;
+        for (String key : typeaheadKeys(e.origin)) typeahead.add(key, e.flightId);
+        for (String key : typeaheadKeys(e.destination)) typeahead.add(key, e.flightId);
+    }
+
+    private static void unindex(RouteEntry e) {
+        byId.remove(e.flightId);
+        for (String key : keys(e.origin)) {
+            removePosting(byOrigin, key, e.flightId);
+            originTrie.remove(key, e.flightId);
+        }
+        for (String key : keys(e.destination)) {
+            removePosting(byDestination, key, e.flightId);
+            destinationTrie.remove(key, e.flightId);
+        }
+        Trie typeahead = e.local ? localTrie : internationalTrie;
+        for (String key : typeaheadKeys(e.origin)) typeahead.remove(key, e.flightId);
+        for (String key : typeaheadKeys(e.destination)) typeahead.remove(key, e.flightId);
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> index, String key, int flightId) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null && ids.remove(flightId) && ids.isEmpty()) index.remove(key);
+    }
+
+    private static void onFlightEvent(FlightEventBus.FlightEvent event) {
+        if (!(event instanceof FlightStatusEngine.FlightStatusChanged)) return;
+        FlightStatusEngine.FlightStatusChanged change = (FlightStatusEngine.FlightStatusChanged) event;
+        lock.writeLock().lock();
+        try {
+            byId.computeIfPresent(change.flightId, (id, e) -> e.with(e.baseFare, change.newStatus));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Loads whichever flight type has not been indexed yet; a database call, so keep it off the EDT
+    public static void ensureLoaded() {
+        if (!localLoaded) DatabaseManager.getFlights(true);
+        if (!internationalLoaded) DatabaseManager.getFlights(false);
+    }
+
+    public static boolean isLoaded() {
+        return localLoaded && internationalLoaded;
+    }
+
+    // --- Queries (read lock) ---
+
+    // Routes whose origin or destination city, a word of it, or its code starts with prefix, ordered by the
+    // matching key; local = null searches both flight types, local flights first
+    public static List<RouteEntry> suggest(String prefix, Boolean local, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            Set<Integer> ids = new LinkedHashSet<>();
+            if (local == null || local) localTrie.collect(key, ids, limit);
+            if (local == null || !local) internationalTrie.collect(key, ids, limit);
+            return entries(ids, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Flights to a destination given as city or code: exact matches if there are any, otherwise prefix matches
+    public static List<RouteEntry> findByDestination(String destination, int limit) {
+        return find(byDestination, destinationTrie, destination, limit);
+    }
+
+    public static List<RouteEntry> findByOrigin(String origin, int limit) {
+        return find(byOrigin, originTrie, origin, limit);
+    }
+
+    // Direct flights between two airports given as city or code (exact match on both)
+    public static List<RouteEntry> findRoute(String origin, String destination) {
+        lock.readLock().lock();
+        try {
+            Set<Integer> from = byOrigin.getOrDefault(normalize(origin), Collections.emptySet());
+            Set<Integer> to = byDestination.getOrDefault(normalize(destination), Collections.emptySet());
+            Set<Integer> ids = new TreeSet<>(from.size() < to.size() ? from : to);
+            ids.retainAll(from.size() < to.size() ? to : from);
+            return entries(ids, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // True if name (city or code, any case) is an airport of some indexed route
+    public static boolean isAirport(String name) {
+        String key = normalize(name);
+        lock.readLock().lock();
+        try {
+            return byOrigin.containsKey(key) || byDestination.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static RouteEntry get(int flightId) {
+        lock.readLock().lock();
+        try {
+            return byId.get(flightId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<RouteEntry> find(Map<String, Set<Integer>> exact, Trie trie, String text, int limit) {
+        String key = normalize(text);
+        if (key.isEmpty()) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            Set<Integer> ids = exact.get(key);
+            if (ids == null) {
+                ids = new LinkedHashSet<>();
+                trie.collect(key, ids, limit);
+            }
+            return entries(ids, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<RouteEntry> entries(Set<Integer> ids, int limit) {
+        List<RouteEntry> result = new ArrayList<>(Math.min(ids.size(), limit));
+        for (Integer id : ids) {
+            if (result.size() >= limit) break;
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+}
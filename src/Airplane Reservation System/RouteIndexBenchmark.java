@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Typeahead benchmark for RouteIndex. Indexes synthetic routes between `cities` cities (no database needed),
+// then runs what one keystroke in the flight filter costs: suggest() for a random 1..3 letter prefix with the
+// combo's limit, plus the check against the listed flight ids, from `threads` threads after a warm-up. Also
+// times indexing the flights and re-syncing them unchanged, which is what every later flight list load pays.
+//
+//   java RouteIndexBenchmark flights=5000 cities=300 threads=4 duration=10 limit=200
+public class RouteIndexBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int flightCount = 5000, cityCount = 300, threads = Runtime.getRuntime().availableProcessors(), durationSeconds = 10, limit = 200;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "flights": flightCount = Integer.parseInt(value); break;
+                case "cities": cityCount = Integer.parseInt(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "duration": durationSeconds = Integer.parseInt(value); break;
+                case "limit": limit = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        // City names from syllables, so prefixes of every length have realistic fan-out; codes are unique
+        String[] syllables = {"ma", "ce", "da", "ilo", "ba", "to", "ky", "san", "jo", "se", "pa", "lu", "ri", "no"};
+        String[] cities = new String[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            String a = syllables[i % syllables.length], b = syllables[(i / syllables.length) % syllables.length];
+            cities[i] = Character.toUpperCase(a.charAt(0)) + a.substring(1) + b + (i / (syllables.length * syllables.length) > 0 ? " " + i : "");
+        }
+        List<AirplaneReservationSystem.Flight> local = new ArrayList<>();
+        List<AirplaneReservationSystem.Flight> international = new ArrayList<>();
+        ThreadLocalRandom setup = ThreadLocalRandom.current();
+        for (int i = 1; i <= flightCount; i++) {
+            int from = setup.nextInt(cityCount), to = (from + 1 + setup.nextInt(cityCount - 1)) % cityCount;
+            String route = cities[from] + " to " + cities[to] + " (" + code(from) + "-" + code(to) + ") #" + i;
+            AirplaneReservationSystem.Flight f = new AirplaneReservationSystem.Flight(i, route, 1500 + 37.5 * (i % 100), 180);
+            (i % 3 == 0 ? international : local).add(f);
+        }
+        Set<Integer> listedIds = new HashSet<>();
+        for (AirplaneReservationSystem.Flight f : local) listedIds.add(f.getId());
+
+        System.out.printf("%d flights between %d cities, %d threads, %d s per phase, limit %d%n",
+                flightCount, cityCount, threads, durationSeconds, limit);
+        long start = System.nanoTime();
+        RouteIndex.sync(local, true);
+        RouteIndex.sync(international, false);
+        System.out.printf("initial index: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        LatencyHistogram syncLatency = new LatencyHistogram();
+        for (int i = 0; i < 20; i++) {
+            long t = System.nanoTime();
+            RouteIndex.sync(local, true);
+            RouteIndex.sync(international, false);
+            syncLatency.recordNanos(System.nanoTime() - t);
+        }
+        System.out.println("sync (both types, unchanged): " + syncLatency.summary());
+
+        String[] prefixes = new String[cityCount * 3];
+        for (int i = 0; i < cityCount; i++) {
+            for (int len = 1; len <= 3; len++) {
+                String city = cities[i].toLowerCase();
+                prefixes[i * 3 + len - 1] = city.substring(0, Math.min(len, city.length()));
+            }
+        }
+        run("warm-up", prefixes, listedIds, threads, Math.max(1, durationSeconds / 2), limit);
+        run("keystroke", prefixes, listedIds, threads, durationSeconds, limit);
+    }
+
+    private static String code(int city) {
+        return String.valueOf((char) ('A' + city / 676 % 26)) + (char) ('A' + city / 26 % 26) + (char) ('A' + city % 26);
+    }
+
+    private static void run(String phase, String[] prefixes, Set<Integer> listedIds, int threads, int seconds, int limit)
+            throws InterruptedException {
+        LongAdder lookups = new LongAdder();
+        LongAdder shown = new LongAdder();
+        LongAdder truncated = new LongAdder();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long n = 0, rows = 0, cut = 0;
+                for (long i = 0; (i & 255) != 0 || System.nanoTime() < end; i++) {
+                    List<RouteIndex.RouteEntry> matches = RouteIndex.suggest(prefixes[rnd.nextInt(prefixes.length)], true, limit + 1);
+                    int listed = 0;
+                    for (RouteIndex.RouteEntry entry : matches) {
+                        if (listed == limit) break;
+                        if (listedIds.contains(entry.flightId)) listed++;
+                    }
+                    if (matches.size() > limit) cut++;
+                    rows += listed;
+                    n++;
+                }
+                lookups.add(n);
+                shown.add(rows);
+                truncated.add(cut);
+            }, "route-bench-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread w : workers) w.join();
+        long n = Math.max(1, lookups.sum());
+        System.out.printf("%-9s %,14.0f lookups/s  %,.1f us each  (avg %.1f routes, %.1f%% hit the limit)%n", phase,
+                n / (double) seconds, seconds * 1e6 * threads / n, shown.sum() / (double) n, 100.0 * truncated.sum() / n);
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Temporary seat holds taken while a customer is paying.
+// Held seats show as taken to every other session until the hold is released, turned into a booking, or expires.
+// Flights are guarded by striped locks (flightId % LOCK_STRIPES), and expiry is driven by a hashed timer wheel
+// so a single tick expires every hold in its slot at once instead of scheduling one timer per hold.
+public class SeatHoldService {
+
+    private static final int LOCK_STRIPES = 32;
+    private static final int WHEEL_SLOTS = 64;
+    private static final long TICK_MILLIS = 1000;
+
+    private static volatile long holdTtlMillis = 5 * 60 * 1000; // 5 minutes
+
+    private static final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    // flightId -> (seat index -> hold), each flight's map guarded by its stripe
+    private static final ConcurrentHashMap<Integer, Map<Integer, Hold>> holdsByFlight = new ConcurrentHashMap<>();
+
+    private static final List<List<Hold>> wheel = new ArrayList<>(WHEEL_SLOTS);
+    private static final ReentrantLock wheelLock = new ReentrantLock();
+    private static java.util.Timer wheelTimer;
+    private static long lastTick = -1; // guarded by wheelLock
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new ReentrantLock();
+        for (int i = 0; i < WHEEL_SLOTS; i++) wheel.add(new ArrayList<>());
+    }
+
+    private static class Hold {
+        final int flightId;
+        final String owner;
+        final BitSet seats;
+        final long expiresAt;
+        volatile boolean released = false;
+
+        Hold(int flightId, String owner, BitSet seats, long expiresAt) {
+            this.flightId = flightId;
+            this.owner = owner;
+            this.seats = seats;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static void setHoldTtlMillis(long ttlMillis) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("Hold TTL must be positive");
+        holdTtlMillis = ttlMillis;
+    }
+
+    public static long getHoldTtlMillis() {
+        return holdTtlMillis;
+    }
+
+    private static ReentrantLock stripeFor(int flightId) {
+        return stripes[Math.floorMod(flightId, LOCK_STRIPES)];
+    }
+
+    private static Map<Integer, Hold> seatsFor(int flightId) {
+        return holdsByFlight.computeIfAbsent(flightId, k -> new HashMap<>());
+    }
+
+    // Holds all given seats for owner, replacing any seats owner already held on this flight.
+    // Fails (and holds nothing new) if a seat is booked or held by someone else.
+    public static boolean hold(int flightId, Set<String> seatIds, String owner, BitSet bookedSeats) {
+        BitSet requested = SeatInventory.toBits(seatIds);
+        if (requested.cardinality() != seatIds.size()) return false; // Malformed seat ID
+        if (requested.intersects(bookedSeats)) return false;
+
+        long now = System.currentTimeMillis();
+        Hold newHold = new Hold(flightId, owner, requested, now + holdTtlMillis);
+        Map<Integer, Hold> seats = seatsFor(flightId);
+        ReentrantLock lock = stripeFor(flightId);
+        lock.lock();
+        try {
+            for (int i = requested.nextSetBit(0); i >= 0; i = requested.nextSetBit(i + 1)) {
+                Hold existing = seats.get(i);
+                if (existing != null && !existing.owner.equals(owner) && existing.expiresAt > now) {
+                    return false;
+                }
+            }
+            removeOwnerHolds(seats, owner);
+            for (int i = requested.nextSetBit(0); i >= 0; i = requested.nextSetBit(i + 1)) {
+                Hold previous = seats.put(i, newHold);
+                if (previous != null) previous.released = true; // Expired hold from another owner
+            }
+        } finally {
+            lock.unlock();
+        }
+        schedule(newHold);
+        return true;
+    }
+
+    // True if owner still holds every one of the given seats and the hold has not expired.
+    public static boolean isHeldBy(int flightId, Set<String> seatIds, String owner) {
+        long now = System.currentTimeMillis();
+        Map<Integer, Hold> seats = seatsFor(flightId);
+        ReentrantLock lock = stripeFor(flightId);
+        lock.lock();
+        try {
+            for (String seatId : seatIds) {
+                Hold h = seats.get(SeatInventory.encode(seatId));
+                if (h == null || !h.owner.equals(owner) || h.expiresAt <= now) return false;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Seats on this flight currently held by anyone other than owner.
+    public static BitSet getHeldByOthers(int flightId, String owner) {
+        BitSet held = new BitSet();
+        long now = System.currentTimeMillis();
+        Map<Integer, Hold> seats = seatsFor(flightId);
+        ReentrantLock lock = stripeFor(flightId);
+        lock.lock();
+        try {
+            for (Map.Entry<Integer, Hold> e : seats.entrySet()) {
+                Hold h = e.getValue();
+                if (!h.owner.equals(owner) && h.expiresAt > now) held.set(e.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return held;
+    }
+
+    public static void release(int flightId, String owner) {
+        Map<Integer, Hold> seats = seatsFor(flightId);
+        ReentrantLock lock = stripeFor(flightId);
+        lock.lock();
+        try {
+            removeOwnerHolds(seats, owner);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller must hold the flight's stripe lock.
+    private static void removeOwnerHolds(Map<Integer, Hold> seats, String owner) {
+        Iterator<Hold> it = seats.values().iterator();
+        while (it.hasNext()) {
+            Hold h = it.next();
+            if (h.owner.equals(owner)) {
+                h.released = true;
+                it.remove();
+            }
+        }
+    }
+
+    // --- Timer wheel ---
+
+    private static void schedule(Hold hold) {
+        wheelLock.lock();
+        try {
+            if (wheelTimer == null) {
+                wheelTimer = new java.util.Timer("seat-hold-expiry", true);
+                wheelTimer.scheduleAtFixedRate(new TimerTask() {
+                    @Override
+                    public void run() {
+                        tick();
+                    }
+                }, TICK_MILLIS, TICK_MILLIS);
+            }
+            wheel.get(slotFor(hold.expiresAt)).add(hold);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private static int slotFor(long timeMillis) {
+        return (int) ((timeMillis / TICK_MILLIS) % WHEEL_SLOTS);
+    }
+
+    // Expires every due hold in the slots passed since the last tick. Holds further out than one wheel
+    // revolution share a slot with nearer ones and are simply left for a later pass.
+    static void tick() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MILLIS;
+        List<Hold> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            long from = lastTick < 0 ? currentTick : Math.max(lastTick + 1, currentTick - WHEEL_SLOTS + 1);
+            for (long t = from; t <= currentTick; t++) {
+                Iterator<Hold> it = wheel.get((int) (t % WHEEL_SLOTS)).iterator();
+                while (it.hasNext()) {
+                    Hold h = it.next();
+                    if (h.released) {
+                        it.remove();
+                    } else if (h.expiresAt <= now) {
+                        it.remove();
+                        due.add(h);
+                    }
+                }
+            }
+            lastTick = currentTick;
+        } finally {
+            wheelLock.unlock();
+        }
+        for (Hold h : due) expire(h);
+    }
+
+    private static void expire(Hold hold) {
+        Map<Integer, Hold> seats = seatsFor(hold.flightId);
+        ReentrantLock lock = stripeFor(hold.flightId);
+        lock.lock();
+        try {
+            for (int i = hold.seats.nextSetBit(0); i >= 0; i = hold.seats.nextSetBit(i + 1)) {
+                seats.remove(i, hold);
+            }
+            hold.released = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+// In-memory seat occupancy, one bitmap per flight.
+// Seat IDs like "12A" are encoded as ints: (row - 1) * SEATS_PER_ROW + (letter - 'A'), matching the
+// layout drawn by buildSeatMap. A 500-seat flight costs ~64 bytes of bitmap, so thousands of cached
+// flights fit comfortably in memory. DatabaseManager keeps it in sync on createBooking/cancelBooking, and
+// FlightEventBus with changes made by other instances.
+public class SeatInventory {
+
+    public static final int SEATS_PER_ROW = 6;
+
+    // Bitmaps are reloaded after this long, so changes this instance never heard about still show up
+    private static final long TTL_MILLIS = Long.getLong("airplane.seats.ttlMillis", 300000);
+
+    private static final class Cached {
+        final BitSet bits; // guarded by itself
+        final long loadedAt;
+
+        Cached(BitSet bits, long loadedAt) {
+            this.bits = bits;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // A change that arrived while the flight was being read from the database
+    private static final class Delta {
+        final BitSet seats;
+        final boolean reserve;
+
+        Delta(BitSet seats, boolean reserve) {
+            this.seats = seats;
+            this.reserve = reserve;
+        }
+
+        void applyTo(BitSet bits) {
+            if (reserve) bits.or(seats); else bits.andNot(seats);
+        }
+    }
+
+    // A database read in progress. Deltas arriving meanwhile are recorded and replayed onto the loaded
+    // bitmap in order, since the read may or may not have seen them. Guarded by itself.
+    private static final class Loading {
+        final List<Delta> deltas = new ArrayList<>();
+        boolean done;
+    }
+
+    private static final ConcurrentHashMap<Integer, Cached> flights = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Loading> loading = new ConcurrentHashMap<>();
+
+    // Returns -1 for anything that is not a valid "<row><letter>" seat ID.
+    public static int encode(String seatId) {
+        if (seatId == null || seatId.length() < 2) return -1;
+        char letter = seatId.charAt(seatId.length() - 1);
+        if (letter < 'A' || letter >= 'A' + SEATS_PER_ROW) return -1;
+        int row = 0;
+        for (int i = 0; i < seatId.length() - 1; i++) {
+            char c = seatId.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            row = row * 10 + (c - '0');
+        }
+        if (row < 1) return -1;
+        return (row - 1) * SEATS_PER_ROW + (letter - 'A');
+    }
+
+    public static String decode(int seatIndex) {
+        return String.valueOf(seatIndex / SEATS_PER_ROW + 1) + (char) ('A' + seatIndex % SEATS_PER_ROW);
+    }
+
+    public static BitSet toBits(Collection<String> seatIds) {
+        BitSet bits = new BitSet();
+        for (String seatId : seatIds) {
+            int idx = encode(seatId);
+            if (idx >= 0) bits.set(idx);
+        }
+        return bits;
+    }
+
+    public static Set<String> toSeatIds(BitSet bits) {
+        Set<String> seats = new LinkedHashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            seats.add(decode(i));
+        }
+        return Collections.unmodifiableSet(seats);
+    }
+
+    // Returns a private copy of the flight's occupancy, loading it via the given loader on a miss or once
+    // TTL_MILLIS have passed. The loader runs outside the map and may return null on failure. Concurrent
+    // misses for one flight wait for a single load instead of querying in parallel.
+    public static BitSet getReserved(int flightId, IntFunction<BitSet> loader) {
+        Cached cached = flights.get(flightId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt <= TTL_MILLIS) return copy(cached.bits);
+
+        Loading mine = new Loading();
+        Loading other = loading.putIfAbsent(flightId, mine);
+        if (other != null) {
+            synchronized (other) {
+                while (!other.done) {
+                    try {
+                        other.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return new BitSet();
+                    }
+                }
+            }
+            Cached loaded = flights.get(flightId);
+            return loaded == null ? new BitSet() : copy(loaded.bits); // null: that load failed
+        }
+
+        if (cached != null) flights.remove(flightId, cached); // expired; deltas now queue on mine
+        BitSet bits = null;
+        try {
+            bits = loader.apply(flightId);
+        } finally {
+            synchronized (mine) {
+                if (bits != null) {
+                    for (Delta d : mine.deltas) d.applyTo(bits);
+                    Cached raced = flights.putIfAbsent(flightId, new Cached(bits, System.currentTimeMillis()));
+                    if (raced != null) bits = raced.bits;
+                }
+                mine.done = true; // published before done, so later deltas find it in flights
+                mine.notifyAll();
+            }
+            loading.remove(flightId, mine);
+        }
+        return bits == null ? new BitSet() : copy(bits); // Loader failed; nothing cached, retry on next read
+    }
+
+    private static BitSet copy(BitSet bits) {
+        synchronized (bits) {
+            return (BitSet) bits.clone();
+        }
+    }
+
+    public static boolean isCached(int flightId) {
+        return flights.containsKey(flightId);
+    }
+
+    // Marks seats as taken. Ignored for flights that are neither cached nor loading; they load fresh on first read.
+    public static void reserve(int flightId, Collection<String> seatIds) {
+        apply(flightId, new Delta(toBits(seatIds), true));
+    }
+
+    public static void release(int flightId, Collection<String> seatIds) {
+        apply(flightId, new Delta(toBits(seatIds), false));
+    }
+
+    private static void apply(int flightId, Delta delta) {
+        Loading l = loading.get(flightId);
+        if (l != null) {
+            synchronized (l) {
+                if (!l.done) {
+                    l.deltas.add(delta);
+                    return;
+                }
+            }
+        }
+        Cached cached = flights.get(flightId);
+        if (cached == null) return;
+        synchronized (cached.bits) {
+            delta.applyTo(cached.bits);
+        }
+    }
+
+    // Drops a flight so the next read reloads it from the database (e.g. after a failed insert).
+    public static void invalidate(int flightId) {
+        flights.remove(flightId);
+    }
+
+    // Drops every flight, e.g. after the event transport reconnects and changes may have been missed
+    public static void clear() {
+        flights.clear();
+    }
+}
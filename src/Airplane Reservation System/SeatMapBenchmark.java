@@ -0,0 +1,100 @@
+import javax.swing.SwingUtilities;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Random;
+
+// Headless timing of SeatMapPanel (no display or database needed). For a flight of `seats` seats with `load`
+// of them reserved, measures on the event thread: building the panel for a flight (construct + setSeats +
+// layout), painting all of it, painting one viewport-sized clip, painting a one-seat clip (what a seat diff
+// repaints), and updateOccupancy with a booking of `changed` seats.
+//
+//   java SeatMapBenchmark seats=600 load=0.7 iterations=500 viewport=600 changed=2
+public class SeatMapBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int seats = 600, iterations = 500, viewportHeight = 600, changed = 2;
+        double load = 0.7;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "seats": seats = Integer.parseInt(value); break;
+                case "load": load = Double.parseDouble(value); break;
+                case "iterations": iterations = Integer.parseInt(value); break;
+                case "viewport": viewportHeight = Integer.parseInt(value); break;
+                case "changed": changed = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+
+        Random rnd = new Random(42);
+        BitSet reserved = new BitSet();
+        for (int i = 0; i < seats; i++) {
+            if (rnd.nextDouble() < load) reserved.set(i);
+        }
+        int totalSeats = seats, n = iterations, viewport = viewportHeight, diff = changed;
+        System.out.printf("%d seats (%d reserved), %d iterations, viewport height %d px%n", seats, reserved.cardinality(), iterations, viewportHeight);
+        SwingUtilities.invokeAndWait(() -> {
+            for (int round = 0; round < 2; round++) { // first round warms up the JIT
+                boolean report = round == 1;
+                LatencyHistogram build = new LatencyHistogram();
+                LatencyHistogram fullPaint = new LatencyHistogram();
+                LatencyHistogram viewportPaint = new LatencyHistogram();
+                LatencyHistogram seatPaint = new LatencyHistogram();
+                LatencyHistogram update = new LatencyHistogram();
+
+                SeatMapPanel panel = null;
+                for (int i = 0; i < n; i++) {
+                    long t = System.nanoTime();
+                    panel = new SeatMapPanel();
+                    panel.setSeats(totalSeats, reserved, new BitSet(), 4);
+                    Dimension size = panel.getPreferredSize();
+                    panel.setSize(size);
+                    panel.doLayout();
+                    build.recordNanos(System.nanoTime() - t);
+                }
+                Dimension size = panel.getSize();
+                BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = image.createGraphics();
+                try {
+                    for (int i = 0; i < n; i++) {
+                        g.setClip(0, 0, size.width, size.height);
+                        long t = System.nanoTime();
+                        panel.paint(g);
+                        fullPaint.recordNanos(System.nanoTime() - t);
+
+                        int y = rnd.nextInt(Math.max(1, size.height - viewport));
+                        g.setClip(0, y, size.width, Math.min(viewport, size.height));
+                        t = System.nanoTime();
+                        panel.paint(g);
+                        viewportPaint.recordNanos(System.nanoTime() - t);
+
+                        g.setClip(rnd.nextInt(Math.max(1, size.width - 60)), rnd.nextInt(Math.max(1, size.height - 45)), 60, 45);
+                        t = System.nanoTime();
+                        panel.paint(g);
+                        seatPaint.recordNanos(System.nanoTime() - t);
+
+                        BitSet next = panel.getReserved();
+                        for (int c = 0; c < diff; c++) next.flip(rnd.nextInt(totalSeats));
+                        t = System.nanoTime();
+                        panel.updateOccupancy(next, new BitSet());
+                        update.recordNanos(System.nanoTime() - t);
+                    }
+                } finally {
+                    g.dispose();
+                }
+                if (report) {
+                    System.out.println("build:          " + build.summary());
+                    System.out.println("paint all:      " + fullPaint.summary());
+                    System.out.println("paint viewport: " + viewportPaint.summary());
+                    System.out.println("paint one seat: " + seatPaint.summary());
+                    System.out.println("updateOccupancy:" + update.summary());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,356 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Seat map drawn as one component instead of a JButton per seat.
+// Occupancy is three BitSets indexed like SeatInventory (reserved, held by others, selected); seat positions
+// are pure arithmetic, so painting only visits seats inside the clip, clicks are hit-tested by coordinate,
+// and occupancy changes repaint just the rectangles of the seats that changed.
+// Keyboard: arrows move the focus, Space/Enter toggles, +/- (or Ctrl+wheel) zooms.
+public class SeatMapPanel extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    public interface Listener {
+        void selectionChanged(Set<String> selectedSeatIds);
+        void selectionLimitReached(int limit);
+    }
+
+    private static final int SEATS_PER_ROW = SeatInventory.SEATS_PER_ROW;
+    private static final int AISLE_AFTER = 3;
+    private static final int SEAT_W = 55, SEAT_H = 40, H_GAP = 8, V_GAP = 8, AISLE_GAP = 20, MARGIN = 10;
+    private static final double MIN_ZOOM = 0.5, MAX_ZOOM = 2.5;
+
+    private static final Color AVAILABLE = new Color(144, 238, 144);
+    private static final Color SELECTED = Color.ORANGE;
+    private static final Color OCCUPIED = new Color(220, 20, 20);
+
+    private int totalSeats = 0;
+    private BitSet reserved = new BitSet();
+    private BitSet heldByOthers = new BitSet();
+    private final BitSet selected = new BitSet();
+    private int maxSelectable = 1;
+    private int focusIndex = 0;
+    private double zoom = 1.0;
+    private Font seatFont;
+    private Listener listener;
+
+    public SeatMapPanel() {
+        setOpaque(true);
+        setBackground(new Color(220, 230, 240));
+        setFocusable(true);
+        setToolTipText(""); // Registers with the ToolTipManager; text comes from getToolTipText(MouseEvent)
+        updateFont();
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int seat = seatAt(e.getX(), e.getY());
+                if (seat >= 0) {
+                    moveFocus(seat);
+                    toggle(seat);
+                }
+            }
+        });
+        addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                setZoom(zoom * (e.getWheelRotation() < 0 ? 1.1 : 1 / 1.1));
+            } else {
+                // Let the enclosing scroll pane scroll
+                Container scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+                if (scrollPane != null) scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+            }
+        });
+        addFocusListener(new FocusAdapter() {
+            @Override public void focusGained(FocusEvent e) { repaintSeat(focusIndex); }
+            @Override public void focusLost(FocusEvent e) { repaintSeat(focusIndex); }
+        });
+        bindKeys();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Shows a new flight: replaces the whole model and clears the selection.
+    public void setSeats(int totalSeats, BitSet reserved, BitSet heldByOthers, int maxSelectable) {
+        this.totalSeats = totalSeats;
+        this.reserved = (BitSet) reserved.clone();
+        this.heldByOthers = (BitSet) heldByOthers.clone();
+        this.maxSelectable = maxSelectable;
+        selected.clear();
+        focusIndex = 0;
+        revalidate();
+        repaint();
+    }
+
+    // Applies new occupancy and repaints only seats whose state changed. Selected seats that are no
+    // longer available are deselected; their IDs are returned.
+    public Set<String> updateOccupancy(BitSet newReserved, BitSet newHeldByOthers) {
+        BitSet changed = (BitSet) reserved.clone();
+        changed.xor(newReserved);
+        BitSet heldChanged = (BitSet) heldByOthers.clone();
+        heldChanged.xor(newHeldByOthers);
+        changed.or(heldChanged);
+
+        reserved = (BitSet) newReserved.clone();
+        heldByOthers = (BitSet) newHeldByOthers.clone();
+
+        BitSet lost = (BitSet) selected.clone();
+        BitSet unavailable = (BitSet) reserved.clone();
+        unavailable.or(heldByOthers);
+        lost.and(unavailable);
+        selected.andNot(lost);
+
+        for (int i = changed.nextSetBit(0); i >= 0 && i < totalSeats; i = changed.nextSetBit(i + 1)) {
+            repaintSeat(i);
+        }
+        Set<String> lostIds = SeatInventory.toSeatIds(lost);
+        if (!lostIds.isEmpty() && listener != null) listener.selectionChanged(getSelectedSeatIds());
+        return lostIds;
+    }
+
+    public BitSet getReserved() {
+        return (BitSet) reserved.clone();
+    }
+
+    public BitSet getHeldByOthers() {
+        return (BitSet) heldByOthers.clone();
+    }
+
+    public Set<String> getSelectedSeatIds() {
+        return new LinkedHashSet<>(SeatInventory.toSeatIds(selected));
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    public void setZoom(double newZoom) {
+        newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom == zoom) return;
+        zoom = newZoom;
+        updateFont();
+        revalidate();
+        repaint();
+        SwingUtilities.invokeLater(() -> scrollRectToVisible(seatBounds(focusIndex)));
+    }
+
+    private void updateFont() {
+        seatFont = new Font("Arial", Font.BOLD, Math.max(6, (int) Math.round(12 * zoom)));
+    }
+
+    // --- Geometry (all in component pixels at the current zoom) ---
+
+    private int rows() {
+        return (totalSeats + SEATS_PER_ROW - 1) / SEATS_PER_ROW;
+    }
+
+    private int scaled(int v) {
+        return (int) Math.round(v * zoom);
+    }
+
+    private int rowWidth() {
+        return SEATS_PER_ROW * scaled(SEAT_W) + (SEATS_PER_ROW - 1) * scaled(H_GAP) + scaled(AISLE_GAP);
+    }
+
+    // Rows are centred horizontally like the old FlowLayout rows
+    private int originX() {
+        return Math.max(scaled(MARGIN), (getWidth() - rowWidth()) / 2);
+    }
+
+    private int columnX(int col) {
+        int x = originX() + col * (scaled(SEAT_W) + scaled(H_GAP));
+        if (col >= AISLE_AFTER) x += scaled(AISLE_GAP);
+        return x;
+    }
+
+    private int rowY(int row) {
+        return scaled(MARGIN) + row * (scaled(SEAT_H) + scaled(V_GAP));
+    }
+
+    private Rectangle seatBounds(int index) {
+        return new Rectangle(columnX(index % SEATS_PER_ROW), rowY(index / SEATS_PER_ROW), scaled(SEAT_W), scaled(SEAT_H));
+    }
+
+    // Seat index under the point, or -1 for gaps, the aisle and margins.
+    int seatAt(int x, int y) {
+        int pitchY = scaled(SEAT_H) + scaled(V_GAP);
+        int ry = y - scaled(MARGIN);
+        if (ry < 0) return -1;
+        int row = ry / pitchY;
+        if (row >= rows() || ry % pitchY >= scaled(SEAT_H)) return -1;
+
+        int pitchX = scaled(SEAT_W) + scaled(H_GAP);
+        int rx = x - originX();
+        if (rx < 0) return -1;
+        int aisleStart = AISLE_AFTER * pitchX;
+        if (rx >= aisleStart) {
+            rx -= scaled(AISLE_GAP);
+            if (rx < aisleStart) return -1;
+        }
+        int col = rx / pitchX;
+        if (col >= SEATS_PER_ROW || rx % pitchX >= scaled(SEAT_W)) return -1;
+        int index = row * SEATS_PER_ROW + col;
+        return index < totalSeats ? index : -1;
+    }
+
+    private void repaintSeat(int index) {
+        if (index < 0 || index >= totalSeats) return;
+        Rectangle r = seatBounds(index);
+        repaint(r.x - 2, r.y - 2, r.width + 4, r.height + 4); // Include the focus ring
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int h = 2 * scaled(MARGIN) + rows() * scaled(SEAT_H) + Math.max(0, rows() - 1) * scaled(V_GAP);
+        return new Dimension(rowWidth() + 2 * scaled(MARGIN), h);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (totalSeats == 0) return;
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setFont(seatFont);
+            FontMetrics fm = g2.getFontMetrics();
+            int pitchY = scaled(SEAT_H) + scaled(V_GAP);
+            int firstRow = Math.max(0, (clip.y - scaled(MARGIN)) / pitchY);
+            int lastRow = Math.min(rows() - 1, (clip.y + clip.height - scaled(MARGIN)) / pitchY);
+            boolean focused = isFocusOwner();
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = 0; col < SEATS_PER_ROW; col++) {
+                    int index = row * SEATS_PER_ROW + col;
+                    if (index >= totalSeats) break;
+                    Rectangle r = seatBounds(index);
+                    if (!r.intersects(clip) && !(focused && index == focusIndex)) continue;
+                    paintSeat(g2, fm, index, r, focused && index == focusIndex);
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintSeat(Graphics2D g2, FontMetrics fm, int index, Rectangle r, boolean hasFocus) {
+        boolean occupied = reserved.get(index) || heldByOthers.get(index);
+        g2.setColor(occupied ? OCCUPIED : selected.get(index) ? SELECTED : AVAILABLE);
+        g2.fillRect(r.x, r.y, r.width, r.height);
+        g2.setColor(Color.GRAY);
+        g2.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+
+        String label = SeatInventory.decode(index);
+        g2.setColor(occupied ? Color.WHITE : Color.BLACK);
+        g2.drawString(label, r.x + (r.width - fm.stringWidth(label)) / 2, r.y + (r.height - fm.getHeight()) / 2 + fm.getAscent());
+
+        if (hasFocus) {
+            g2.setColor(new Color(10, 70, 140));
+            g2.setStroke(new BasicStroke(2f));
+            g2.drawRect(r.x - 1, r.y - 1, r.width + 1, r.height + 1);
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int seat = seatAt(e.getX(), e.getY());
+        if (seat < 0) return null;
+        String id = SeatInventory.decode(seat);
+        if (reserved.get(seat)) return id + ": Occupied";
+        if (heldByOthers.get(seat)) return id + ": On hold by another customer";
+        return id + (selected.get(seat) ? ": Selected" : ": Available");
+    }
+
+    // --- Selection and keyboard ---
+
+    private void toggle(int index) {
+        if (reserved.get(index) || heldByOthers.get(index)) return;
+        if (selected.get(index)) {
+            selected.clear(index);
+        } else {
+            if (selected.cardinality() >= maxSelectable) {
+                if (listener != null) listener.selectionLimitReached(maxSelectable);
+                return;
+            }
+            selected.set(index);
+        }
+        repaintSeat(index);
+        if (listener != null) listener.selectionChanged(getSelectedSeatIds());
+    }
+
+    private void moveFocus(int index) {
+        if (totalSeats == 0) return;
+        index = Math.max(0, Math.min(totalSeats - 1, index));
+        if (index == focusIndex) return;
+        int old = focusIndex;
+        focusIndex = index;
+        repaintSeat(old);
+        repaintSeat(focusIndex);
+        scrollRectToVisible(seatBounds(focusIndex));
+    }
+
+    private void bindKeys() {
+        InputMap im = getInputMap(WHEN_FOCUSED);
+        ActionMap am = getActionMap();
+        bind(im, am, "left", KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0), () -> moveFocus(focusIndex - 1));
+        bind(im, am, "right", KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0), () -> moveFocus(focusIndex + 1));
+        bind(im, am, "up", KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), () -> moveFocus(focusIndex - SEATS_PER_ROW));
+        bind(im, am, "down", KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), () -> moveFocus(focusIndex + SEATS_PER_ROW));
+        bind(im, am, "home", KeyStroke.getKeyStroke(KeyEvent.VK_HOME, 0), () -> moveFocus(0));
+        bind(im, am, "end", KeyStroke.getKeyStroke(KeyEvent.VK_END, 0), () -> moveFocus(totalSeats - 1));
+        bind(im, am, "toggle", KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), () -> toggle(focusIndex));
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "toggle");
+        bind(im, am, "zoomIn", KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, 0), () -> setZoom(zoom * 1.25));
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_ADD, 0), "zoomIn");
+        bind(im, am, "zoomOut", KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, 0), () -> setZoom(zoom / 1.25));
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT, 0), "zoomOut");
+    }
+
+    private static void bind(InputMap im, ActionMap am, String name, KeyStroke key, Runnable action) {
+        im.put(key, name);
+        am.put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    // --- Scrollable: scroll by one seat row ---
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? scaled(SEAT_H) + scaled(V_GAP) : scaled(SEAT_W) + scaled(H_GAP);
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        // Stretch to the viewport when it is wider so rows stay centred
+        return getParent() instanceof JViewport && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
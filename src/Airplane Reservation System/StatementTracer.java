@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+import java.util.regex.Pattern;
+
+// JDBC tracing layer: DatabaseManager.getConnection() hands out connections wrapped by this class, and every
+// statement run on them is timed (execution, plus row fetching for queries) and aggregated per SQL template.
+// Templates are the SQL with literals replaced by '?' and generated "IN (?, ?, ?)" / "WHEN ? THEN ?" lists
+// collapsed, so the handful of queries in DatabaseManager map to a handful of rows in the admin SQL tab.
+// Statements slower than airplane.sql.slowMillis (default 200) are appended to a rotating slow-query log
+// (airplane.sql.slowLog, default slow-queries.log, 5 x 1 MB) and, with -Dairplane.sql.slowToAudit=true,
+// to audit_log as well. Only the types of bind parameters are logged, never their values (passwords are binds).
+// Tracing is on by default; -Dairplane.sql.trace=false hands out the pooled connections unwrapped.
+public class StatementTracer {
+
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("airplane.sql.trace"));
+    private static final long SLOW_THRESHOLD_NANOS = Long.getLong("airplane.sql.slowMillis", 200) * 1_000_000L;
+    private static final String SLOW_LOG_FILE = System.getProperty("airplane.sql.slowLog", "slow-queries.log");
+    private static final int SLOW_LOG_MAX_BYTES = 1024 * 1024;
+    private static final int SLOW_LOG_FILES = 5;
+    private static final boolean SLOW_TO_AUDIT = Boolean.getBoolean("airplane.sql.slowToAudit");
+    private static final int MAX_SHAPES_PER_TEMPLATE = 8;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHEN_THEN_LIST = Pattern.compile("(?:\\s+WHEN \\? THEN \\?)+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ConcurrentMap<String, TemplateStats> templates = new ConcurrentHashMap<>();
+    private static FileHandler slowLog;
+    private static boolean slowLogFailed = false;
+
+    // Aggregates for one SQL template
+    public static class TemplateStats {
+        public final String template;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram execution = new LatencyHistogram();
+        private final LatencyHistogram fetch = new LatencyHistogram();
+        private final Set<String> bindShapes = ConcurrentHashMap.newKeySet();
+
+        TemplateStats(String template) {
+            this.template = template;
+        }
+
+        public long getCalls() { return calls.sum(); }
+        public long getErrors() { return errors.sum(); }
+        public long getSlowCount() { return slow.sum(); }
+        public long getRows() { return rows.sum(); }
+        public LatencyHistogram getExecution() { return execution; }
+        public LatencyHistogram getFetch() { return fetch; }
+
+        // Total time spent in this template, in microseconds
+        public long getTotalMicros() {
+            return (long) (execution.getMeanMicros() * execution.getCount() + fetch.getMeanMicros() * fetch.getCount());
+        }
+
+        public List<String> getBindShapes() {
+            List<String> shapes = new ArrayList<>(bindShapes);
+            Collections.sort(shapes);
+            return shapes;
+        }
+    }
+
+    // One execution, completed when its result set (if any) is closed
+    private static class Trace {
+        final String sql;
+        final String bindShape;
+        final long executionNanos;
+        long fetchNanos;
+        long rows;
+        boolean failed;
+        boolean finished;
+
+        Trace(String sql, String bindShape, long executionNanos) {
+            this.sql = sql;
+            this.bindShape = bindShape;
+            this.executionNanos = executionNanos;
+        }
+    }
+
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED) return connection;
+        return (Connection) Proxy.newProxyInstance(StatementTracer.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    // All templates seen so far, most total time first
+    public static List<TemplateStats> getTemplateStats() {
+        List<TemplateStats> list = new ArrayList<>(templates.values());
+        list.sort(Comparator.comparingLong(TemplateStats::getTotalMicros).reversed());
+        return list;
+    }
+
+    public static void reset() {
+        templates.clear();
+    }
+
+    static String templateOf(String sql) {
+        String t = STRING_LITERAL.matcher(sql).replaceAll("?");
+        t = NUMBER_LITERAL.matcher(t).replaceAll("?");
+        t = PLACEHOLDER_LIST.matcher(t).replaceAll("?...");
+        t = WHEN_THEN_LIST.matcher(t).replaceAll(" WHEN ? THEN ?...");
+        return WHITESPACE.matcher(t).replaceAll(" ").trim();
+    }
+
+    private static void finish(Trace trace) {
+        if (trace.finished) return;
+        trace.finished = true;
+
+        String template = templateOf(trace.sql);
+        TemplateStats stats = templates.computeIfAbsent(template, TemplateStats::new);
+        stats.calls.increment();
+        if (trace.failed) stats.errors.increment();
+        stats.rows.add(trace.rows);
+        stats.execution.recordNanos(trace.executionNanos);
+        if (trace.fetchNanos > 0) stats.fetch.recordNanos(trace.fetchNanos);
+        if (stats.bindShapes.size() < MAX_SHAPES_PER_TEMPLATE) stats.bindShapes.add(trace.bindShape);
+
+        if (trace.executionNanos + trace.fetchNanos >= SLOW_THRESHOLD_NANOS) {
+            stats.slow.increment();
+            logSlow(trace, template);
+        }
+    }
+
+    private static void logSlow(Trace trace, String template) {
+        String line = String.format("exec=%s fetch=%s rows=%d binds=%s%s thread=%s | %s",
+                LatencyHistogram.format(trace.executionNanos / 1000), LatencyHistogram.format(trace.fetchNanos / 1000),
+                trace.rows, trace.bindShape, trace.failed ? " FAILED" : "", Thread.currentThread().getName(), template);
+        FileHandler handler = getSlowLog();
+        if (handler != null) {
+            handler.publish(new LogRecord(java.util.logging.Level.WARNING, line));
+            handler.flush();
+        }
+        // The audit writer's own INSERT is traced too; never let a slow one feed itself
+        if (SLOW_TO_AUDIT && !template.startsWith("INSERT INTO audit_log")) {
+            DatabaseManager.addAuditLogEntry("Slow query: " + line, "System");
+        }
+    }
+
+    private static synchronized FileHandler getSlowLog() {
+        if (slowLog == null && !slowLogFailed) {
+            try {
+                String pattern = SLOW_LOG_FILE.replace("%", "%%") + ".%g";
+                slowLog = new FileHandler(pattern, SLOW_LOG_MAX_BYTES, SLOW_LOG_FILES, true);
+                slowLog.setFormatter(new Formatter() {
+                    @Override
+                    public String format(LogRecord record) {
+                        return LocalDateTime.now() + " " + record.getMessage() + System.lineSeparator();
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                slowLogFailed = true;
+                System.err.println("Could not open slow-query log " + SLOW_LOG_FILE + ": " + e.getMessage());
+            }
+        }
+        return slowLog;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("toString")) return "Traced[" + target + "]";
+
+            Object result = invokeTarget(target, method, args);
+            if (name.equals("prepareStatement") && args[0] instanceof String) {
+                return Proxy.newProxyInstance(StatementTracer.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+                        new StatementHandler((Statement) result, (String) args[0]));
+            }
+            if (name.equals("createStatement")) {
+                return Proxy.newProxyInstance(StatementTracer.class.getClassLoader(), new Class<?>[] { Statement.class },
+                        new StatementHandler((Statement) result, null));
+            }
+            return result;
+        }
+    }
+
+    // Wraps both Statement (sql passed to execute*) and PreparedStatement (sql fixed at prepare time)
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final TreeMap<Integer, String> bindTypes = new TreeMap<>();
+        private int batchSize = 0;
+        private String batchSql;
+        private Trace open; // the query whose result set is still being read
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && method.getDeclaringClass() == PreparedStatement.class) {
+                bindTypes.put((Integer) args[0], name.substring(3));
+            } else if (name.equals("clearParameters")) {
+                bindTypes.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+                if (args != null && args.length == 1) batchSql = (String) args[0];
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args, name);
+            } else if (name.equals("close") && open != null) {
+                finish(open);
+                open = null;
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args, String name) throws Throwable {
+            if (open != null) {
+                finish(open); // re-executing closes the previous result set
+                open = null;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : name.contains("Batch") && batchSql != null ? batchSql : preparedSql;
+            String shape = bindShape(name.contains("Batch"));
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                Trace failed = new Trace(sql, shape, System.nanoTime() - start);
+                failed.failed = true;
+                finish(failed);
+                throw t;
+            } finally {
+                if (name.contains("Batch")) batchSize = 0;
+            }
+            Trace trace = new Trace(sql, shape, System.nanoTime() - start);
+
+            if (result instanceof ResultSet) {
+                open = trace;
+                return Proxy.newProxyInstance(StatementTracer.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                        new ResultSetHandler((ResultSet) result, trace));
+            }
+            if (result instanceof Integer) trace.rows = Math.max(0, (Integer) result);
+            if (result instanceof Long) trace.rows = Math.max(0, (Long) result);
+            if (result instanceof int[]) for (int n : (int[]) result) trace.rows += Math.max(0, n);
+            if (result instanceof long[]) for (long n : (long[]) result) trace.rows += Math.max(0, n);
+            finish(trace);
+            return result;
+        }
+
+        // "(Int, String)"; batches add " x<rows>"
+        private String bindShape(boolean batch) {
+            String shape = "(" + String.join(", ", bindTypes.values()) + ")";
+            return batch && batchSize > 0 ? shape + " x" + batchSize : shape;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Trace trace;
+
+        ResultSetHandler(ResultSet target, Trace trace) {
+            this.target = target;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                Object hasRow = invokeTarget(target, method, args);
+                trace.fetchNanos += System.nanoTime() - start;
+                if ((Boolean) hasRow) trace.rows++;
+                return hasRow;
+            }
+            if (name.equals("close")) finish(trace);
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+// Query count and latency of DatabaseManager.getUserBookings as a user's booking count grows, against the
+// live database. For each size in `sizes`, tops the user up to that many bookings (one seat each, on whichever
+// flights have room), then calls getUserBookings `iterations` times and reports SQL statements per call (from
+// StatementTracer, so keep airplane.sql.trace on) and the latency distribution. A flat query count across sizes
+// is what the batched loader promises. The bookings created here are cancelled afterwards (cleanup=true).
+//
+//   java UserBookingsBenchmark user=user1 password=pass1 sizes=1,10,100,500 iterations=200 cleanup=true
+public class UserBookingsBenchmark {
+
+    public static void main(String[] args) {
+        String username = "user1", password = "pass1", sizes = "1,10,100,500";
+        int iterations = 200;
+        boolean cleanup = true;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "user": username = value; break;
+                case "password": password = value; break;
+                case "sizes": sizes = value; break;
+                case "iterations": iterations = Integer.parseInt(value); break;
+                case "cleanup": cleanup = Boolean.parseBoolean(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (!StatementTracer.ENABLED) {
+            System.err.println("Statement tracing is off (-Dairplane.sql.trace=false); query counts will read 0.");
+        }
+
+        AirplaneReservationSystem.User user = DatabaseManager.validateUser(username, password);
+        if (user == null) {
+            System.err.println("Login failed for " + username);
+            System.exit(1);
+        }
+        List<AirplaneReservationSystem.Flight> flights = new ArrayList<>();
+        for (AirplaneReservationSystem.Flight f : new DefaultBookingService().searchFlights(null, null)) {
+            if (f.getCurrentStatus() != AirplaneReservationSystem.FlightStatus.CANCELED) flights.add(f);
+        }
+
+        List<String> created = new ArrayList<>();
+        int existing = DatabaseManager.getUserBookings(user.getUserId()).size();
+        System.out.printf("%s has %d booking(s); %d iterations per size%n", username, existing, iterations);
+        System.out.printf("%10s %12s %s%n", "bookings", "queries/call", "latency");
+        try {
+            for (String s : sizes.split(",")) {
+                int target = Integer.parseInt(s.trim());
+                while (existing + created.size() < target) {
+                    String pnr = bookOneSeat(user, flights);
+                    if (pnr == null) {
+                        System.err.println("No free seats left to reach " + target + " bookings.");
+                        return;
+                    }
+                    created.add(pnr);
+                }
+                measure(user.getUserId(), existing + created.size(), iterations);
+            }
+        } finally {
+            if (cleanup) {
+                int cancelled = 0;
+                for (String pnr : created) {
+                    if (DatabaseManager.cancelBooking(pnr, user.getUserId())) cancelled++;
+                }
+                System.out.println("Cleanup: cancelled " + cancelled + " of " + created.size() + " test booking(s).");
+            }
+            DatabaseManager.shutdownAuditLog(10000);
+            DatabaseManager.closeConnection();
+        }
+    }
+
+    private static void measure(int userId, int bookings, int iterations) {
+        for (int i = 0; i < Math.max(1, iterations / 10); i++) DatabaseManager.getUserBookings(userId); // warm-up
+        StatementTracer.reset();
+        LatencyHistogram latency = new LatencyHistogram();
+        int loaded = 0;
+        for (int i = 0; i < iterations; i++) {
+            long t = System.nanoTime();
+            loaded = DatabaseManager.getUserBookings(userId).size();
+            latency.recordNanos(System.nanoTime() - t);
+        }
+        long statements = 0;
+        for (StatementTracer.TemplateStats stats : StatementTracer.getTemplateStats()) statements += stats.getCalls();
+        if (loaded != bookings) System.err.printf("Expected %d bookings, loaded %d%n", bookings, loaded);
+        System.out.printf("%10d %12.1f %s%n", bookings, statements / (double) iterations, latency.summary());
+    }
+
+    // Books the first free seat on the first flight with room; returns the PNR, or null when every flight is full
+    private static String bookOneSeat(AirplaneReservationSystem.User user, List<AirplaneReservationSystem.Flight> flights) {
+        for (AirplaneReservationSystem.Flight flight : flights) {
+            BitSet reserved = DatabaseManager.getReservedSeatBits(flight.getId());
+            int seat = reserved.nextClearBit(0);
+            if (seat >= flight.getTotalSeats()) continue;
+            BookingService.Quote quote = FareRules.get().quote(flight, "Economy", 1, 0);
+            String pnr = PnrAllocator.nextPnr();
+            if (DatabaseManager.createBooking(user, flight, quote.fare, quote.totalPrice,
+                    Collections.singleton(SeatInventory.decode(seat)), 1, "Benchmark", pnr) != null) {
+                return pnr;
+            }
+        }
+        return null;
+    }
+}
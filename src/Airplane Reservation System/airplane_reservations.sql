@@ -88,6 +88,31 @@ INSERT INTO `bookings` (`booking_id`, `pnr`, `user_id`, `flight_id`, `fare_class
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `dashboard_stats`
+--
+-- Single-row materialized counters for the admin dashboard. Kept up to date by the
+-- booking, cancellation, check-in and flight status transactions in DatabaseManager.
+--
+
+CREATE TABLE `dashboard_stats` (
+  `stats_id` int(11) NOT NULL,
+  `total_bookings` int(11) NOT NULL DEFAULT 0,
+  `total_revenue` decimal(14,2) NOT NULL DEFAULT 0.00,
+  `checked_in_count` int(11) NOT NULL DEFAULT 0,
+  `booked_seats` bigint(20) NOT NULL DEFAULT 0,
+  `active_capacity` bigint(20) NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Dumping data for table `dashboard_stats`
+--
+
+INSERT INTO `dashboard_stats` (`stats_id`, `total_bookings`, `total_revenue`, `checked_in_count`, `booked_seats`, `active_capacity`) VALUES
+(1, 1, 3150.00, 0, 1, 2750);
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `flights`
 --
@@ -127,6 +152,29 @@ INSERT INTO `flights` (`flight_id`, `route`, `base_fare`, `total_seats`, `flight
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `pnr_sequence`
+--
+-- Single-row counter. Each app instance leases a block of sequence numbers from it
+-- and turns them into PNRs locally (see PnrAllocator). pnr_key is generated on the
+-- first lease and shared by all instances.
+--
+
+CREATE TABLE `pnr_sequence` (
+  `seq_id` int(11) NOT NULL,
+  `next_value` bigint(20) NOT NULL DEFAULT 0,
+  `pnr_key` bigint(20) DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Dumping data for table `pnr_sequence`
+--
+
+INSERT INTO `pnr_sequence` (`seq_id`, `next_value`, `pnr_key`) VALUES
+(1, 0, NULL);
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `reserved_seats`
 --
@@ -189,6 +237,12 @@ ALTER TABLE `bookings`
   ADD KEY `user_id` (`user_id`),
   ADD KEY `flight_id` (`flight_id`);
 
+--
+-- Indexes for table `dashboard_stats`
+--
+ALTER TABLE `dashboard_stats`
+  ADD PRIMARY KEY (`stats_id`);
+
 --
 -- Indexes for table `flights`
 --
@@ -196,6 +250,12 @@ ALTER TABLE `flights`
   ADD PRIMARY KEY (`flight_id`),
   ADD UNIQUE KEY `route` (`route`);
 
+--
+-- Indexes for table `pnr_sequence`
+--
+ALTER TABLE `pnr_sequence`
+  ADD PRIMARY KEY (`seq_id`);
+
 --
 -- Indexes for table `reserved_seats`
 --
@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// PnrAllocator hands out codes without asking the database, so permute must never map two sequence numbers to
+// the same code. Checks CODES sequence numbers per key; raise it for a longer run, e.g.
+//   mvn -B test -Dtest=PnrAllocatorTest -Dairplane.test.pnrCodes=50000000
+class PnrAllocatorTest {
+
+    private static final int CODES = Integer.getInteger("airplane.test.pnrCodes", 2_000_000);
+    private static final long[] KEYS = {0L, 1L, -1L, 0x5DEECE66DL, 0x9E3779B97F4A7C15L};
+
+    @Test
+    void permuteGivesDistinctCodesInTheCodeSpace() {
+        for (long key : KEYS) {
+            int[] roundKeys = PnrAllocator.roundKeys(key);
+            long[] codes = new long[CODES];
+            for (int seq = 0; seq < CODES; seq++) {
+                codes[seq] = PnrAllocator.permute(seq, roundKeys);
+                assertTrue(codes[seq] >= 0 && codes[seq] < PnrAllocator.CODE_SPACE, "out of range for sequence " + seq);
+            }
+            Arrays.sort(codes);
+            for (int i = 1; i < CODES; i++) {
+                assertNotEquals(codes[i - 1], codes[i], "collision with key " + key);
+            }
+        }
+    }
+
+    @Test
+    void permuteCoversTheEndOfTheSequenceRange() {
+        int[] roundKeys = PnrAllocator.roundKeys(42L);
+        long[] codes = new long[1000];
+        for (int i = 0; i < codes.length; i++) codes[i] = PnrAllocator.permute(PnrAllocator.CODE_SPACE - 1 - i, roundKeys);
+        assertEquals(codes.length, Arrays.stream(codes).distinct().count());
+        assertThrows(IllegalStateException.class, () -> PnrAllocator.permute(PnrAllocator.CODE_SPACE, roundKeys));
+        assertThrows(IllegalStateException.class, () -> PnrAllocator.permute(-1, roundKeys));
+    }
+
+    @Test
+    void keysGiveDifferentOrders() {
+        int[] a = PnrAllocator.roundKeys(1L), b = PnrAllocator.roundKeys(2L);
+        int same = 0;
+        for (long seq = 0; seq < 1000; seq++) {
+            if (PnrAllocator.permute(seq, a) == PnrAllocator.permute(seq, b)) same++;
+        }
+        assertTrue(same < 10, same + " of 1000 codes identical under two keys");
+    }
+
+    @Test
+    void encodeUsesSixCharactersOfTheAlphabet() {
+        assertEquals("AAAAAA", PnrAllocator.encode(0));
+        assertEquals("AAAAAB", PnrAllocator.encode(1));
+        assertEquals("999999", PnrAllocator.encode(PnrAllocator.CODE_SPACE - 1));
+    }
+}